@@ -6,6 +6,14 @@ const API = {
     // TODO: Replace with your API Gateway URL after deployment
     BASE_URL: 'https://YOUR_API_GATEWAY_ID.execute-api.YOUR_REGION.amazonaws.com/prod',
 
+    /**
+     * Whether BASE_URL points at a real deployment (API Gateway or the local server)
+     * @returns {boolean}
+     */
+    isConfigured() {
+        return !this.BASE_URL.includes('YOUR_API_GATEWAY_ID');
+    },
+
     /**
      * Run patrol optimization algorithm
      * @param {Object} params - Optimization parameters
@@ -28,6 +36,93 @@ const API = {
         return response.json();
     },
 
+    /**
+     * Run optimization, receiving NDJSON events as each ranger's route completes.
+     * The local server sends each event as it happens; behind Lambda they all
+     * arrive at the end, since the Java runtime cannot stream responses.
+     * @param {Object} params - Optimization parameters
+     * @param {Function} onEvent - Called with each parsed event (route, coverage, stats, error)
+     * @returns {Promise<void>} - Resolves when the stream ends
+     */
+    async optimizeStream(params, onEvent) {
+        const response = await fetch(`${this.BASE_URL}/api/optimize`, {
+            method: 'POST',
+            headers: {
+                'Content-Type': 'application/json',
+                'Accept': 'application/x-ndjson',
+            },
+            body: JSON.stringify(params)
+        });
+
+        if (!response.ok) {
+            const error = await response.json();
+            throw new Error(error.message || 'Optimization failed');
+        }
+
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffered = '';
+
+        try {
+            while (true) {
+                const { done, value } = await reader.read();
+                if (done) break;
+
+                buffered += decoder.decode(value, { stream: true });
+                const lines = buffered.split('\n');
+                buffered = lines.pop();
+                lines.filter(line => line.trim()).forEach(line => onEvent(JSON.parse(line)));
+            }
+
+            if (buffered.trim()) {
+                onEvent(JSON.parse(buffered));
+            }
+        } finally {
+            // Release the body even if onEvent threw, so the server stops the run
+            reader.cancel().catch(() => {});
+        }
+    },
+
+    /**
+     * Run optimization on a stored map without sending its contents
+     * @param {string} mapId - Stored map ID
+     * @param {Object} params - rangerCount, maxSteps and optional saveResult
+     * @returns {Promise<Object>} - Optimization results (with resultId when saved)
+     */
+    async optimizeStoredMap(mapId, params) {
+        return this.optimize({ ...params, mapId: mapId });
+    },
+
+    /**
+     * Start an optimization as a background job
+     * @param {Object} params - Optimization parameters
+     * @returns {Promise<Object>} - { jobId, status, statusUrl }
+     */
+    async startOptimizationJob(params) {
+        return this.optimize({ ...params, async: true });
+    },
+
+    /**
+     * Poll a background optimization job
+     * @param {string} jobId - Job ID
+     * @returns {Promise<Object>} - Status, percentComplete, partial routes, and stats/resultId when done
+     */
+    async getOptimizationJob(jobId) {
+        const response = await fetch(`${this.BASE_URL}/api/optimize/jobs/${jobId}`, {
+            method: 'GET',
+            headers: {
+                'Content-Type': 'application/json',
+            }
+        });
+
+        if (!response.ok) {
+            const error = await response.json();
+            throw new Error(error.message || 'Failed to fetch job');
+        }
+
+        return response.json();
+    },
+
     /**
      * Save map configuration to DynamoDB
      * @param {Object} mapData - Map configuration
@@ -91,6 +186,31 @@ const API = {
         return response.json();
     },
 
+    /**
+     * Get one level-of-detail tile of a stored map or result
+     * @param {string} kind - 'maps' or 'results'
+     * @param {string} id - Map or result ID
+     * @param {number} z - Pyramid level (0 = full resolution)
+     * @param {number} x - Tile column
+     * @param {number} y - Tile row
+     * @returns {Promise<Object>} - Tile with riskMean, riskMax, coverageMean, coverageMax
+     */
+    async getTile(kind, id, z, x, y) {
+        const response = await fetch(`${this.BASE_URL}/api/${kind}/${id}/tiles/${z}/${x}/${y}`, {
+            method: 'GET',
+            headers: {
+                'Content-Type': 'application/json',
+            }
+        });
+
+        if (!response.ok) {
+            const error = await response.json();
+            throw new Error(error.message || 'Failed to fetch tile');
+        }
+
+        return response.json();
+    },
+
     /**
      * Save optimization result
      * @param {Object} result - Optimization result
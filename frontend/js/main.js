@@ -81,14 +81,17 @@ async function runOptimization() {
             terrainMap: currentMap.terrainMap
         };
 
-        // For local testing without API, use mock optimization
-        // Replace with: const result = await API.optimize(params);
-        const result = await mockOptimize(params);
+        // Draw routes as they are computed; without a deployment, use mock optimization
+        const result = API.isConfigured()
+            ? await streamOptimization(params)
+            : await mockOptimize(params);
 
         currentResult = result;
 
-        // Animate the routes
-        await Visualizer.animateRoutes(result.routes, 50);
+        // Animate the routes (streamed results are already drawn)
+        if (!result.streamed) {
+            await Visualizer.animateRoutes(result.routes, 50);
+        }
 
         // Update statistics
         Visualizer.updateStats(result.stats);
@@ -101,6 +104,37 @@ async function runOptimization() {
     }
 }
 
+/**
+ * Run optimization over the NDJSON stream, drawing each route as it arrives
+ * @returns {Promise<Object>} - Result assembled from the stream (routes, coverage, stats)
+ */
+async function streamOptimization(params) {
+    const routes = [];
+    const coverage = Array(params.gridSize).fill(null)
+        .map(() => Array(params.gridSize).fill(0));
+    let stats = null;
+
+    Visualizer.clearRoutes();
+
+    await API.optimizeStream(params, event => {
+        if (event.type === 'route') {
+            Visualizer.drawRoute(event, routes.length);
+            routes.push({ rangerId: event.rangerId, path: event.path });
+        } else if (event.type === 'coverage') {
+            event.cells.forEach(([row, col, added]) => {
+                coverage[row][col] += added;
+            });
+        } else if (event.type === 'stats') {
+            stats = event.stats;
+            Visualizer.updateStats(stats);
+        } else if (event.type === 'error') {
+            throw new Error(event.message);
+        }
+    });
+
+    return { routes: routes, coverage: coverage, stats: stats, streamed: true };
+}
+
 /**
  * Mock optimization for local testing (simulates Lambda response)
  * This will be replaced by actual API call
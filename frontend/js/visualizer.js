@@ -77,6 +77,40 @@ const Visualizer = {
         });
     },
 
+    /**
+     * Remove all drawn routes from the map
+     */
+    clearRoutes() {
+        document.querySelectorAll('.map-cell.patrol, .map-cell.ranger').forEach(cell => {
+            cell.classList.remove('patrol', 'ranger');
+            for (let i = 0; i < 5; i++) {
+                cell.classList.remove(`route-${i}`);
+            }
+        });
+    },
+
+    /**
+     * Draw a single route as soon as it arrives, leaving existing routes in place
+     * @param {Object} route - Route object with rangerId and path
+     * @param {number} index - Position of the route, used for its color
+     */
+    drawRoute(route, index) {
+        route.path.forEach((point, stepIndex) => {
+            const [row, col] = point;
+            const cell = document.querySelector(
+                `.map-cell[data-row="${row}"][data-col="${col}"]`
+            );
+
+            if (cell) {
+                cell.classList.add('patrol', `route-${index % 5}`);
+
+                if (stepIndex === 0) {
+                    cell.classList.add('ranger');
+                }
+            }
+        });
+    },
+
     /**
      * Update statistics display
      * @param {Object} stats - Statistics object
@@ -0,0 +1,22 @@
+package antipoaching.common;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+/**
+ * A Lambda handler whose routing can also be called directly.
+ *
+ * handleRequest is the Lambda entry point and converts API Gateway's events;
+ * route holds the actual request handling, so another transport can call it
+ * with no event conversion and apply its own compression and streaming.
+ */
+public interface ApiHandler extends RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    /**
+     * Handle an API request
+     * @return The uncompressed response, possibly with a streamed body
+     */
+    ApiResponse route(ApiRequest request, Context context);
+}
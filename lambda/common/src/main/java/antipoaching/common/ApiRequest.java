@@ -0,0 +1,76 @@
+package antipoaching.common;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An HTTP request as the handlers route it, independent of how it arrived.
+ *
+ * Built from API Gateway's proxy event on Lambda, or straight from the socket
+ * by the local server. Header lookups ignore case, since API Gateway delivers
+ * names in whatever casing the client sent.
+ */
+public class ApiRequest {
+
+    private final String method;
+    private final String path;
+    private final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, String> queryParameters;
+    private final String body;
+
+    /**
+     * @param headers Request headers, or null for none
+     * @param queryParameters Decoded query string parameters, or null for none
+     * @param body Request body text, or null for none
+     */
+    public ApiRequest(String method, String path, Map<String, String> headers,
+                      Map<String, String> queryParameters, String body) {
+        this.method = method;
+        this.path = path;
+        if (headers != null) {
+            this.headers.putAll(headers);
+        }
+        this.queryParameters = queryParameters != null
+            ? Collections.unmodifiableMap(new HashMap<>(queryParameters))
+            : Collections.emptyMap();
+        this.body = body;
+    }
+
+    /**
+     * Convert API Gateway's proxy event. With binary media types enabled, API
+     * Gateway base64-encodes request bodies too, so those are decoded here.
+     */
+    public static ApiRequest fromEvent(APIGatewayProxyRequestEvent event) {
+        String body = event.getBody();
+        if (Boolean.TRUE.equals(event.getIsBase64Encoded()) && body != null) {
+            body = new String(Base64.getDecoder().decode(body), StandardCharsets.UTF_8);
+        }
+        return new ApiRequest(event.getHttpMethod(), event.getPath(), event.getHeaders(),
+            event.getQueryStringParameters(), body);
+    }
+
+    public String getMethod() { return method; }
+    public String getPath() { return path; }
+    public String getBody() { return body; }
+
+    /**
+     * Look up a request header regardless of casing
+     * @return The header value, or null if absent
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * Query string parameters; empty, never null, when there are none
+     */
+    public Map<String, String> getQueryParameters() {
+        return queryParameters;
+    }
+}
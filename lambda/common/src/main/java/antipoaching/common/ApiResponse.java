@@ -0,0 +1,123 @@
+package antipoaching.common;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An HTTP response as the handlers produce it, independent of how it is sent.
+ *
+ * The body is either text or a BodyWriter that streams it. A transport that
+ * can stream (the local server) runs the writer against the connection, so
+ * each flush reaches the client as it happens; Lambda's Java runtime cannot,
+ * so toEvent() runs it into a buffer first. After ResponseCompressor has
+ * gzipped a body, the bytes replace the text until the response is sent.
+ */
+public class ApiResponse {
+
+    /**
+     * Produces a streamed body; called once, on the thread sending the response
+     */
+    public interface BodyWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private int statusCode = 200;
+    private final Map<String, String> headers = new HashMap<>();
+    private String body;
+    private byte[] encodedBody;
+    private BodyWriter stream;
+
+    public int getStatusCode() { return statusCode; }
+    public void setStatusCode(int statusCode) { this.statusCode = statusCode; }
+
+    /**
+     * Response headers, mutable in place
+     */
+    public Map<String, String> getHeaders() { return headers; }
+
+    public String getBody() { return body; }
+
+    public void setBody(String body) {
+        this.body = body;
+        this.encodedBody = null;
+        this.stream = null;
+    }
+
+    public BodyWriter getStream() { return stream; }
+
+    /**
+     * Stream the body instead of holding it as text
+     */
+    public void setStream(BodyWriter stream) {
+        this.stream = stream;
+        this.body = null;
+        this.encodedBody = null;
+    }
+
+    public boolean isStreaming() { return stream != null; }
+
+    /**
+     * Whether the body has been replaced by compressed bytes
+     */
+    public boolean isEncoded() { return encodedBody != null; }
+
+    void setEncodedBody(byte[] encodedBody) {
+        this.encodedBody = encodedBody;
+    }
+
+    /**
+     * The body as it goes on the wire: compressed bytes if encoded, else UTF-8 text.
+     * Empty for no body; a streamed body must be buffered first.
+     */
+    public byte[] getBodyBytes() {
+        if (stream != null) {
+            throw new IllegalStateException("Streamed body has not been buffered");
+        }
+        if (encodedBody != null) {
+            return encodedBody;
+        }
+        return body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    /**
+     * Run a streamed body into text, for transports that cannot stream
+     */
+    public ApiResponse buffer() {
+        if (stream != null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                stream.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            setBody(new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+        return this;
+    }
+
+    /**
+     * Convert to API Gateway's proxy response, base64-encoding compressed bytes
+     * as API Gateway expects for binary payloads
+     */
+    public APIGatewayProxyResponseEvent toEvent() {
+        buffer();
+        APIGatewayProxyResponseEvent event = new APIGatewayProxyResponseEvent();
+        event.setStatusCode(statusCode);
+        event.setHeaders(new HashMap<>(headers));
+        if (encodedBody != null) {
+            event.setBody(Base64.getEncoder().encodeToString(encodedBody));
+            event.setIsBase64Encoded(true);
+        } else {
+            event.setBody(body);
+        }
+        return event;
+    }
+}
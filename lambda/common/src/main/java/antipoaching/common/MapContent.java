@@ -0,0 +1,110 @@
+package antipoaching.common;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+
+/**
+ * Canonical text of a map's layers and the content hash it is stored under.
+ *
+ * Layers are stored once per distinct content in MapContents, keyed by a
+ * SHA-256 over the grid size and the three layers, and a map's id derives
+ * from that hash and its name. Identical layers must hash alike however they
+ * arrived (a client's JSON, a raster import), so the hash covers one
+ * canonical serialisation rather than the text received: each layer as a
+ * nested JSON array without whitespace, risk written as Java doubles
+ * ("1.0", "0.25"), animals as true/false and terrain as integers. The same
+ * text is what gets stored.
+ */
+public final class MapContent {
+
+    public static final int MAP_ID_LENGTH = 32;
+
+    private static final Gson GSON = new Gson();
+
+    private final int gridSize;
+    private final String riskMap;
+    private final String animalMap;
+    private final String terrainMap;
+    private final String contentHash;
+
+    private MapContent(int gridSize, String riskMap, String animalMap, String terrainMap) {
+        this.gridSize = gridSize;
+        this.riskMap = riskMap;
+        this.animalMap = animalMap;
+        this.terrainMap = terrainMap;
+        this.contentHash = Sha256.hex(gridSize + "\n" + riskMap + "\n" + animalMap + "\n" + terrainMap);
+    }
+
+    /**
+     * Canonicalise parsed layers
+     * @throws IllegalArgumentException if a layer is not gridSize x gridSize
+     */
+    public static MapContent of(int gridSize, double[][] riskMap, boolean[][] animalMap, int[][] terrainMap) {
+        checkSize("riskMap", gridSize, riskMap.length);
+        checkSize("animalMap", gridSize, animalMap.length);
+        checkSize("terrainMap", gridSize, terrainMap.length);
+        for (int row = 0; row < gridSize; row++) {
+            checkSize("riskMap", gridSize, riskMap[row].length);
+            checkSize("animalMap", gridSize, animalMap[row].length);
+            checkSize("terrainMap", gridSize, terrainMap[row].length);
+        }
+        return new MapContent(gridSize, GSON.toJson(riskMap), GSON.toJson(animalMap), GSON.toJson(terrainMap));
+    }
+
+    /**
+     * Canonicalise layers received as JSON, whatever number formatting they used
+     * @throws IllegalArgumentException if a layer is not gridSize x gridSize or holds a non-value
+     */
+    public static MapContent fromJson(int gridSize, JsonArray riskMapJson,
+                                      JsonArray animalMapJson, JsonArray terrainMapJson) {
+        if (gridSize <= 0) {
+            throw new IllegalArgumentException("gridSize must be positive");
+        }
+        checkSize("riskMap", gridSize, riskMapJson.size());
+        checkSize("animalMap", gridSize, animalMapJson.size());
+        checkSize("terrainMap", gridSize, terrainMapJson.size());
+
+        double[][] riskMap = new double[gridSize][gridSize];
+        boolean[][] animalMap = new boolean[gridSize][gridSize];
+        int[][] terrainMap = new int[gridSize][gridSize];
+        try {
+            for (int row = 0; row < gridSize; row++) {
+                JsonArray riskRow = riskMapJson.get(row).getAsJsonArray();
+                JsonArray animalRow = animalMapJson.get(row).getAsJsonArray();
+                JsonArray terrainRow = terrainMapJson.get(row).getAsJsonArray();
+                checkSize("riskMap", gridSize, riskRow.size());
+                checkSize("animalMap", gridSize, animalRow.size());
+                checkSize("terrainMap", gridSize, terrainRow.size());
+
+                for (int col = 0; col < gridSize; col++) {
+                    riskMap[row][col] = riskRow.get(col).getAsDouble();
+                    animalMap[row][col] = animalRow.get(col).getAsBoolean();
+                    terrainMap[row][col] = terrainRow.get(col).getAsInt();
+                }
+            }
+        } catch (IllegalStateException | UnsupportedOperationException | NumberFormatException e) {
+            throw new IllegalArgumentException("Map layers must be nested arrays of values: " + e.getMessage());
+        }
+        return of(gridSize, riskMap, animalMap, terrainMap);
+    }
+
+    private static void checkSize(String layer, int gridSize, int length) {
+        if (length != gridSize) {
+            throw new IllegalArgumentException(String.format(
+                "%s must be %dx%d, found a dimension of %d", layer, gridSize, gridSize, length));
+        }
+    }
+
+    /**
+     * Id of the map saving this content under a name
+     */
+    public String getMapId(String name) {
+        return Sha256.hex(contentHash + "\n" + name).substring(0, MAP_ID_LENGTH);
+    }
+
+    public int getGridSize() { return gridSize; }
+    public String getRiskMap() { return riskMap; }
+    public String getAnimalMap() { return animalMap; }
+    public String getTerrainMap() { return terrainMap; }
+    public String getContentHash() { return contentHash; }
+}
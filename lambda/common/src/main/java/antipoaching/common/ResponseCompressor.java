@@ -0,0 +1,168 @@
+package antipoaching.common;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip-encodes response bodies for clients that accept it.
+ *
+ * Negotiates on Accept-Encoding (honouring q-values and "*"), skips bodies
+ * under MIN_COMPRESS_BYTES where the gzip overhead outweighs the saving, and
+ * leaves the compressed bytes on the response for the transport to send
+ * (ApiResponse.toEvent base64-encodes them for API Gateway). Streamed
+ * bodies are left alone; a transport that streams them compresses as it
+ * writes. A strong ETag on a compressed response gets ETAG_SUFFIX, since the
+ * gzip bytes are a different representation. Deflaters hold sizeable native buffers, so a
+ * small pool of encoders is reused across requests.
+ */
+public class ResponseCompressor {
+
+    public static final int MIN_COMPRESS_BYTES = 1024;
+    public static final String ETAG_SUFFIX = "-gzip";    // Keeps ETags distinct per encoding
+
+    private static final int POOL_SIZE = 4;
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final BlockingQueue<Encoder> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * Compress the response body in place if the client accepts gzip and it is worth it
+     * @param acceptEncoding The request's Accept-Encoding header, or null
+     */
+    public ApiResponse compress(String acceptEncoding, ApiResponse response) {
+        String body = response.getBody();
+        if (body == null || response.isEncoded()) {
+            return response;
+        }
+
+        // The encoding depends on the request header from here on
+        response.getHeaders().put("Vary", "Accept-Encoding");
+
+        byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < MIN_COMPRESS_BYTES || !acceptsGzip(acceptEncoding)) {
+            return response;
+        }
+
+        byte[] gzipped = gzip(raw);
+        if (gzipped.length >= raw.length) {
+            return response;
+        }
+
+        response.setEncodedBody(gzipped);
+        response.getHeaders().put("Content-Encoding", "gzip");
+
+        String etag = response.getHeaders().get("ETag");
+        if (etag != null && etag.endsWith("\"")) {
+            response.getHeaders().put("ETag", gzipETag(etag));
+        }
+        return response;
+    }
+
+    /**
+     * The ETag a compressed response carries for a quoted identity ETag
+     */
+    public static String gzipETag(String etag) {
+        return etag.substring(0, etag.length() - 1) + ETAG_SUFFIX + "\"";
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip, i.e. names gzip (or "*")
+     * with a non-zero quality
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        double gzipQuality = -1;
+        double wildcardQuality = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+                gzipQuality = quality;
+            } else if ("*".equals(coding)) {
+                wildcardQuality = quality;
+            }
+        }
+
+        double quality = gzipQuality >= 0 ? gzipQuality : wildcardQuality;
+        return quality > 0;
+    }
+
+    private byte[] gzip(byte[] raw) {
+        Encoder encoder = pool.poll();
+        if (encoder == null) {
+            encoder = new Encoder();
+        }
+
+        try {
+            return encoder.encode(raw);
+        } finally {
+            encoder.reset();
+            if (!pool.offer(encoder)) {
+                encoder.close();
+            }
+        }
+    }
+
+    /**
+     * Raw deflater plus the gzip framing state, reusable after reset()
+     */
+    private static class Encoder {
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        private final CRC32 crc = new CRC32();
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+
+        byte[] encode(byte[] raw) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 32);
+            out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+
+            deflater.setInput(raw);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+
+            crc.update(raw, 0, raw.length);
+            writeIntLE(out, (int) crc.getValue());
+            writeIntLE(out, raw.length);
+            return out.toByteArray();
+        }
+
+        void reset() {
+            deflater.reset();
+            crc.reset();
+        }
+
+        void close() {
+            deflater.end();
+        }
+
+        private static void writeIntLE(ByteArrayOutputStream out, int value) {
+            out.write(value);
+            out.write(value >>> 8);
+            out.write(value >>> 16);
+            out.write(value >>> 24);
+        }
+    }
+}
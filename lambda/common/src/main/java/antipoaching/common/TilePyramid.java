@@ -0,0 +1,259 @@
+package antipoaching.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-resolution pyramid of risk and coverage aggregates for tiled viewing.
+ *
+ * Level 0 has one pixel per cell; each level above halves the resolution, so a
+ * pixel at level z covers a 2^z x 2^z block of cells. Levels stop once the
+ * whole grid fits in one tile. Every pixel keeps the passable cell count, risk
+ * sum and max, and visit sum and max over its block, so max and mean are
+ * available at any zoom.
+ *
+ * Risk is aggregated once when the pyramid is built. Visits can be applied
+ * incrementally: each visit touches one pixel per level, and since visit
+ * counts only grow, max aggregates never need recomputing. The optimizer
+ * keeps one current as rangers move; data-manager builds one per stored map
+ * or result.
+ */
+public class TilePyramid {
+
+    public static final int TILE_SIZE = 64;   // Pixels per tile side
+    public static final int MAX_TILES_PER_REQUEST = 64;
+
+    private final int gridSize;
+    private final int[] dims;                 // Pixels per side at each level
+    private final int[][] passable;
+    private final double[][] riskSum;
+    private final double[][] riskMax;
+    private final long[][] visitSum;
+    private final int[][] visitMax;
+
+    /**
+     * Build from row-major layers
+     * @param riskLevels Risk per cell, 0 where impassable
+     * @param passableMask 1 where passable
+     * @param visitCounts Visit count per cell
+     */
+    public TilePyramid(int gridSize, double[] riskLevels, byte[] passableMask, int[] visitCounts) {
+        this(gridSize);
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                int index = row * gridSize + col;
+                if (passableMask[index] != 0) {
+                    addCell(row, col, riskLevels[index], visitCounts[index]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Start an empty pyramid with no passable cells; fill it with addCell
+     */
+    public TilePyramid(int gridSize) {
+        this.gridSize = gridSize;
+
+        int levels = levelsFor(gridSize);
+
+        dims = new int[levels];
+        passable = new int[levels][];
+        riskSum = new double[levels][];
+        riskMax = new double[levels][];
+        visitSum = new long[levels][];
+        visitMax = new int[levels][];
+
+        for (int z = 0; z < levels; z++) {
+            int dim = pixelsPerSide(gridSize, z);
+            dims[z] = dim;
+            passable[z] = new int[dim * dim];
+            riskSum[z] = new double[dim * dim];
+            riskMax[z] = new double[dim * dim];
+            visitSum[z] = new long[dim * dim];
+            visitMax[z] = new int[dim * dim];
+        }
+    }
+
+    /**
+     * Add one passable cell to every level, O(levels). Each cell is added at most once.
+     */
+    public void addCell(int row, int col, double risk, int visitCount) {
+        for (int z = 0; z < dims.length; z++) {
+            int pixel = (row >> z) * dims[z] + (col >> z);
+            passable[z][pixel]++;
+            riskSum[z][pixel] += risk;
+            riskMax[z][pixel] = Math.max(riskMax[z][pixel], risk);
+            visitSum[z][pixel] += visitCount;
+            visitMax[z][pixel] = Math.max(visitMax[z][pixel], visitCount);
+        }
+    }
+
+    /**
+     * Apply one additional visit to a cell, O(levels)
+     * @param visitCount The cell's visit count after the visit
+     */
+    public void addVisit(int row, int col, int visitCount) {
+        for (int z = 0; z < dims.length; z++) {
+            int pixel = (row >> z) * dims[z] + (col >> z);
+            visitSum[z][pixel]++;
+            if (visitCount > visitMax[z][pixel]) {
+                visitMax[z][pixel] = visitCount;
+            }
+        }
+    }
+
+    /**
+     * Levels in the pyramid of a grid: up to the first that fits in one tile
+     */
+    public static int levelsFor(int gridSize) {
+        int levels = 1;
+        while (pixelsPerSide(gridSize, levels - 1) > TILE_SIZE) {
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * Number of tiles per side at a level of a grid's pyramid
+     */
+    public static int tilesPerSide(int gridSize, int level) {
+        return (pixelsPerSide(gridSize, level) + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    private static int pixelsPerSide(int gridSize, int level) {
+        return (int) (((long) gridSize + (1L << level) - 1) >> level);
+    }
+
+    /**
+     * Check an inclusive tile range against a grid's pyramid, clipping it to
+     * the tiles that exist
+     * @return {z, x0, y0, x1, y1} within the pyramid
+     * @throws IllegalArgumentException if the level does not exist, the range
+     *     is empty or lies wholly outside, or it spans more than MAX_TILES_PER_REQUEST
+     */
+    public static int[] clipRange(int gridSize, int z, int x0, int y0, int x1, int y1) {
+        if (z < 0 || z >= levelsFor(gridSize)) {
+            throw new IllegalArgumentException(
+                "Tile level must be between 0 and " + (levelsFor(gridSize) - 1));
+        }
+        int last = tilesPerSide(gridSize, z) - 1;
+        if (x0 > x1 || y0 > y1 || x1 < 0 || y1 < 0 || x0 > last || y0 > last) {
+            throw new IllegalArgumentException(String.format(
+                "Tile range is outside level %d, which has tiles 0-%d on each axis", z, last));
+        }
+
+        int[] clipped = {z, Math.max(0, x0), Math.max(0, y0), Math.min(last, x1), Math.min(last, y1)};
+        long tiles = (long) (clipped[3] - clipped[1] + 1) * (clipped[4] - clipped[2] + 1);
+        if (tiles > MAX_TILES_PER_REQUEST) {
+            throw new IllegalArgumentException(String.format(
+                "Tile range covers %d tiles; at most %d can be requested at once", tiles, MAX_TILES_PER_REQUEST));
+        }
+        return clipped;
+    }
+
+    /**
+     * Cells under a range from clipRange, as inclusive {row0, col0, row1, col1};
+     * the far edge may lie past the grid
+     */
+    public static int[] cellBounds(int[] range) {
+        long span = (long) TILE_SIZE << range[0];
+        return new int[]{
+            (int) Math.min(Integer.MAX_VALUE, range[2] * span),
+            (int) Math.min(Integer.MAX_VALUE, range[1] * span),
+            (int) Math.min(Integer.MAX_VALUE, (range[4] + 1) * span - 1),
+            (int) Math.min(Integer.MAX_VALUE, (range[3] + 1) * span - 1)
+        };
+    }
+
+    public int getLevels() {
+        return dims.length;
+    }
+
+    /**
+     * Number of tiles per side at a level
+     */
+    public int getTilesPerSide(int level) {
+        return tilesPerSide(gridSize, level);
+    }
+
+    /**
+     * Describe the pyramid so clients can work out which tiles cover their view
+     */
+    public Map<String, Object> getInfo() {
+        List<Integer> tilesPerSide = new ArrayList<>();
+        for (int z = 0; z < dims.length; z++) {
+            tilesPerSide.add(getTilesPerSide(z));
+        }
+        Map<String, Object> info = new HashMap<>();
+        info.put("gridSize", gridSize);
+        info.put("tileSize", TILE_SIZE);
+        info.put("levels", dims.length);
+        info.put("tilesPerSide", tilesPerSide);
+        return info;
+    }
+
+    /**
+     * Get one tile. x is the tile column and y the tile row at level z.
+     * Pixel matrices are row-major and clipped at the grid edge; impassable
+     * pixels report 0 for every aggregate.
+     * @return Tile data, or null if the coordinates are outside the pyramid
+     */
+    public Map<String, Object> getTile(int z, int x, int y) {
+        if (z < 0 || z >= dims.length || x < 0 || y < 0
+                || x >= getTilesPerSide(z) || y >= getTilesPerSide(z)) {
+            return null;
+        }
+
+        int dim = dims[z];
+        int rows = Math.min(TILE_SIZE, dim - y * TILE_SIZE);
+        int cols = Math.min(TILE_SIZE, dim - x * TILE_SIZE);
+
+        double[][] riskMaxTile = new double[rows][cols];
+        double[][] riskMeanTile = new double[rows][cols];
+        int[][] coverageMaxTile = new int[rows][cols];
+        double[][] coverageMeanTile = new double[rows][cols];
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int pixel = (y * TILE_SIZE + r) * dim + (x * TILE_SIZE + c);
+                int count = passable[z][pixel];
+                if (count == 0) continue;
+                riskMaxTile[r][c] = riskMax[z][pixel];
+                riskMeanTile[r][c] = round(riskSum[z][pixel] / count);
+                coverageMaxTile[r][c] = visitMax[z][pixel];
+                coverageMeanTile[r][c] = round((double) visitSum[z][pixel] / count);
+            }
+        }
+
+        Map<String, Object> tile = new HashMap<>();
+        tile.put("z", z);
+        tile.put("x", x);
+        tile.put("y", y);
+        tile.put("cellsPerPixel", 1 << z);
+        tile.put("riskMax", riskMaxTile);
+        tile.put("riskMean", riskMeanTile);
+        tile.put("coverageMax", coverageMaxTile);
+        tile.put("coverageMean", coverageMeanTile);
+        return tile;
+    }
+
+    /**
+     * Get every tile of a range from clipRange, row by row
+     */
+    public List<Map<String, Object>> getTiles(int[] range) {
+        List<Map<String, Object>> tiles = new ArrayList<>();
+        for (int y = range[2]; y <= range[4]; y++) {
+            for (int x = range[1]; x <= range[3]; x++) {
+                tiles.add(getTile(range[0], x, y));
+            }
+        }
+        return tiles;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,60 @@
+package antipoaching.common;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Fixed-width UTC timestamps for createdAt attributes.
+ *
+ * Stored timestamps are compared as strings by DynamoDB key conditions, and
+ * Instant.toString drops trailing zero fractions ("12:00:00Z" but
+ * "12:00:00.250Z"), which sorts them out of order. Every timestamp is written
+ * with exactly three fractional digits instead, and query bounds are brought
+ * to the same form before they reach a key condition.
+ */
+public final class Timestamps {
+
+    private static final DateTimeFormatter FORMAT =
+        DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private Timestamps() {}
+
+    /**
+     * The current time, e.g. "2024-05-01T12:00:00.000Z"
+     */
+    public static String now() {
+        return format(Instant.now());
+    }
+
+    /**
+     * Format an instant, truncated to milliseconds
+     */
+    public static String format(Instant instant) {
+        return FORMAT.format(instant.truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    /**
+     * Normalise a client-supplied bound: any ISO-8601 date-time with an offset,
+     * or a plain date standing for the start of that day (or its last
+     * millisecond for an upper bound)
+     * @throws IllegalArgumentException if the text is neither
+     */
+    public static String normalizeBound(String text, boolean upper) {
+        try {
+            return format(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(text, Instant::from));
+        } catch (DateTimeParseException e) {
+            // Not a date-time; try a plain date below
+        }
+        try {
+            LocalDate date = LocalDate.parse(text);
+            Instant start = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+            return format(upper ? start.plus(1, ChronoUnit.DAYS).minusMillis(1) : start);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Expected an ISO-8601 date or date-time, got: " + text);
+        }
+    }
+}
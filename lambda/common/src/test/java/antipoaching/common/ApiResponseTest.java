@@ -0,0 +1,43 @@
+package antipoaching.common;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiResponseTest {
+
+    @Test
+    void buffersStreamedBodyForLambda() {
+        ApiResponse response = new ApiResponse();
+        response.setStream(out -> {
+            out.write("{\"type\":\"route\"}\n".getBytes(StandardCharsets.UTF_8));
+            out.write("{\"type\":\"stats\"}\n".getBytes(StandardCharsets.UTF_8));
+        });
+        assertTrue(response.isStreaming());
+        assertThrows(IllegalStateException.class, response::getBodyBytes);
+
+        APIGatewayProxyResponseEvent event = response.toEvent();
+
+        assertFalse(response.isStreaming());
+        assertEquals(200, event.getStatusCode());
+        assertEquals("{\"type\":\"route\"}\n{\"type\":\"stats\"}\n", event.getBody());
+    }
+
+    @Test
+    void compressorLeavesStreamsToTheTransport() {
+        ApiResponse response = new ApiResponse();
+        response.setStream(out -> out.write(new byte[4096]));
+
+        new ResponseCompressor().compress("gzip", response);
+
+        assertTrue(response.isStreaming());
+        assertFalse(response.getHeaders().containsKey("Content-Encoding"));
+    }
+}
@@ -0,0 +1,62 @@
+package antipoaching.common;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MapContentTest {
+
+    private final Gson gson = new Gson();
+
+    @Test
+    void hashesClientJsonAndParsedLayersAlike() {
+        MapContent parsed = MapContent.of(2,
+            new double[][]{{0, 1}, {0.25, 0.5}},
+            new boolean[][]{{false, true}, {false, false}},
+            new int[][]{{1, 1}, {0, 1}});
+
+        MapContent fromClient = MapContent.fromJson(2,
+            json("[[0, 1], [0.250, 5e-1]]"),
+            json("[[false, true], [false, false]]"),
+            json("[[1, 1.0], [0, 1]]"));
+
+        assertEquals(parsed.getContentHash(), fromClient.getContentHash());
+        assertEquals(parsed.getRiskMap(), fromClient.getRiskMap());
+        assertEquals("[[0.0,1.0],[0.25,0.5]]", fromClient.getRiskMap());
+        assertEquals(parsed.getMapId("Park"), fromClient.getMapId("Park"));
+    }
+
+    @Test
+    void separatesNamesAndContent() {
+        MapContent a = MapContent.fromJson(1, json("[[0.5]]"), json("[[false]]"), json("[[1]]"));
+        MapContent b = MapContent.fromJson(1, json("[[0.5]]"), json("[[true]]"), json("[[1]]"));
+
+        assertNotEquals(a.getContentHash(), b.getContentHash());
+        assertNotEquals(a.getMapId("One"), a.getMapId("Two"));
+        assertEquals(MapContent.MAP_ID_LENGTH, a.getMapId("One").length());
+    }
+
+    @Test
+    void rejectsLayersOfTheWrongSize() {
+        assertThrows(IllegalArgumentException.class, () ->
+            MapContent.fromJson(2, json("[[0, 1]]"), json("[[false, true]]"), json("[[1, 1]]")));
+        assertThrows(IllegalArgumentException.class, () ->
+            MapContent.fromJson(1, json("[[0, 1]]"), json("[[false]]"), json("[[1]]")));
+        assertThrows(IllegalArgumentException.class, () ->
+            MapContent.fromJson(1, json("[[\"x\"]]"), json("[[false]]"), json("[[1]]")));
+    }
+
+    @Test
+    void sha256MatchesKnownDigest() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", Sha256.hex("abc"));
+    }
+
+    private JsonArray json(String text) {
+        return gson.fromJson(text, JsonArray.class);
+    }
+}
@@ -0,0 +1,141 @@
+package antipoaching.common;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCompressorTest {
+
+    private final ResponseCompressor compressor = new ResponseCompressor();
+
+    @Test
+    void leavesRawGzipOnTheResponseAndBase64OnlyForLambda() throws IOException {
+        String body = "[" + "0.5,".repeat(1000) + "0.5]";
+        ApiResponse response = new ApiResponse();
+        response.setBody(body);
+        response.getHeaders().put("ETag", "\"abc\"");
+
+        compressor.compress("gzip, deflate", response);
+
+        assertTrue(response.isEncoded());
+        assertEquals("gzip", response.getHeaders().get("Content-Encoding"));
+        assertEquals("\"abc-gzip\"", response.getHeaders().get("ETag"));
+        assertEquals(body, gunzip(response.getBodyBytes()));
+
+        APIGatewayProxyResponseEvent event = response.toEvent();
+        assertTrue(event.getIsBase64Encoded());
+        assertArrayEquals(response.getBodyBytes(), Base64.getDecoder().decode(event.getBody()));
+    }
+
+    @Test
+    void skipsSmallBodiesAndClientsWithoutGzip() {
+        ApiResponse small = new ApiResponse();
+        small.setBody("{}");
+        compressor.compress("gzip", small);
+        assertFalse(small.isEncoded());
+        assertEquals("Accept-Encoding", small.getHeaders().get("Vary"));
+
+        ApiResponse refused = new ApiResponse();
+        refused.setBody("x".repeat(4096));
+        compressor.compress("gzip;q=0, identity", refused);
+        assertFalse(refused.isEncoded());
+        assertNull(refused.toEvent().getIsBase64Encoded());
+    }
+
+    @Test
+    void readsLambdaEventsCaseInsensitively() {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        event.setHttpMethod("POST");
+        event.setPath("/api/maps");
+        event.setHeaders(Collections.singletonMap("accept-encoding", "gzip"));
+        event.setBody(Base64.getEncoder().encodeToString("{\"a\":1}".getBytes(StandardCharsets.UTF_8)));
+        event.setIsBase64Encoded(true);
+
+        ApiRequest request = ApiRequest.fromEvent(event);
+
+        assertEquals("gzip", request.getHeader("Accept-Encoding"));
+        assertEquals("{\"a\":1}", request.getBody());
+        assertTrue(request.getQueryParameters().isEmpty());
+    }
+
+    @Test
+    void negotiatesOnQualityAndWildcards() {
+        assertTrue(ResponseCompressor.acceptsGzip("gzip"));
+        assertTrue(ResponseCompressor.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(ResponseCompressor.acceptsGzip("x-gzip"));
+        assertTrue(ResponseCompressor.acceptsGzip("br, *;q=0.1"));
+        assertFalse(ResponseCompressor.acceptsGzip(null));
+        assertFalse(ResponseCompressor.acceptsGzip("identity"));
+        assertFalse(ResponseCompressor.acceptsGzip("*;q=0"));
+        assertFalse(ResponseCompressor.acceptsGzip("gzip;q=0, *"));
+        assertFalse(ResponseCompressor.acceptsGzip("gzip;q=abc"));
+    }
+
+    @Test
+    void pooledEncodersStayCorrectAcrossThreads() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String body = "{\"n\":" + i + ",\"v\":\"" + "ab".repeat(600 + i * 7) + "\"}";
+                results.add(threads.submit(() -> {
+                    ApiResponse response = new ApiResponse();
+                    response.setBody(body);
+                    compressor.compress("gzip", response);
+                    return response.isEncoded() && body.equals(gunzip(response.getBodyBytes()));
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    void suffixesETagsAndLeavesStreamsAndEncodedBodiesAlone() {
+        ApiResponse weak = new ApiResponse();
+        weak.setBody("y".repeat(4096));
+        weak.getHeaders().put("ETag", "W/\"abc\"");
+        compressor.compress("gzip", weak);
+        assertTrue(weak.isEncoded());
+        assertEquals("W/\"abc-gzip\"", weak.getHeaders().get("ETag"));
+        assertEquals("\"abc-gzip\"", ResponseCompressor.gzipETag("\"abc\""));
+
+        ApiResponse streamed = new ApiResponse();
+        streamed.setStream(out -> out.write(new byte[4096]));
+        compressor.compress("gzip", streamed);
+        assertFalse(streamed.isEncoded());
+        assertNull(streamed.getHeaders().get("Content-Encoding"));
+
+        byte[] once = weak.getBodyBytes();
+        compressor.compress("gzip", weak);
+        assertArrayEquals(once, weak.getBodyBytes());
+    }
+
+    private static String gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
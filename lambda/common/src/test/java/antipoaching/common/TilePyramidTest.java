@@ -0,0 +1,65 @@
+package antipoaching.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TilePyramidTest {
+
+    @Test
+    void levelsStopOnceTheGridFitsOneTile() {
+        assertEquals(1, TilePyramid.levelsFor(64));
+        assertEquals(2, TilePyramid.levelsFor(65));
+        assertEquals(3, TilePyramid.levelsFor(200));
+        assertEquals(4, TilePyramid.tilesPerSide(200, 0));
+        assertEquals(1, TilePyramid.tilesPerSide(200, 2));
+    }
+
+    @Test
+    void clipsRangesToTheTilesThatExist() {
+        assertArrayEquals(new int[]{0, 0, 2, 3, 3}, TilePyramid.clipRange(200, 0, -5, 2, 10, 3));
+        assertArrayEquals(new int[]{1, 0, 0, 1, 1},
+            TilePyramid.clipRange(200, 1, 0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void rejectsRangesOutsideThePyramidOrTooLarge() {
+        assertThrows(IllegalArgumentException.class, () -> TilePyramid.clipRange(200, 3, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> TilePyramid.clipRange(200, -1, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> TilePyramid.clipRange(200, 0, 4, 0, 9, 0));
+        assertThrows(IllegalArgumentException.class, () -> TilePyramid.clipRange(200, 0, 2, 0, 1, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> TilePyramid.clipRange(64 * 20, 0, 0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void aggregatesBlocksAndAppliesVisits() {
+        int size = 100;
+        double[] risk = new double[size * size];
+        byte[] passable = new byte[size * size];
+        Arrays.fill(passable, (byte) 1);
+        risk[0] = 0.8;
+        risk[1] = 0.4;
+        passable[size] = 0;
+
+        TilePyramid pyramid = new TilePyramid(size, risk, passable, new int[size * size]);
+        pyramid.addVisit(0, 1, 1);
+        pyramid.addVisit(0, 1, 2);
+
+        Map<String, Object> top = pyramid.getTile(1, 0, 0);
+        assertEquals(0.8, ((double[][]) top.get("riskMax"))[0][0]);
+        assertEquals(0.4, ((double[][]) top.get("riskMean"))[0][0]);      // (0.8 + 0.4) / 3 passable
+        assertEquals(2, ((int[][]) top.get("coverageMax"))[0][0]);
+        assertNull(pyramid.getTile(1, 1, 0));
+
+        List<Map<String, Object>> tiles = pyramid.getTiles(TilePyramid.clipRange(size, 0, 0, 0, 5, 5));
+        assertEquals(4, tiles.size());
+    }
+}
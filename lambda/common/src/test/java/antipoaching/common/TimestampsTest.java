@@ -0,0 +1,34 @@
+package antipoaching.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimestampsTest {
+
+    @Test
+    void formatsWithFixedWidthSoStringsSortByTime() {
+        String whole = Timestamps.format(Instant.parse("2024-05-01T12:00:00Z"));
+        String fraction = Timestamps.format(Instant.parse("2024-05-01T12:00:00.25Z"));
+        String micros = Timestamps.format(Instant.parse("2024-05-01T12:00:00.999999Z"));
+
+        assertEquals("2024-05-01T12:00:00.000Z", whole);
+        assertEquals("2024-05-01T12:00:00.250Z", fraction);
+        assertEquals("2024-05-01T12:00:00.999Z", micros);
+        assertTrue(whole.compareTo(fraction) < 0);
+        assertTrue(fraction.compareTo(micros) < 0);
+    }
+
+    @Test
+    void normalizesBounds() {
+        assertEquals("2024-05-01T12:00:00.000Z", Timestamps.normalizeBound("2024-05-01T12:00:00Z", false));
+        assertEquals("2024-05-01T10:00:00.500Z", Timestamps.normalizeBound("2024-05-01T12:00:00.5+02:00", true));
+        assertEquals("2024-05-01T00:00:00.000Z", Timestamps.normalizeBound("2024-05-01", false));
+        assertEquals("2024-05-01T23:59:59.999Z", Timestamps.normalizeBound("2024-05-01", true));
+        assertThrows(IllegalArgumentException.class, () -> Timestamps.normalizeBound("yesterday", false));
+    }
+}
@@ -1,117 +1,275 @@
 package antipoaching;
 
+import antipoaching.common.MapContent;
+import antipoaching.common.Timestamps;
+
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClientBuilder;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
-import java.time.Instant;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Service class for DynamoDB operations
+ *
+ * All calls go through a non-blocking client so independent reads and writes
+ * overlap. Each operation has a CompletableFuture variant (suffixed Async); the
+ * plain methods simply wait on it. At most MAX_CONCURRENCY requests are in flight
+ * per container, further requests queue in the HTTP client's connection pool.
+ *
+ * Maps and results are never modified after they are written, so getMap and
+ * getResult are served through a bounded read-through cache. Cached values are
+ * shared between callers and must be treated as read-only.
+ *
+ * Map layers are stored once per distinct content in MapContents, keyed by a
+ * SHA-256 of their canonical form (see MapContent). A saved map is a small metadata record in
+ * AntiPoachingMaps (name, gridSize, contentHash) whose id is derived from the
+ * content hash and name, so re-saving an unchanged map writes nothing new.
+ * Records from before this layout hold their layers inline and are still read.
  */
 public class DynamoDBService {
 
     private static final String MAPS_TABLE = "AntiPoachingMaps";
+    private static final String MAP_CONTENTS_TABLE = "MapContents";
     private static final String RESULTS_TABLE = "PatrolResults";
+    private static final String RESULTS_BY_MAP_INDEX = "MapIdCreatedAtIndex";
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_CONCURRENCY = 16;
+    private static final int MAP_CACHE_SIZE = 32;
+    private static final int RESULT_CACHE_SIZE = 64;
+    private static final int KNOWN_CONTENT_CACHE_SIZE = 256;
 
-    private final DynamoDbClient dynamoDb;
+    private final DynamoDbAsyncClient dynamoDb;
     private final Gson gson;
+    private final LruCache<String, Map<String, Object>> mapCache = new LruCache<>(MAP_CACHE_SIZE);
+    private final LruCache<String, Map<String, Object>> resultCache = new LruCache<>(RESULT_CACHE_SIZE);
+    private final LruCache<String, Map<String, Object>> contentCache = new LruCache<>(MAP_CACHE_SIZE);
+    // Content hashes known to be stored already, so repeat saves skip the upload entirely
+    private final LruCache<String, Boolean> storedContent = new LruCache<>(KNOWN_CONTENT_CACHE_SIZE);
 
     public DynamoDBService() {
-        this.dynamoDb = DynamoDbClient.builder()
-            .region(Region.US_EAST_1)  // Change to your region
-            .build();
+        this(createClient());
+    }
+
+    /**
+     * Create a service on top of an existing client, e.g. one pointed at DynamoDB Local
+     */
+    public DynamoDBService(DynamoDbAsyncClient dynamoDb) {
+        this.dynamoDb = dynamoDb;
         this.gson = new Gson();
     }
 
+    /**
+     * Build the default client. Setting DYNAMODB_ENDPOINT redirects all calls to a
+     * local stand-in such as DynamoDB Local (e.g. http://localhost:8000).
+     */
+    private static DynamoDbAsyncClient createClient() {
+        DynamoDbAsyncClientBuilder builder = DynamoDbAsyncClient.builder()
+            .region(Region.US_EAST_1)  // Change to your region
+            .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(MAX_CONCURRENCY));
+
+        String endpoint = System.getenv("DYNAMODB_ENDPOINT");
+        if (endpoint != null && !endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+
+        return builder.build();
+    }
+
     /**
      * Save a map configuration
      */
     public Map<String, Object> saveMap(JsonObject mapData) {
-        String mapId = UUID.randomUUID().toString();
-        String timestamp = Instant.now().toString();
+        return await(saveMapAsync(mapData));
+    }
+
+    public CompletableFuture<Map<String, Object>> saveMapAsync(JsonObject mapData) {
+        MapContent content = MapContent.fromJson(
+            mapData.get("gridSize").getAsInt(),
+            mapData.get("riskMap").getAsJsonArray(),
+            mapData.get("animalMap").getAsJsonArray(),
+            mapData.get("terrainMap").getAsJsonArray());
+        String name = mapData.has("name") ? mapData.get("name").getAsString() : "Untitled Map";
+
+        String contentHash = content.getContentHash();
+        String mapId = content.getMapId(name);
+
+        // Same name and content as a map this container has already read or written
+        Map<String, Object> known = mapCache.get(mapId);
+        if (known != null) {
+            return CompletableFuture.completedFuture(
+                saveMapResult(mapId, contentHash, (String) known.get("createdAt"), true));
+        }
+
+        String timestamp = Timestamps.now();
+
+        // Content first, so a metadata record never points at missing layers
+        return putContentAsync(content, timestamp)
+            .thenCompose(ignored -> {
+                Map<String, AttributeValue> item = new HashMap<>();
+                item.put("mapId", AttributeValue.builder().s(mapId).build());
+                item.put("name", AttributeValue.builder().s(name).build());
+                item.put("gridSize", AttributeValue.builder().n(String.valueOf(content.getGridSize())).build());
+                item.put("contentHash", AttributeValue.builder().s(contentHash).build());
+                item.put("createdAt", AttributeValue.builder().s(timestamp).build());
+
+                return putIfAbsentAsync(MAPS_TABLE, "mapId", item);
+            })
+            .thenCompose(created -> {
+                if (created) {
+                    return CompletableFuture.completedFuture(
+                        saveMapResult(mapId, contentHash, timestamp, false));
+                }
+                return getMapAsync(mapId).thenApply(existing -> saveMapResult(
+                    mapId, contentHash, existing != null ? (String) existing.get("createdAt") : timestamp, true));
+            });
+    }
+
+    /**
+     * Store map layers under their content hash unless already present
+     */
+    private CompletableFuture<Void> putContentAsync(MapContent content, String timestamp) {
+        String contentHash = content.getContentHash();
+        if (storedContent.get(contentHash) != null) {
+            return CompletableFuture.completedFuture(null);
+        }
 
         Map<String, AttributeValue> item = new HashMap<>();
-        item.put("mapId", AttributeValue.builder().s(mapId).build());
-        item.put("name", AttributeValue.builder()
-            .s(mapData.has("name") ? mapData.get("name").getAsString() : "Untitled Map")
-            .build());
-        item.put("gridSize", AttributeValue.builder()
-            .n(String.valueOf(mapData.get("gridSize").getAsInt()))
-            .build());
-        item.put("riskMap", AttributeValue.builder()
-            .s(mapData.get("riskMap").toString())
-            .build());
-        item.put("animalMap", AttributeValue.builder()
-            .s(mapData.get("animalMap").toString())
-            .build());
-        item.put("terrainMap", AttributeValue.builder()
-            .s(mapData.get("terrainMap").toString())
-            .build());
+        item.put("contentHash", AttributeValue.builder().s(contentHash).build());
+        item.put("gridSize", AttributeValue.builder().n(String.valueOf(content.getGridSize())).build());
+        item.put("riskMap", AttributeValue.builder().s(content.getRiskMap()).build());
+        item.put("animalMap", AttributeValue.builder().s(content.getAnimalMap()).build());
+        item.put("terrainMap", AttributeValue.builder().s(content.getTerrainMap()).build());
         item.put("createdAt", AttributeValue.builder().s(timestamp).build());
 
+        return putIfAbsentAsync(MAP_CONTENTS_TABLE, "contentHash", item)
+            .thenAccept(created -> storedContent.put(contentHash, Boolean.TRUE));
+    }
+
+    /**
+     * Conditional put on the hash key
+     * @return Future completing with true if written, false if an item with that key already existed
+     */
+    private CompletableFuture<Boolean> putIfAbsentAsync(String table, String keyName,
+                                                        Map<String, AttributeValue> item) {
         PutItemRequest request = PutItemRequest.builder()
-            .tableName(MAPS_TABLE)
+            .tableName(table)
             .item(item)
+            .conditionExpression("attribute_not_exists(" + keyName + ")")
             .build();
 
-        dynamoDb.putItem(request);
+        return dynamoDb.putItem(request).handle((response, failure) -> {
+            if (failure == null) {
+                return true;
+            }
+            Throwable cause = failure;
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof ConditionalCheckFailedException) {
+                return false;
+            }
+            throw failure instanceof CompletionException
+                ? (CompletionException) failure
+                : new CompletionException(failure);
+        });
+    }
 
+    private static Map<String, Object> saveMapResult(String mapId, String contentHash,
+                                                     String createdAt, boolean existing) {
         Map<String, Object> result = new HashMap<>();
         result.put("mapId", mapId);
-        result.put("createdAt", timestamp);
+        result.put("contentHash", contentHash);
+        result.put("createdAt", createdAt);
+        result.put("deduplicated", existing);
         return result;
     }
 
     /**
-     * Get all maps
+     * Get all maps, as metadata without their layers
      */
     public List<Map<String, Object>> getAllMaps() {
+        return await(getAllMapsAsync());
+    }
+
+    public CompletableFuture<List<Map<String, Object>>> getAllMapsAsync() {
+        // Metadata only; layers are fetched per map with getMap
+        Map<String, String> names = new HashMap<>();
+        names.put("#name", "name");
         ScanRequest request = ScanRequest.builder()
             .tableName(MAPS_TABLE)
+            .projectionExpression("mapId, #name, gridSize, contentHash, createdAt")
+            .expressionAttributeNames(names)
             .build();
 
-        ScanResponse response = dynamoDb.scan(request);
-
-        List<Map<String, Object>> maps = new ArrayList<>();
-        for (Map<String, AttributeValue> item : response.items()) {
-            maps.add(itemToMap(item));
-        }
-
-        return maps;
+        return dynamoDb.scan(request).thenApply(response -> {
+            List<Map<String, Object>> maps = new ArrayList<>();
+            for (Map<String, AttributeValue> item : response.items()) {
+                maps.add(itemToMap(item));
+            }
+            return maps;
+        });
     }
 
     /**
      * Get a map by ID
      */
     public Map<String, Object> getMap(String mapId) {
-        Map<String, AttributeValue> key = new HashMap<>();
-        key.put("mapId", AttributeValue.builder().s(mapId).build());
-
-        GetItemRequest request = GetItemRequest.builder()
-            .tableName(MAPS_TABLE)
-            .key(key)
-            .build();
-
-        GetItemResponse response = dynamoDb.getItem(request);
+        return await(getMapAsync(mapId));
+    }
 
-        if (!response.hasItem()) {
-            return null;
+    public CompletableFuture<Map<String, Object>> getMapAsync(String mapId) {
+        Map<String, Object> cached = mapCache.get(mapId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
         }
 
-        return itemToMap(response.item());
+        return getItemAsync(MAPS_TABLE, "mapId", mapId, null).thenCompose(metadata -> {
+            if (metadata == null || !metadata.containsKey("contentHash")) {
+                // Missing, or a record with inline layers
+                if (metadata != null) {
+                    mapCache.put(mapId, metadata);
+                }
+                return CompletableFuture.completedFuture(metadata);
+            }
+
+            String contentHash = (String) metadata.get("contentHash");
+            return getItemAsync(MAP_CONTENTS_TABLE, "contentHash", contentHash, contentCache)
+                .thenApply(content -> {
+                    if (content == null) {
+                        return null;
+                    }
+                    Map<String, Object> map = new HashMap<>(content);
+                    map.putAll(metadata);
+                    mapCache.put(mapId, map);
+                    return map;
+                });
+        });
     }
 
     /**
      * Save an optimization result
      */
     public Map<String, Object> saveResult(JsonObject resultData) {
+        return await(saveResultAsync(resultData));
+    }
+
+    public CompletableFuture<Map<String, Object>> saveResultAsync(JsonObject resultData) {
         String resultId = UUID.randomUUID().toString();
-        String timestamp = Instant.now().toString();
+        String timestamp = Timestamps.now();
 
         Map<String, AttributeValue> item = new HashMap<>();
         item.put("resultId", AttributeValue.builder().s(resultId).build());
@@ -134,33 +292,176 @@ public class DynamoDBService {
             .item(item)
             .build();
 
-        dynamoDb.putItem(request);
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("resultId", resultId);
-        result.put("createdAt", timestamp);
-        return result;
+        return dynamoDb.putItem(request).thenApply(ignored -> {
+            Map<String, Object> result = new HashMap<>();
+            result.put("resultId", resultId);
+            result.put("createdAt", timestamp);
+            return result;
+        });
     }
 
     /**
      * Get a result by ID
      */
     public Map<String, Object> getResult(String resultId) {
+        return await(getResultAsync(resultId));
+    }
+
+    public CompletableFuture<Map<String, Object>> getResultAsync(String resultId) {
+        return getItemAsync(RESULTS_TABLE, "resultId", resultId, resultCache);
+    }
+
+    /**
+     * Get results for a map, newest first, using the mapId/createdAt index
+     * @param mapId The map whose results to list
+     * @param limit Page size (clamped to 1..100, default 20 when null)
+     * @param nextToken Token from a previous page, or null for the first page
+     * @param from Inclusive lower bound on createdAt (ISO-8601 date or date-time), or null
+     * @param to Inclusive upper bound on createdAt (ISO-8601 date or date-time), or null
+     * @return Map containing "results" and, if more pages exist, "nextToken"
+     * @throws IllegalArgumentException if a bound or the token is malformed
+     */
+    public Map<String, Object> getResultsForMap(String mapId, Integer limit,
+                                                String nextToken, String from, String to) {
+        return await(getResultsForMapAsync(mapId, limit, nextToken, from, to));
+    }
+
+    public CompletableFuture<Map<String, Object>> getResultsForMapAsync(String mapId, Integer limit,
+                                                                       String nextToken, String from, String to) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE
+            : Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+        // Key conditions compare strings, so bounds take the stored fixed-width form
+        if (from != null) {
+            from = Timestamps.normalizeBound(from, false);
+        }
+        if (to != null) {
+            to = Timestamps.normalizeBound(to, true);
+        }
+
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":mapId", AttributeValue.builder().s(mapId).build());
+
+        String keyCondition = "mapId = :mapId";
+        if (from != null && to != null) {
+            keyCondition += " AND createdAt BETWEEN :from AND :to";
+            values.put(":from", AttributeValue.builder().s(from).build());
+            values.put(":to", AttributeValue.builder().s(to).build());
+        } else if (from != null) {
+            keyCondition += " AND createdAt >= :from";
+            values.put(":from", AttributeValue.builder().s(from).build());
+        } else if (to != null) {
+            keyCondition += " AND createdAt <= :to";
+            values.put(":to", AttributeValue.builder().s(to).build());
+        }
+
+        QueryRequest.Builder request = QueryRequest.builder()
+            .tableName(RESULTS_TABLE)
+            .indexName(RESULTS_BY_MAP_INDEX)
+            .keyConditionExpression(keyCondition)
+            .expressionAttributeValues(values)
+            .scanIndexForward(false)  // Newest first
+            .limit(pageSize);
+
+        if (nextToken != null && !nextToken.isEmpty()) {
+            request.exclusiveStartKey(decodePageToken(nextToken));
+        }
+
+        return dynamoDb.query(request.build()).thenApply(response -> {
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (Map<String, AttributeValue> item : response.items()) {
+                results.add(itemToMap(item));
+            }
+
+            Map<String, Object> page = new HashMap<>();
+            page.put("results", results);
+            if (response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()) {
+                page.put("nextToken", encodePageToken(response.lastEvaluatedKey()));
+            }
+            return page;
+        });
+    }
+
+    /**
+     * Fetch a single item by its string hash key, completing with null if absent.
+     * Hits are answered from the cache without touching DynamoDB.
+     * @param cache Read-through cache, or null to always read
+     */
+    private CompletableFuture<Map<String, Object>> getItemAsync(String table, String keyName, String keyValue,
+                                                               LruCache<String, Map<String, Object>> cache) {
+        Map<String, Object> cached = cache != null ? cache.get(keyValue) : null;
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
         Map<String, AttributeValue> key = new HashMap<>();
-        key.put("resultId", AttributeValue.builder().s(resultId).build());
+        key.put(keyName, AttributeValue.builder().s(keyValue).build());
 
         GetItemRequest request = GetItemRequest.builder()
-            .tableName(RESULTS_TABLE)
+            .tableName(table)
             .key(key)
             .build();
 
-        GetItemResponse response = dynamoDb.getItem(request);
+        return dynamoDb.getItem(request).thenApply(response -> {
+            if (!response.hasItem()) {
+                return null;
+            }
+            Map<String, Object> item = itemToMap(response.item());
+            if (cache != null) {
+                cache.put(keyValue, item);
+            }
+            return item;
+        });
+    }
+
+    /**
+     * Block on a future, rethrowing the underlying failure rather than a wrapper
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for DynamoDB", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
 
-        if (!response.hasItem()) {
-            return null;
+    /**
+     * Encode a LastEvaluatedKey as an opaque URL-safe page token.
+     * Index keys on this table are all string attributes.
+     */
+    private String encodePageToken(Map<String, AttributeValue> key) {
+        Map<String, String> plain = new HashMap<>();
+        for (Map.Entry<String, AttributeValue> entry : key.entrySet()) {
+            plain.put(entry.getKey(), entry.getValue().s());
         }
+        byte[] json = gson.toJson(plain).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+    }
 
-        return itemToMap(response.item());
+    /**
+     * Decode a page token produced by encodePageToken
+     */
+    private Map<String, AttributeValue> decodePageToken(String token) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            JsonObject plain = gson.fromJson(json, JsonObject.class);
+            for (String name : plain.keySet()) {
+                key.put(name, AttributeValue.builder().s(plain.get(name).getAsString()).build());
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid nextToken");
+        }
+        return key;
     }
 
     /**
@@ -1,7 +1,13 @@
 package antipoaching;
 
+import antipoaching.common.ApiHandler;
+import antipoaching.common.ApiRequest;
+import antipoaching.common.ApiResponse;
+import antipoaching.common.ResponseCompressor;
+import antipoaching.common.Sha256;
+import antipoaching.common.TilePyramid;
+
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 
@@ -11,36 +17,65 @@ import com.google.gson.JsonObject;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * AWS Lambda handler for data management operations (DynamoDB)
+ *
+ * Maps, results and their tiles never change once written, so the JSON body
+ * served for each path is cached together with its ETag; a conditional GET
+ * for a cached path is answered without serialising or hashing anything.
  */
-public class Handler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+public class Handler implements ApiHandler {
+
+    private static final int BODY_CACHE_SIZE = 64;
 
     private final Gson gson = new Gson();
-    private final DynamoDBService dynamoService = new DynamoDBService();
+    private final LruCache<String, CachedBody> bodies = new LruCache<>(BODY_CACHE_SIZE);
+    private final DynamoDBService dynamoService;
+    private final TileService tileService;
+    private final ResponseCompressor compressor = new ResponseCompressor();
+
+    public Handler() {
+        this(new DynamoDBService());
+    }
+
+    /**
+     * Create a handler over a specific service, e.g. one backed by a local DynamoDB stand-in
+     */
+    public Handler(DynamoDBService dynamoService) {
+        this.dynamoService = dynamoService;
+        this.tileService = new TileService(dynamoService);
+    }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
-        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
+        ApiRequest request = ApiRequest.fromEvent(input);
+        ApiResponse response = route(request, context);
+        return compressor.compress(request.getHeader("Accept-Encoding"), response).toEvent();
+    }
+
+    @Override
+    public ApiResponse route(ApiRequest input, Context context) {
+        ApiResponse response = new ApiResponse();
 
         // Set CORS headers
-        Map<String, String> headers = new HashMap<>();
+        Map<String, String> headers = response.getHeaders();
         headers.put("Content-Type", "application/json");
         headers.put("Access-Control-Allow-Origin", "*");
         headers.put("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
-        headers.put("Access-Control-Allow-Headers", "Content-Type");
-        response.setHeaders(headers);
+        headers.put("Access-Control-Allow-Headers", "Content-Type, If-None-Match");
+        headers.put("Access-Control-Expose-Headers", "ETag");
 
         // Handle CORS preflight
-        if ("OPTIONS".equals(input.getHttpMethod())) {
+        if ("OPTIONS".equals(input.getMethod())) {
             response.setStatusCode(200);
             return response;
         }
 
         try {
             String path = input.getPath();
-            String method = input.getHttpMethod();
+            String method = input.getMethod();
 
             // Route handling
             if (path.startsWith("/api/maps")) {
@@ -60,17 +95,23 @@ public class Handler implements RequestHandler<APIGatewayProxyRequestEvent, APIG
     /**
      * Handle /api/maps routes
      */
-    private APIGatewayProxyResponseEvent handleMapsRoute(
+    private ApiResponse handleMapsRoute(
             String path, String method,
-            APIGatewayProxyRequestEvent input,
-            APIGatewayProxyResponseEvent response,
+            ApiRequest input,
+            ApiResponse response,
             Context context) {
 
-        // POST /api/maps - Create new map
+        // POST /api/maps - Create new map, or return the existing identical one
         if ("POST".equals(method) && "/api/maps".equals(path)) {
             JsonObject body = gson.fromJson(input.getBody(), JsonObject.class);
-            Map<String, Object> result = dynamoService.saveMap(body);
-            response.setStatusCode(201);
+            Map<String, Object> result;
+            try {
+                result = dynamoService.saveMap(body);
+            } catch (IllegalArgumentException e) {
+                return badRequest(response, e.getMessage());
+            }
+            // An identical map (same name and layers) already exists under this id
+            response.setStatusCode(Boolean.TRUE.equals(result.get("deduplicated")) ? 200 : 201);
             response.setBody(gson.toJson(result));
             return response;
         }
@@ -83,18 +124,46 @@ public class Handler implements RequestHandler<APIGatewayProxyRequestEvent, APIG
             return response;
         }
 
+        // GET /api/maps/{id}/tiles[/{z}/{x}/{y}] - Risk pyramid info or one tile
+        if ("GET".equals(method) && path.startsWith("/api/maps/") && path.contains("/tiles")) {
+            String rest = path.substring("/api/maps/".length());
+            String mapId = rest.substring(0, rest.indexOf("/tiles"));
+            return handleTiles(path, () -> tileService.getMapPyramid(mapId), rest, input, response);
+        }
+
+        // GET /api/maps/{id}/results - List results for a map, newest first
+        if ("GET".equals(method) && path.startsWith("/api/maps/") && path.endsWith("/results")) {
+            String mapId = path.substring("/api/maps/".length(), path.length() - "/results".length());
+            Map<String, String> query = input.getQueryParameters();
+
+            Integer limit;
+            try {
+                limit = query.containsKey("limit") ? Integer.valueOf(query.get("limit")) : null;
+            } catch (NumberFormatException e) {
+                return badRequest(response, "limit must be an integer");
+            }
+
+            try {
+                Map<String, Object> page = dynamoService.getResultsForMap(
+                    mapId, limit, query.get("nextToken"), query.get("from"), query.get("to"));
+                response.setStatusCode(200);
+                response.setBody(gson.toJson(page));
+                return response;
+            } catch (IllegalArgumentException e) {
+                return badRequest(response, e.getMessage());
+            }
+        }
+
         // GET /api/maps/{id} - Get specific map
         if ("GET".equals(method) && path.startsWith("/api/maps/")) {
             String mapId = path.substring("/api/maps/".length());
-            Map<String, Object> map = dynamoService.getMap(mapId);
+            CachedBody body = cachedBody(path, () -> dynamoService.getMap(mapId));
 
-            if (map == null) {
+            if (body == null) {
                 return notFound(response);
             }
 
-            response.setStatusCode(200);
-            response.setBody(gson.toJson(map));
-            return response;
+            return okWithETag(input, response, body);
         }
 
         return notFound(response);
@@ -103,10 +172,10 @@ public class Handler implements RequestHandler<APIGatewayProxyRequestEvent, APIG
     /**
      * Handle /api/results routes
      */
-    private APIGatewayProxyResponseEvent handleResultsRoute(
+    private ApiResponse handleResultsRoute(
             String path, String method,
-            APIGatewayProxyRequestEvent input,
-            APIGatewayProxyResponseEvent response,
+            ApiRequest input,
+            ApiResponse response,
             Context context) {
 
         // POST /api/results - Save result
@@ -118,24 +187,139 @@ public class Handler implements RequestHandler<APIGatewayProxyRequestEvent, APIG
             return response;
         }
 
+        // GET /api/results/{id}/tiles[/{z}/{x}/{y}] - Risk and coverage pyramid info or one tile
+        if ("GET".equals(method) && path.startsWith("/api/results/") && path.contains("/tiles")) {
+            String rest = path.substring("/api/results/".length());
+            String resultId = rest.substring(0, rest.indexOf("/tiles"));
+            return handleTiles(path, () -> tileService.getResultPyramid(resultId), rest, input, response);
+        }
+
         // GET /api/results/{id} - Get specific result
         if ("GET".equals(method) && path.startsWith("/api/results/")) {
             String resultId = path.substring("/api/results/".length());
-            Map<String, Object> result = dynamoService.getResult(resultId);
+            CachedBody body = cachedBody(path, () -> dynamoService.getResult(resultId));
 
-            if (result == null) {
+            if (body == null) {
                 return notFound(response);
             }
 
-            response.setStatusCode(200);
-            response.setBody(gson.toJson(result));
-            return response;
+            return okWithETag(input, response, body);
         }
 
         return notFound(response);
     }
 
-    private APIGatewayProxyResponseEvent notFound(APIGatewayProxyResponseEvent response) {
+    /**
+     * Serve pyramid info for ".../tiles" or a single tile for ".../tiles/{z}/{x}/{y}"
+     * @param path Request path, the body cache key
+     * @param pyramid Loads the pyramid, or returns null if its map or result does not exist
+     */
+    private ApiResponse handleTiles(
+            String path, Supplier<TilePyramid> pyramid, String rest,
+            ApiRequest input,
+            ApiResponse response) {
+
+        String[] coords = rest.substring(rest.indexOf("/tiles") + "/tiles".length()).split("/");
+        if (coords.length > 1 && coords.length != 4) {
+            return badRequest(response, "Expected /tiles/{z}/{x}/{y}");
+        }
+
+        int[] zxy = null;
+        if (coords.length == 4) {
+            try {
+                zxy = new int[]{Integer.parseInt(coords[1]), Integer.parseInt(coords[2]), Integer.parseInt(coords[3])};
+            } catch (NumberFormatException e) {
+                return badRequest(response, "Tile coordinates must be integers");
+            }
+        }
+
+        int[] tile = zxy;
+        CachedBody body = cachedBody(path, () -> {
+            TilePyramid loaded = pyramid.get();
+            if (loaded == null) {
+                return null;
+            }
+            return tile == null ? loaded.getInfo() : loaded.getTile(tile[0], tile[1], tile[2]);
+        });
+
+        if (body == null) {
+            return notFound(response);
+        }
+        return okWithETag(input, response, body);
+    }
+
+    /**
+     * The serialised body and ETag for a path, loading it on a miss
+     * @param load Produces the value to serialise, or null if it does not exist
+     * @return The cached body, or null if the resource does not exist
+     */
+    private CachedBody cachedBody(String path, Supplier<Object> load) {
+        CachedBody body = bodies.get(path);
+        if (body == null) {
+            Object value = load.get();
+            if (value == null) {
+                return null;
+            }
+            String text = gson.toJson(value);
+            body = new CachedBody(text, computeETag(text));
+            bodies.put(path, body);
+        }
+        return body;
+    }
+
+    /**
+     * Respond 200 with a strong ETag, or 304 with no body if the client already has it.
+     * A 304 echoes the variant the client holds, so a cached gzip copy stays valid.
+     */
+    private ApiResponse okWithETag(
+            ApiRequest input,
+            ApiResponse response,
+            CachedBody body) {
+
+        String etag = body.etag;
+        response.getHeaders().put("ETag", etag);
+        response.getHeaders().put("Cache-Control", "no-cache");
+
+        String ifNoneMatch = input.getHeader("If-None-Match");
+        String matched = ifNoneMatch != null ? matchingETag(ifNoneMatch, etag) : null;
+        if (matched != null) {
+            response.getHeaders().put("ETag", matched);
+            response.setStatusCode(304);
+            return response;
+        }
+
+        response.setStatusCode(200);
+        response.setBody(body.text);
+        return response;
+    }
+
+    private String computeETag(String body) {
+        return "\"" + Sha256.hex(body).substring(0, 32) + "\"";
+    }
+
+    /**
+     * Find the If-None-Match entry naming the current content, either as the
+     * identity ETag or the gzip variant ResponseCompressor sends
+     * @return The ETag to send with a 304, or null if none matches
+     */
+    private String matchingETag(String ifNoneMatch, String etag) {
+        String gzipETag = ResponseCompressor.gzipETag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return etag;
+            }
+            if (gzipETag.equals(tag)) {
+                return gzipETag;
+            }
+        }
+        return null;
+    }
+
+    private ApiResponse notFound(ApiResponse response) {
         Map<String, String> error = new HashMap<>();
         error.put("error", "NOT_FOUND");
         error.put("message", "Resource not found");
@@ -144,7 +328,16 @@ public class Handler implements RequestHandler<APIGatewayProxyRequestEvent, APIG
         return response;
     }
 
-    private APIGatewayProxyResponseEvent error(APIGatewayProxyResponseEvent response, String message) {
+    private ApiResponse badRequest(ApiResponse response, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "BAD_REQUEST");
+        error.put("message", message);
+        response.setStatusCode(400);
+        response.setBody(gson.toJson(error));
+        return response;
+    }
+
+    private ApiResponse error(ApiResponse response, String message) {
         Map<String, String> error = new HashMap<>();
         error.put("error", "INTERNAL_ERROR");
         error.put("message", message);
@@ -152,4 +345,17 @@ public class Handler implements RequestHandler<APIGatewayProxyRequestEvent, APIG
         response.setBody(gson.toJson(error));
         return response;
     }
+
+    /**
+     * A response body as served, with its ETag
+     */
+    private static final class CachedBody {
+        final String text;
+        final String etag;
+
+        CachedBody(String text, String etag) {
+            this.text = text;
+            this.etag = etag;
+        }
+    }
 }
@@ -0,0 +1,99 @@
+package antipoaching;
+
+import antipoaching.common.TilePyramid;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds and caches tile pyramids for stored maps (risk only) and stored
+ * results (risk plus coverage replayed from the result's routes)
+ */
+public class TileService {
+
+    private static final int PYRAMID_CACHE_SIZE = 16;
+
+    private final DynamoDBService dynamoService;
+    private final LruCache<String, TilePyramid> pyramids = new LruCache<>(PYRAMID_CACHE_SIZE);
+
+    public TileService(DynamoDBService dynamoService) {
+        this.dynamoService = dynamoService;
+    }
+
+    /**
+     * @return Pyramid for a stored map, or null if the map does not exist
+     */
+    public TilePyramid getMapPyramid(String mapId) {
+        String key = "map:" + mapId;
+        TilePyramid pyramid = pyramids.get(key);
+        if (pyramid == null) {
+            Map<String, Object> map = dynamoService.getMap(mapId);
+            if (map == null) {
+                return null;
+            }
+            pyramid = build(map, null);
+            pyramids.put(key, pyramid);
+        }
+        return pyramid;
+    }
+
+    /**
+     * @return Pyramid for a stored result, or null if the result or its map does not exist
+     */
+    public TilePyramid getResultPyramid(String resultId) {
+        String key = "result:" + resultId;
+        TilePyramid pyramid = pyramids.get(key);
+        if (pyramid == null) {
+            Map<String, Object> result = dynamoService.getResult(resultId);
+            if (result == null || !(result.get("mapId") instanceof String)) {
+                return null;
+            }
+            Map<String, Object> map = dynamoService.getMap((String) result.get("mapId"));
+            if (map == null) {
+                return null;
+            }
+            pyramid = build(map, result.get("routes"));
+            pyramids.put(key, pyramid);
+        }
+        return pyramid;
+    }
+
+    /**
+     * Flatten a stored map (and optionally a result's routes) into row-major layers
+     */
+    @SuppressWarnings("unchecked")
+    private TilePyramid build(Map<String, Object> map, Object routes) {
+        int gridSize = ((Number) map.get("gridSize")).intValue();
+        List<List<Number>> riskMap = (List<List<Number>>) map.get("riskMap");
+        List<List<Number>> terrainMap = (List<List<Number>>) map.get("terrainMap");
+
+        double[] riskLevels = new double[gridSize * gridSize];
+        byte[] passableMask = new byte[gridSize * gridSize];
+        int[] visitCounts = new int[gridSize * gridSize];
+
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                int index = row * gridSize + col;
+                if (terrainMap.get(row).get(col).intValue() == 1) {
+                    passableMask[index] = 1;
+                    riskLevels[index] = riskMap.get(row).get(col).doubleValue();
+                }
+            }
+        }
+
+        if (routes instanceof List) {
+            for (Object route : (List<Object>) routes) {
+                List<List<Number>> path = (List<List<Number>>) ((Map<String, Object>) route).get("path");
+                for (List<Number> point : path) {
+                    int row = point.get(0).intValue();
+                    int col = point.get(1).intValue();
+                    if (row >= 0 && row < gridSize && col >= 0 && col < gridSize) {
+                        visitCounts[row * gridSize + col]++;
+                    }
+                }
+            }
+        }
+
+        return new TilePyramid(gridSize, riskLevels, passableMask, visitCounts);
+    }
+}
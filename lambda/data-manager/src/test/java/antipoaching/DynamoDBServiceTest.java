@@ -0,0 +1,122 @@
+package antipoaching;
+
+import antipoaching.local.InMemoryDynamoDb;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DynamoDBServiceTest {
+
+    private final InMemoryDynamoDb dynamoDb = new InMemoryDynamoDb();
+    private final DynamoDBService service = new DynamoDBService(dynamoDb);
+
+    @Test
+    void pagesThroughResultsNewestFirst() {
+        for (int i = 0; i < 5; i++) {
+            putResult("r" + i, "park", "2024-05-01T12:00:0" + i + ".000Z");
+        }
+        putResult("other", "elsewhere", "2024-05-01T12:00:09.000Z");
+
+        List<String> seen = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            Map<String, Object> page = service.getResultsForMap("park", 2, token, null, null);
+            seen.addAll(resultIds(page));
+            token = (String) page.get("nextToken");
+            pages++;
+        } while (token != null);
+
+        assertEquals(List.of("r4", "r3", "r2", "r1", "r0"), seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void clampsPageSize() {
+        for (int i = 0; i < 105; i++) {
+            putResult(String.format("r%03d", i), "park", String.format("2024-05-01T12:%02d:%02d.000Z", i / 60, i % 60));
+        }
+
+        assertEquals(20, resultIds(service.getResultsForMap("park", null, null, null, null)).size());
+        assertEquals(1, resultIds(service.getResultsForMap("park", 0, null, null, null)).size());
+        Map<String, Object> largest = service.getResultsForMap("park", 1000, null, null, null);
+        assertEquals(100, resultIds(largest).size());
+        assertTrue(largest.containsKey("nextToken"));
+    }
+
+    @Test
+    void filtersByCreatedAtWhateverTheFractionWidth() {
+        putResult("before", "park", "2024-05-01T11:59:59.999Z");
+        putResult("whole", "park", "2024-05-01T12:00:00.000Z");
+        putResult("quarter", "park", "2024-05-01T12:00:00.250Z");
+        putResult("after", "park", "2024-05-01T12:00:00.501Z");
+        putResult("nextDay", "park", "2024-05-02T00:00:00.000Z");
+
+        assertEquals(List.of("quarter", "whole"), resultIds(service.getResultsForMap(
+            "park", null, null, "2024-05-01T12:00:00Z", "2024-05-01T12:00:00.5Z")));
+        assertEquals(List.of("nextDay", "after", "quarter", "whole"), resultIds(service.getResultsForMap(
+            "park", null, null, "2024-05-01T14:00:00+02:00", null)));
+        assertEquals(List.of("after", "quarter", "whole", "before"), resultIds(service.getResultsForMap(
+            "park", null, null, "2024-05-01", "2024-05-01")));
+    }
+
+    @Test
+    void rejectsMalformedBoundsAndTokens() {
+        assertThrows(IllegalArgumentException.class,
+            () -> service.getResultsForMap("park", null, null, "last week", null));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.getResultsForMap("park", null, "not-a-token!", null, null));
+    }
+
+    @Test
+    void savedResultsAreFoundThroughTheIndex() {
+        JsonObject result = new JsonObject();
+        result.addProperty("mapId", "park");
+        result.addProperty("rangerCount", 2);
+        result.add("routes", new JsonArray());
+        result.add("stats", new JsonObject());
+
+        Map<String, Object> saved = service.saveResult(result);
+        String createdAt = (String) saved.get("createdAt");
+
+        assertEquals(24, createdAt.length(), "fixed-width timestamp " + createdAt);
+        Map<String, Object> page = service.getResultsForMap("park", null, null, createdAt, createdAt);
+        assertEquals(List.of(saved.get("resultId")), resultIds(page));
+        assertFalse(page.containsKey("nextToken"));
+        assertNull(service.getResultsForMap("park", null, null, null, null).get("nextToken"));
+    }
+
+    private void putResult(String resultId, String mapId, String createdAt) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("resultId", AttributeValue.builder().s(resultId).build());
+        item.put("mapId", AttributeValue.builder().s(mapId).build());
+        item.put("rangerCount", AttributeValue.builder().n("1").build());
+        item.put("createdAt", AttributeValue.builder().s(createdAt).build());
+        dynamoDb.putItem(PutItemRequest.builder().tableName("PatrolResults").item(item).build()).join();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> resultIds(Map<String, Object> page) {
+        List<String> ids = new ArrayList<>();
+        for (Map<String, Object> result : (List<Map<String, Object>>) page.get("results")) {
+            ids.add((String) result.get("resultId"));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,109 @@
+package antipoaching;
+
+import antipoaching.common.ApiRequest;
+import antipoaching.common.ApiResponse;
+import antipoaching.local.InMemoryDynamoDb;
+import antipoaching.local.LocalContext;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HandlerTest {
+
+    private final Gson gson = new Gson();
+    private final InMemoryDynamoDb dynamoDb = new InMemoryDynamoDb();
+    private final Handler handler = new Handler(new DynamoDBService(dynamoDb));
+    private final LocalContext context = new LocalContext("data-manager");
+
+    @Test
+    void listsMapResultsPageByPage() {
+        for (int i = 0; i < 3; i++) {
+            putResult("r" + i, "park", "2024-05-01T12:00:0" + i + ".000Z");
+        }
+
+        Map<String, String> query = new HashMap<>();
+        query.put("limit", "2");
+        ApiResponse first = get("/api/maps/park/results", query);
+        assertEquals(200, first.getStatusCode());
+        JsonObject page = gson.fromJson(first.getBody(), JsonObject.class);
+        JsonArray results = page.getAsJsonArray("results");
+        assertEquals(2, results.size());
+        assertEquals("r2", results.get(0).getAsJsonObject().get("resultId").getAsString());
+
+        query.put("nextToken", page.get("nextToken").getAsString());
+        JsonObject last = gson.fromJson(get("/api/maps/park/results", query).getBody(), JsonObject.class);
+        assertEquals(1, last.getAsJsonArray("results").size());
+        assertEquals("r0", last.getAsJsonArray("results").get(0).getAsJsonObject().get("resultId").getAsString());
+        assertFalse(last.has("nextToken"));
+    }
+
+    @Test
+    void rejectsBadQueryParameters() {
+        Map<String, String> query = new HashMap<>();
+        query.put("limit", "many");
+        assertEquals(400, get("/api/maps/park/results", query).getStatusCode());
+
+        query.clear();
+        query.put("from", "yesterday");
+        assertEquals(400, get("/api/maps/park/results", query).getStatusCode());
+
+        query.clear();
+        query.put("nextToken", "%%%");
+        assertEquals(400, get("/api/maps/park/results", query).getStatusCode());
+    }
+
+    @Test
+    void answersConditionalGetsFromTheCachedETag() {
+        JsonObject map = new JsonObject();
+        map.addProperty("name", "Park");
+        map.addProperty("gridSize", 1);
+        map.add("riskMap", gson.fromJson("[[0.5]]", JsonArray.class));
+        map.add("animalMap", gson.fromJson("[[true]]", JsonArray.class));
+        map.add("terrainMap", gson.fromJson("[[1]]", JsonArray.class));
+        ApiResponse created = handler.route(
+            new ApiRequest("POST", "/api/maps", null, null, gson.toJson(map)), context);
+        String mapId = gson.fromJson(created.getBody(), JsonObject.class).get("mapId").getAsString();
+
+        for (String path : new String[]{"/api/maps/" + mapId, "/api/maps/" + mapId + "/tiles/0/0/0"}) {
+            ApiResponse first = get(path, null);
+            assertEquals(200, first.getStatusCode());
+            String etag = first.getHeaders().get("ETag");
+
+            Map<String, String> headers = new HashMap<>();
+            headers.put("if-none-match", "\"other\", " + etag);
+            ApiResponse repeat = handler.route(new ApiRequest("GET", path, headers, null, null), context);
+            assertEquals(304, repeat.getStatusCode());
+            assertEquals(etag, repeat.getHeaders().get("ETag"));
+            assertNull(repeat.getBody());
+
+            assertEquals(first.getBody(), get(path, null).getBody());
+        }
+        assertEquals(404, get("/api/maps/" + mapId + "/tiles/9/0/0", null).getStatusCode());
+        assertEquals(404, get("/api/maps/missing", null).getStatusCode());
+    }
+
+    private ApiResponse get(String path, Map<String, String> query) {
+        return handler.route(new ApiRequest("GET", path, null, query, null), context);
+    }
+
+    private void putResult(String resultId, String mapId, String createdAt) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("resultId", AttributeValue.builder().s(resultId).build());
+        item.put("mapId", AttributeValue.builder().s(mapId).build());
+        item.put("createdAt", AttributeValue.builder().s(createdAt).build());
+        dynamoDb.putItem(PutItemRequest.builder().tableName("PatrolResults").item(item).build()).join();
+    }
+}
@@ -0,0 +1,88 @@
+package antipoaching.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects stop-the-world GC pauses while a run is active.
+ *
+ * Collectors with concurrent phases report whole cycles as well as their
+ * pauses: ZGC and Shenandoah through separate "Cycles" beans, whose
+ * notifications end with "end of GC cycle". A cycle's duration is mostly
+ * time spent alongside the application, so cycles are only added to a
+ * separate concurrent total. Everything else is a pause: young and full
+ * collections, ZGC and Shenandoah pause beans, and G1 Concurrent GC, whose
+ * notifications are its Remark and Cleanup pauses.
+ */
+public class GcMonitor {
+
+    private static final String CYCLE_ACTION = "end of GC cycle";
+
+    private final List<Long> pausesMillis = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong concurrentMillis = new AtomicLong();
+    private final List<Runnable> unregister = new ArrayList<>();
+    private volatile boolean recording;
+
+    public GcMonitor() {
+        NotificationListener listener = (notification, handback) -> {
+            if (!recording || !GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+                    .equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            if (CYCLE_ACTION.equals(info.getGcAction())) {
+                concurrentMillis.addAndGet(info.getGcInfo().getDuration());
+            } else {
+                pausesMillis.add(info.getGcInfo().getDuration());
+            }
+        };
+
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (bean instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) bean;
+                emitter.addNotificationListener(listener, null, null);
+                unregister.add(() -> {
+                    try {
+                        emitter.removeNotificationListener(listener);
+                    } catch (javax.management.ListenerNotFoundException ignored) {
+                        // Already removed
+                    }
+                });
+            }
+        }
+    }
+
+    public void start() {
+        pausesMillis.clear();
+        concurrentMillis.set(0);
+        recording = true;
+    }
+
+    public void stop() {
+        recording = false;
+        unregister.forEach(Runnable::run);
+    }
+
+    public String summary() {
+        List<Long> pauses;
+        synchronized (pausesMillis) {
+            pauses = new ArrayList<>(pausesMillis);
+        }
+        Collections.sort(pauses);
+        long total = pauses.stream().mapToLong(Long::longValue).sum();
+        long max = pauses.isEmpty() ? 0 : pauses.get(pauses.size() - 1);
+        long p99 = pauses.isEmpty() ? 0 : pauses.get(Math.max(0, (int) Math.ceil(pauses.size() * 0.99) - 1));
+        return String.format("pauses=%d total=%dms max=%dms p99=%dms concurrentCycles=%dms",
+            pauses.size(), total, max, p99, concurrentMillis.get());
+    }
+}
@@ -0,0 +1,73 @@
+package antipoaching.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Records every latency sample for one operation and reports exact percentiles
+ * plus a log2-bucketed histogram. Samples are in nanoseconds.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long responseBytes;
+    private int errors;
+
+    public synchronized void record(long nanos, long responseSize, boolean error) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        responseBytes += responseSize;
+        if (error) {
+            errors++;
+        }
+    }
+
+    public synchronized int getCount() { return count; }
+    public synchronized int getErrors() { return errors; }
+
+    public synchronized long getResponseBytesPerRequest() {
+        return count > 0 ? responseBytes / count : 0;
+    }
+
+    /**
+     * @param percentile 0-100
+     * @return Latency in milliseconds
+     */
+    public synchronized double percentileMillis(double percentile) {
+        if (count == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1e6;
+    }
+
+    /**
+     * Render counts per power-of-two millisecond bucket, e.g. "[4,8)ms  120 ####"
+     */
+    public synchronized String histogram() {
+        int[] buckets = new int[40];
+        int top = 0;
+        for (int i = 0; i < count; i++) {
+            long micros = Math.max(1, samples[i] / 1000);
+            int bucket = 63 - Long.numberOfLeadingZeros(micros);  // floor(log2(us))
+            buckets[bucket]++;
+            top = Math.max(top, bucket);
+        }
+
+        int max = Arrays.stream(buckets).max().orElse(0);
+        StringBuilder out = new StringBuilder();
+        for (int b = 0; b <= top; b++) {
+            if (buckets[b] == 0) continue;
+            String range = String.format("[%s,%s)ms", formatMillis(1L << b), formatMillis(1L << (b + 1)));
+            int bar = max > 0 ? (int) Math.round(40.0 * buckets[b] / max) : 0;
+            out.append(String.format("    %-18s %7d %s%n", range, buckets[b], "#".repeat(bar)));
+        }
+        return out.toString();
+    }
+
+    private static String formatMillis(long micros) {
+        return micros < 1000 ? String.format("%.3f", micros / 1000.0) : String.valueOf(micros / 1000);
+    }
+}
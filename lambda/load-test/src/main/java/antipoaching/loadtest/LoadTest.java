@@ -0,0 +1,240 @@
+package antipoaching.loadtest;
+
+import antipoaching.local.HandlerLoader;
+import antipoaching.local.InMemoryDynamoDb;
+import antipoaching.local.LocalContext;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays a synthetic mix of optimize and map/result CRUD traffic against both
+ * handlers in-process, at a fixed concurrency, and reports per-operation latency
+ * percentiles and histograms, throughput, GC pauses, allocation and response
+ * size per request. Each simulated client is a virtual thread sending one
+ * request after another through the Lambda entry point. A virtual thread
+ * keeps its carrier until it blocks, so with few cores the CPU-bound
+ * optimizations hold up data operations waiting on the DynamoDB stand-in;
+ * their tails reflect that sharing, not Lambda's one request per instance.
+ * Response size counts the bytes on the wire, i.e. after decoding a base64
+ * (compressed) body. Virtual threads have no allocation counter of their
+ * own, so allocation is the whole JVM's over the measured phase, per
+ * request; a single-operation mix isolates one operation's cost.
+ *
+ * Usage: java -jar load-test-1.0.0.jar [key=value ...]
+ *   requests=2000 warmup=200 concurrency=32 gridSize=50 obstacleDensity=0.1
+ *   rangers=4 maxSteps=200 maps=8 dbLatencyMs=5 seed=1 acceptEncoding=gzip
+ *   mix=optimize:40,saveMap:10,getMap:20,listMaps:5,saveResult:10,getResult:10,mapResults:5
+ *   optimizerClasses=../patrol-optimizer/target/classes
+ *   dataManagerClasses=../data-manager/target/classes
+ */
+public class LoadTest {
+
+    private static final String DEFAULT_MIX =
+        "optimize:40,saveMap:10,getMap:20,listMaps:5,saveResult:10,getResult:10,mapResults:5";
+
+    private final Map<String, Function<Random, APIGatewayProxyRequestEvent>> operations = new LinkedHashMap<>();
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final List<String> weightedOps = new ArrayList<>();
+
+    private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> optimizer;
+    private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> dataManager;
+    private final Context optimizerContext = new LocalContext("patrol-optimizer");
+    private final Context dataManagerContext = new LocalContext("data-manager");
+    private final RequestFactory factory;
+    private final String acceptEncoding;   // Sent on every request if set
+
+    public LoadTest(Map<String, String> config) throws ReflectiveOperationException {
+        this.factory = new RequestFactory(
+            intArg(config, "maps", 8), intArg(config, "gridSize", 50),
+            Double.parseDouble(config.getOrDefault("obstacleDensity", "0.1")),
+            intArg(config, "rangers", 4), intArg(config, "maxSteps", 200),
+            Long.parseLong(config.getOrDefault("seed", "1")));
+        this.acceptEncoding = config.get("acceptEncoding");
+
+        this.optimizer = HandlerLoader.loadOptimizer(
+            Paths.get(config.getOrDefault("optimizerClasses", "../patrol-optimizer/target/classes")));
+        this.dataManager = HandlerLoader.loadDataManager(
+            Paths.get(config.getOrDefault("dataManagerClasses", "../data-manager/target/classes")),
+            new InMemoryDynamoDb(intArg(config, "dbLatencyMs", 5)));
+
+        operations.put("optimize", factory::optimize);
+        operations.put("saveMap", factory::saveMap);
+        operations.put("getMap", factory::getMap);
+        operations.put("listMaps", factory::listMaps);
+        operations.put("saveResult", factory::saveResult);
+        operations.put("getResult", factory::getResult);
+        operations.put("mapResults", factory::mapResults);
+
+        for (String entry : config.getOrDefault("mix", DEFAULT_MIX).split(",")) {
+            String[] parts = entry.split(":");
+            if (!operations.containsKey(parts[0])) {
+                throw new IllegalArgumentException("Unknown operation in mix: " + parts[0]);
+            }
+            for (int i = 0; i < Integer.parseInt(parts[1]); i++) {
+                weightedOps.add(parts[0]);
+            }
+            recorders.put(parts[0], new LatencyRecorder());
+        }
+    }
+
+    /**
+     * Send one request and record it under its operation name
+     */
+    private void invoke(String operation, Random random, boolean record) {
+        APIGatewayProxyRequestEvent request = operations.get(operation).apply(random);
+        boolean toOptimizer = "optimize".equals(operation);
+        if (acceptEncoding != null) {
+            request.getHeaders().put("Accept-Encoding", acceptEncoding);
+        }
+
+        long start = System.nanoTime();
+        APIGatewayProxyResponseEvent response = toOptimizer
+            ? optimizer.handleRequest(request, optimizerContext)
+            : dataManager.handleRequest(request, dataManagerContext);
+        long elapsed = System.nanoTime() - start;
+
+        boolean error = response.getStatusCode() == null || response.getStatusCode() >= 500;
+
+        String body = response.getBody();
+        long responseSize = 0;
+        if (body != null) {
+            if (Boolean.TRUE.equals(response.getIsBase64Encoded())) {
+                byte[] raw = Base64.getDecoder().decode(body);
+                responseSize = raw.length;
+                body = gunzip(raw);
+            } else {
+                responseSize = body.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+
+        factory.observe(request, body);
+        if (record) {
+            recorders.get(operation).record(elapsed, responseSize, error);
+        }
+    }
+
+    private static String gunzip(byte[] gzipped) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Run a phase with the given number of requests spread over concurrent clients
+     */
+    private long runPhase(int requests, int concurrency, long seed, boolean record) {
+        AtomicInteger remaining = new AtomicInteger(requests);
+        long start = System.nanoTime();
+
+        // close() waits for every client to run out of requests
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                Random random = new Random(seed + c);
+                clients.execute(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        invoke(weightedOps.get(random.nextInt(weightedOps.size())), random, record);
+                    }
+                });
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Create a few maps and results so reads have something to hit
+     */
+    private void seedStorage() {
+        Random random = new Random(0);
+        for (int i = 0; i < 4; i++) {
+            invoke("saveMap", random, false);
+        }
+        for (int i = 0; i < 8; i++) {
+            invoke("saveResult", random, false);
+        }
+    }
+
+    public void run(int warmup, int requests, int concurrency, long seed) {
+        seedStorage();
+        runPhase(warmup, concurrency, seed, false);
+
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        GcMonitor gc = new GcMonitor();
+        gc.start();
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        long elapsed = runPhase(requests, concurrency, seed + 1000, true);
+        long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+        gc.stop();
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("%nrequests=%d concurrency=%d elapsed=%.2fs throughput=%.1f req/s alloc/req=%s%n",
+            requests, concurrency, seconds, requests / seconds, formatBytes(allocated / Math.max(1, requests)));
+        System.out.println("gc: " + gc.summary());
+        System.out.printf("%n%-11s %7s %6s %9s %9s %9s %9s %12s%n",
+            "operation", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms", "resp/req");
+
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder r = entry.getValue();
+            System.out.printf("%-11s %7d %6d %9.2f %9.2f %9.2f %9.2f %12s%n",
+                entry.getKey(), r.getCount(), r.getErrors(),
+                r.percentileMillis(50), r.percentileMillis(90), r.percentileMillis(99),
+                r.percentileMillis(100), formatBytes(r.getResponseBytesPerRequest()));
+        }
+
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            if (entry.getValue().getCount() == 0) continue;
+            System.out.printf("%n%s latency histogram:%n%s", entry.getKey(), entry.getValue().histogram());
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes >= 1 << 20) return String.format("%.1f MB", bytes / (double) (1 << 20));
+        if (bytes >= 1 << 10) return String.format("%.1f KB", bytes / (double) (1 << 10));
+        return bytes + " B";
+    }
+
+    private static int intArg(Map<String, String> config, String key, int defaultValue) {
+        return Integer.parseInt(config.getOrDefault(key, String.valueOf(defaultValue)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> config = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            config.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        new LoadTest(config).run(
+            intArg(config, "warmup", 200),
+            intArg(config, "requests", 2000),
+            intArg(config, "concurrency", 32),
+            Long.parseLong(config.getOrDefault("seed", "1")));
+    }
+}
@@ -0,0 +1,173 @@
+package antipoaching.loadtest;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Synthesizes API Gateway events resembling frontend traffic.
+ *
+ * Maps are generated the same way as the frontend's "Generate Random Map"
+ * (edge-weighted risk, animals favoring the center, configurable obstacle
+ * density) and serialized once up front so request construction is cheap.
+ * Ids returned by create calls are remembered so reads target real items.
+ */
+public class RequestFactory {
+
+    private final Gson gson = new Gson();
+    private final int rangerCount;
+    private final int maxSteps;
+    private final List<JsonObject> maps = new ArrayList<>();
+    private final List<String> optimizeBodies = new ArrayList<>();
+    private final List<String> saveMapBodies = new ArrayList<>();
+    private final List<String> mapIds = new CopyOnWriteArrayList<>();
+    private final List<String> resultIds = new CopyOnWriteArrayList<>();
+
+    public RequestFactory(int mapCount, int gridSize, double obstacleDensity,
+                          int rangerCount, int maxSteps, long seed) {
+        this.rangerCount = rangerCount;
+        this.maxSteps = maxSteps;
+
+        Random random = new Random(seed);
+        for (int i = 0; i < mapCount; i++) {
+            JsonObject map = generateMap(gridSize, obstacleDensity, random);
+            maps.add(map);
+
+            JsonObject optimize = map.deepCopy();
+            optimize.addProperty("rangerCount", rangerCount);
+            optimize.addProperty("maxSteps", maxSteps);
+            optimizeBodies.add(gson.toJson(optimize));
+
+            JsonObject save = map.deepCopy();
+            save.addProperty("name", "Load test map " + i);
+            saveMapBodies.add(gson.toJson(save));
+        }
+    }
+
+    private static JsonObject generateMap(int gridSize, double obstacleDensity, Random random) {
+        JsonArray riskMap = new JsonArray();
+        JsonArray animalMap = new JsonArray();
+        JsonArray terrainMap = new JsonArray();
+
+        for (int row = 0; row < gridSize; row++) {
+            JsonArray riskRow = new JsonArray();
+            JsonArray animalRow = new JsonArray();
+            JsonArray terrainRow = new JsonArray();
+
+            for (int col = 0; col < gridSize; col++) {
+                boolean passable = random.nextDouble() >= obstacleDensity;
+                terrainRow.add(passable ? 1 : 0);
+
+                if (passable) {
+                    double edgeFactor = Math.min(Math.min(row, col),
+                        Math.min(gridSize - 1 - row, gridSize - 1 - col)) / (gridSize / 2.0);
+                    double risk = Math.max(0, Math.min(1, random.nextDouble() * (1 - edgeFactor * 0.5)));
+                    riskRow.add(Math.round(risk * 100) / 100.0);
+                    animalRow.add(random.nextDouble() < 0.2 * (1 - edgeFactor * 0.3));
+                } else {
+                    riskRow.add(0);
+                    animalRow.add(false);
+                }
+            }
+
+            riskMap.add(riskRow);
+            animalMap.add(animalRow);
+            terrainMap.add(terrainRow);
+        }
+
+        JsonObject map = new JsonObject();
+        map.addProperty("gridSize", gridSize);
+        map.add("riskMap", riskMap);
+        map.add("animalMap", animalMap);
+        map.add("terrainMap", terrainMap);
+        return map;
+    }
+
+    public APIGatewayProxyRequestEvent optimize(Random random) {
+        return event("POST", "/api/optimize", optimizeBodies.get(random.nextInt(optimizeBodies.size())));
+    }
+
+    public APIGatewayProxyRequestEvent saveMap(Random random) {
+        return event("POST", "/api/maps", saveMapBodies.get(random.nextInt(saveMapBodies.size())));
+    }
+
+    public APIGatewayProxyRequestEvent listMaps(Random random) {
+        return event("GET", "/api/maps", null);
+    }
+
+    public APIGatewayProxyRequestEvent getMap(Random random) {
+        return event("GET", "/api/maps/" + pick(mapIds, random), null);
+    }
+
+    public APIGatewayProxyRequestEvent mapResults(Random random) {
+        APIGatewayProxyRequestEvent event = event("GET", "/api/maps/" + pick(mapIds, random) + "/results", null);
+        Map<String, String> query = new HashMap<>();
+        query.put("limit", "20");
+        event.setQueryStringParameters(query);
+        return event;
+    }
+
+    public APIGatewayProxyRequestEvent saveResult(Random random) {
+        // A plausible result: one straight-line route per ranger plus stats
+        JsonArray routes = new JsonArray();
+        for (int r = 0; r < rangerCount; r++) {
+            JsonArray path = new JsonArray();
+            for (int step = 0; step < Math.min(maxSteps, 50); step++) {
+                JsonArray point = new JsonArray();
+                point.add(r);
+                point.add(step);
+                path.add(point);
+            }
+            JsonObject route = new JsonObject();
+            route.addProperty("rangerId", r);
+            route.add("path", path);
+            routes.add(route);
+        }
+        JsonObject stats = new JsonObject();
+        stats.addProperty("riskReduction", random.nextInt(60) + "%");
+
+        JsonObject body = new JsonObject();
+        body.addProperty("mapId", pick(mapIds, random));
+        body.addProperty("rangerCount", rangerCount);
+        body.add("routes", routes);
+        body.add("stats", stats);
+        return event("POST", "/api/results", gson.toJson(body));
+    }
+
+    public APIGatewayProxyRequestEvent getResult(Random random) {
+        return event("GET", "/api/results/" + pick(resultIds, random), null);
+    }
+
+    /**
+     * Remember ids from create responses so later reads hit existing items
+     */
+    public void observe(APIGatewayProxyRequestEvent request, String responseBody) {
+        if (!"POST".equals(request.getHttpMethod()) || responseBody == null) return;
+        JsonObject body = gson.fromJson(responseBody, JsonObject.class);
+        if (body.has("mapId")) mapIds.add(body.get("mapId").getAsString());
+        if (body.has("resultId")) resultIds.add(body.get("resultId").getAsString());
+    }
+
+    private static String pick(List<String> ids, Random random) {
+        return ids.isEmpty() ? "missing" : ids.get(random.nextInt(ids.size()));
+    }
+
+    private static APIGatewayProxyRequestEvent event(String method, String path, String body) {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        event.setHttpMethod(method);
+        event.setPath(path);
+        event.setBody(body);
+        event.setHeaders(new HashMap<>());
+        event.setRequestContext(new APIGatewayProxyRequestEvent.ProxyRequestContext());
+        return event;
+    }
+}
@@ -0,0 +1,66 @@
+package antipoaching.local;
+
+import antipoaching.common.ApiHandler;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads each Lambda's handler from its module's compiled classes.
+ *
+ * Both modules define antipoaching.Handler, so each gets its own class loader.
+ * Shared libraries (common, Lambda events, Gson, AWS SDK) come from the
+ * caller's class path, so requests, responses and ApiHandler itself pass
+ * between them unchanged.
+ */
+public final class HandlerLoader {
+
+    private HandlerLoader() {}
+
+    /**
+     * Load patrol-optimizer's handler as Lambda would construct it
+     */
+    public static ApiHandler loadOptimizer(Path classesDir) throws ReflectiveOperationException {
+        ClassLoader loader = isolatedLoader(classesDir);
+        return (ApiHandler) loader.loadClass("antipoaching.Handler").getConstructor().newInstance();
+    }
+
+    /**
+     * Load patrol-optimizer's handler on top of the given DynamoDB client
+     */
+    public static ApiHandler loadOptimizer(Path classesDir, DynamoDbClient dynamoDb)
+            throws ReflectiveOperationException {
+        ClassLoader loader = isolatedLoader(classesDir);
+        return (ApiHandler) loader.loadClass("antipoaching.Handler")
+            .getConstructor(DynamoDbClient.class).newInstance(dynamoDb);
+    }
+
+    /**
+     * Load data-manager's handler on top of the given DynamoDB client
+     */
+    public static ApiHandler loadDataManager(Path classesDir, DynamoDbAsyncClient dynamoDb)
+            throws ReflectiveOperationException {
+        ClassLoader loader = isolatedLoader(classesDir);
+        Class<?> serviceClass = loader.loadClass("antipoaching.DynamoDBService");
+        Object service = serviceClass.getConstructor(DynamoDbAsyncClient.class).newInstance(dynamoDb);
+        return (ApiHandler) loader.loadClass("antipoaching.Handler").getConstructor(serviceClass).newInstance(service);
+    }
+
+    private static ClassLoader isolatedLoader(Path classesDir) {
+        if (!Files.isDirectory(classesDir)) {
+            throw new IllegalArgumentException(
+                "Compiled classes not found at " + classesDir + " (run mvn compile in that module)");
+        }
+        try {
+            URL url = classesDir.toUri().toURL();
+            return new URLClassLoader(new URL[]{url}, HandlerLoader.class.getClassLoader());
+        } catch (java.net.MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
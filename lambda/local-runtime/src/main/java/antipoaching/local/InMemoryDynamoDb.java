@@ -0,0 +1,212 @@
+package antipoaching.local;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-memory stand-in for DynamoDB, covering the calls both handlers make:
+ * PutItem (including attribute_not_exists), GetItem, Scan with a projection
+ * and the PatrolResults mapId/createdAt index Query. Key conditions compare
+ * strings, as DynamoDB does. An optional fixed latency is added to every call
+ * to approximate a network round trip.
+ *
+ * Shared by the load test, the local server's file-backed store and the
+ * data-manager tests, so there is one implementation of the index query.
+ */
+public class InMemoryDynamoDb implements DynamoDbAsyncClient {
+
+    private static final Map<String, String> HASH_KEYS = new HashMap<>();
+    static {
+        HASH_KEYS.put("AntiPoachingMaps", "mapId");
+        HASH_KEYS.put("MapContents", "contentHash");
+        HASH_KEYS.put("PatrolResults", "resultId");
+        HASH_KEYS.put("OptimizationJobs", "jobId");
+    }
+
+    private final Map<String, Map<String, Map<String, AttributeValue>>> tables = new ConcurrentHashMap<>();
+    private final long latencyMillis;
+
+    public InMemoryDynamoDb() {
+        this(0);
+    }
+
+    public InMemoryDynamoDb(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        for (String tableName : HASH_KEYS.keySet()) {
+            tables.put(tableName, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Names of the tables this store holds
+     */
+    protected static Set<String> tableNames() {
+        return Collections.unmodifiableSet(HASH_KEYS.keySet());
+    }
+
+    /**
+     * Items of a table by hash key, for subclasses loading stored items
+     */
+    protected Map<String, Map<String, AttributeValue>> table(String name) {
+        Map<String, Map<String, AttributeValue>> table = tables.get(name);
+        if (table == null) {
+            throw ResourceNotFoundException.builder().message("No such table: " + name).build();
+        }
+        return table;
+    }
+
+    /**
+     * Called with the item's key locked whenever an item is written, before it
+     * becomes visible; a failure here fails the put
+     */
+    protected void stored(String tableName, String key, Map<String, AttributeValue> item) {
+    }
+
+    private <T> CompletableFuture<T> respond(Supplier<T> call) {
+        if (latencyMillis <= 0) {
+            try {
+                return CompletableFuture.completedFuture(call.get());
+            } catch (RuntimeException e) {
+                CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                return failed;
+            }
+        }
+        return CompletableFuture.supplyAsync(call,
+            CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public CompletableFuture<PutItemResponse> putItem(PutItemRequest request) {
+        return respond(() -> {
+            String tableName = request.tableName();
+            Map<String, Map<String, AttributeValue>> table = table(tableName);
+            Map<String, AttributeValue> item = new HashMap<>(request.item());
+            String key = item.get(HASH_KEYS.get(tableName)).s();
+            boolean ifAbsent = request.conditionExpression() != null
+                && request.conditionExpression().startsWith("attribute_not_exists");
+
+            // compute() holds the key's lock, so the check and the write are atomic per item
+            table.compute(key, (k, existing) -> {
+                if (ifAbsent && existing != null) {
+                    throw ConditionalCheckFailedException.builder().message("Item exists").build();
+                }
+                stored(tableName, key, item);
+                return item;
+            });
+            return PutItemResponse.builder().build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<GetItemResponse> getItem(GetItemRequest request) {
+        return respond(() -> {
+            String key = request.key().get(HASH_KEYS.get(request.tableName())).s();
+            Map<String, AttributeValue> item = table(request.tableName()).get(key);
+            return item != null
+                ? GetItemResponse.builder().item(item).build()
+                : GetItemResponse.builder().build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<ScanResponse> scan(ScanRequest request) {
+        return respond(() -> {
+            List<Map<String, AttributeValue>> items = new ArrayList<>(table(request.tableName()).values());
+            if (request.projectionExpression() != null) {
+                List<String> names = new ArrayList<>();
+                for (String name : request.projectionExpression().split(",")) {
+                    name = name.trim();
+                    names.add(request.hasExpressionAttributeNames()
+                        ? request.expressionAttributeNames().getOrDefault(name, name)
+                        : name);
+                }
+                for (int i = 0; i < items.size(); i++) {
+                    Map<String, AttributeValue> projected = new HashMap<>();
+                    for (String name : names) {
+                        AttributeValue value = items.get(i).get(name);
+                        if (value != null) projected.put(name, value);
+                    }
+                    items.set(i, projected);
+                }
+            }
+            return ScanResponse.builder().items(items).build();
+        });
+    }
+
+    /**
+     * Supports the PatrolResults mapId/createdAt index query issued by DynamoDBService
+     */
+    @Override
+    public CompletableFuture<QueryResponse> query(QueryRequest request) {
+        return respond(() -> {
+            Map<String, AttributeValue> values = request.expressionAttributeValues();
+            String mapId = values.get(":mapId").s();
+            String from = values.containsKey(":from") ? values.get(":from").s() : null;
+            String to = values.containsKey(":to") ? values.get(":to").s() : null;
+
+            List<Map<String, AttributeValue>> matches = new ArrayList<>();
+            for (Map<String, AttributeValue> item : table(request.tableName()).values()) {
+                String createdAt = item.get("createdAt").s();
+                if (!mapId.equals(item.get("mapId").s())) continue;
+                if (from != null && createdAt.compareTo(from) < 0) continue;
+                if (to != null && createdAt.compareTo(to) > 0) continue;
+                matches.add(item);
+            }
+
+            Comparator<Map<String, AttributeValue>> order = Comparator
+                .comparing((Map<String, AttributeValue> item) -> item.get("createdAt").s())
+                .thenComparing(item -> item.get("resultId").s());
+            if (!Boolean.FALSE.equals(request.scanIndexForward())) {
+                matches.sort(order);
+            } else {
+                matches.sort(order.reversed());
+            }
+
+            int start = 0;
+            if (request.hasExclusiveStartKey()) {
+                String after = request.exclusiveStartKey().get("resultId").s();
+                while (start < matches.size() && !after.equals(matches.get(start).get("resultId").s())) {
+                    start++;
+                }
+                start++;
+            }
+
+            int limit = request.limit() != null ? request.limit() : matches.size();
+            int end = Math.min(matches.size(), start + limit);
+            QueryResponse.Builder response = QueryResponse.builder()
+                .items(start < end ? matches.subList(start, end) : new ArrayList<>());
+
+            if (end < matches.size()) {
+                Map<String, AttributeValue> last = matches.get(end - 1);
+                Map<String, AttributeValue> lastKey = new HashMap<>();
+                lastKey.put("resultId", last.get("resultId"));
+                lastKey.put("mapId", last.get("mapId"));
+                lastKey.put("createdAt", last.get("createdAt"));
+                response.lastEvaluatedKey(lastKey);
+            }
+            return response.build();
+        });
+    }
+
+    @Override
+    public String serviceName() {
+        return "dynamodb";
+    }
+
+    @Override
+    public void close() {
+    }
+}
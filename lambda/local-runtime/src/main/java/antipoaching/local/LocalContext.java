@@ -0,0 +1,42 @@
+package antipoaching.local;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+/**
+ * Lambda context for in-process invocations; handler logs go to stderr
+ */
+public class LocalContext implements Context {
+
+    private static final LambdaLogger LOGGER = new LambdaLogger() {
+        @Override
+        public void log(String message) {
+            System.err.println(message);
+        }
+
+        @Override
+        public void log(byte[] message) {
+            System.err.println(new String(message));
+        }
+    };
+
+    private final String functionName;
+
+    public LocalContext(String functionName) {
+        this.functionName = functionName;
+    }
+
+    @Override public String getAwsRequestId() { return "local"; }
+    @Override public String getLogGroupName() { return "local"; }
+    @Override public String getLogStreamName() { return "local"; }
+    @Override public String getFunctionName() { return functionName; }
+    @Override public String getFunctionVersion() { return "$LATEST"; }
+    @Override public String getInvokedFunctionArn() { return "local:" + functionName; }
+    @Override public CognitoIdentity getIdentity() { return null; }
+    @Override public ClientContext getClientContext() { return null; }
+    @Override public int getRemainingTimeInMillis() { return Integer.MAX_VALUE; }
+    @Override public int getMemoryLimitInMB() { return (int) (Runtime.getRuntime().maxMemory() >> 20); }
+    @Override public LambdaLogger getLogger() { return LOGGER; }
+}
@@ -0,0 +1,58 @@
+package antipoaching.local;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Blocking view of an async client, so the optimizer (which uses the sync
+ * client) can share the file-backed store with data-manager, and its tests
+ * can run on InMemoryDynamoDb. Covers the GetItem and PutItem calls the
+ * optimizer makes.
+ */
+public class SyncDynamoDb implements DynamoDbClient {
+
+    private final DynamoDbAsyncClient delegate;
+
+    public SyncDynamoDb(DynamoDbAsyncClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest request) {
+        return join(delegate.getItem(request));
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest request) {
+        return join(delegate.putItem(request));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Rethrow SDK exceptions as the sync client would, e.g. ConditionalCheckFailedException
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public String serviceName() {
+        return delegate.serviceName();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,84 @@
+package antipoaching.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the requests in flight for one handler.
+ *
+ * Up to `permits` requests run at once and up to `maxQueued` more wait, in
+ * arrival order, for at most `queueTimeoutMillis`. Anything beyond that is
+ * turned away straight away, so an overloaded server answers 503 quickly
+ * instead of piling up work it cannot finish.
+ */
+public class AdmissionGate {
+
+    private final String name;
+    private final Semaphore running;
+    private final int permits;
+    private final int maxQueued;
+    private final long queueTimeoutMillis;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdmissionGate(String name, int permits, int maxQueued, long queueTimeoutMillis) {
+        this.name = name;
+        this.running = new Semaphore(permits, true);
+        this.permits = permits;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    /**
+     * Wait for a slot; every true return must be paired with exit()
+     * @return false if the queue is full or the wait timed out
+     */
+    public boolean enter() throws InterruptedException {
+        // A zero timeout still honours fairness, so a free slot never jumps the queue
+        if (running.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+            admitted.incrementAndGet();
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            return false;
+        }
+        try {
+            if (running.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                admitted.incrementAndGet();
+                return true;
+            }
+            rejected.incrementAndGet();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void exit() {
+        running.release();
+    }
+
+    public String getName() { return name; }
+    public int getPermits() { return permits; }
+
+    /**
+     * Current load and lifetime counters, for the health endpoint
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", permits - running.availablePermits());
+        stats.put("permits", permits);
+        stats.put("queued", queued.get());
+        stats.put("maxQueued", maxQueued);
+        stats.put("admitted", admitted.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+}
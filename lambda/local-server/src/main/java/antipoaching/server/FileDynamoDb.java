@@ -0,0 +1,114 @@
+package antipoaching.server;
+
+import antipoaching.local.InMemoryDynamoDb;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * File-backed stand-in for DynamoDB, for hosts without AWS access.
+ *
+ * Each table is a directory under the data directory holding one JSON file per
+ * item, named after its hash key. Tables are read into memory on startup and
+ * every put is written through, to a temporary file that is then renamed over
+ * the old one so a crash never leaves a half-written item. Calls are served
+ * by InMemoryDynamoDb, which this only persists.
+ */
+public class FileDynamoDb extends InMemoryDynamoDb {
+
+    private static final String ITEM_SUFFIX = ".json";
+    private static final Type ITEM_TYPE = new TypeToken<Map<String, Map<String, String>>>() {}.getType();
+
+    private final Path dataDir;
+    private final Gson gson = new Gson();
+
+    public FileDynamoDb(Path dataDir) throws IOException {
+        this.dataDir = dataDir;
+        for (String tableName : tableNames()) {
+            Path tableDir = dataDir.resolve(tableName);
+            Files.createDirectories(tableDir);
+            load(tableDir, table(tableName));
+        }
+    }
+
+    private void load(Path tableDir, Map<String, Map<String, AttributeValue>> table) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tableDir, "*" + ITEM_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String key = URLDecoder.decode(
+                    name.substring(0, name.length() - ITEM_SUFFIX.length()), StandardCharsets.UTF_8);
+                table.put(key, fromJson(Files.readString(file)));
+            }
+        }
+    }
+
+    @Override
+    protected void stored(String tableName, String key, Map<String, AttributeValue> item) {
+        Path tableDir = dataDir.resolve(tableName);
+        Path file = tableDir.resolve(URLEncoder.encode(key, StandardCharsets.UTF_8) + ITEM_SUFFIX);
+        try {
+            Path temp = Files.createTempFile(tableDir, "put", ".tmp");
+            Files.writeString(temp, toJson(item));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + file, e);
+        }
+    }
+
+    private String toJson(Map<String, AttributeValue> item) {
+        Map<String, Map<String, String>> encoded = new LinkedHashMap<>();
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            AttributeValue value = attribute.getValue();
+            Map<String, String> typed = new HashMap<>();
+            if (value.s() != null) {
+                typed.put("S", value.s());
+            } else if (value.n() != null) {
+                typed.put("N", value.n());
+            } else if (value.b() != null) {
+                typed.put("B", Base64.getEncoder().encodeToString(value.b().asByteArray()));
+            } else {
+                throw new IllegalArgumentException("Unsupported attribute type: " + attribute.getKey());
+            }
+            encoded.put(attribute.getKey(), typed);
+        }
+        return gson.toJson(encoded, ITEM_TYPE);
+    }
+
+    private Map<String, AttributeValue> fromJson(String json) {
+        Map<String, Map<String, String>> encoded = gson.fromJson(json, ITEM_TYPE);
+        Map<String, AttributeValue> item = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> attribute : encoded.entrySet()) {
+            Map<String, String> typed = attribute.getValue();
+            AttributeValue value;
+            if (typed.containsKey("S")) {
+                value = AttributeValue.builder().s(typed.get("S")).build();
+            } else if (typed.containsKey("B")) {
+                value = AttributeValue.builder()
+                    .b(SdkBytes.fromByteArray(Base64.getDecoder().decode(typed.get("B"))))
+                    .build();
+            } else {
+                value = AttributeValue.builder().n(typed.get("N")).build();
+            }
+            item.put(attribute.getKey(), value);
+        }
+        return item;
+    }
+}
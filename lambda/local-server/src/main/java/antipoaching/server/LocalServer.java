@@ -0,0 +1,472 @@
+package antipoaching.server;
+
+import antipoaching.common.ApiHandler;
+import antipoaching.common.ApiRequest;
+import antipoaching.common.ApiResponse;
+import antipoaching.common.ResponseCompressor;
+import antipoaching.local.HandlerLoader;
+import antipoaching.local.LocalContext;
+import antipoaching.local.SyncDynamoDb;
+
+import com.amazonaws.services.lambda.runtime.Context;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClientBuilder;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves both handlers over plain HTTP from one long-lived process, for sites
+ * that cannot reach Lambda.
+ *
+ * /api/optimize goes to patrol-optimizer and /api/maps and /api/results to
+ * data-manager, calling each handler's route() directly with no API Gateway
+ * event in between, and compressed bodies go on the wire as raw gzip.
+ * Streamed bodies (NDJSON optimization progress) are sent chunked as the
+ * handler writes them, gzipped with a sync flush per write where accepted.
+ * Every request runs on its own virtual thread. Each handler sits behind an
+ * AdmissionGate: optimizations are CPU-bound, so by default only one per core
+ * runs and the rest queue; once the queue is full, requests get 503 with
+ * Retry-After. Admitted optimizations run on a platform thread per gate
+ * permit, since a virtual thread keeps its carrier until it blocks and would
+ * otherwise stall the data requests behind it. A streamed optimization does
+ * its work as it writes, so it holds its slot until the stream ends. The
+ * optimizer is warmed up before the port opens, so the first real request is
+ * not a cold start. GET /health reports both gates. Preflights and job polls
+ * do no optimizing, so they skip the gates and are answered straight away.
+ * Request bodies over maxBodyBytes get 413 before they are read into memory.
+ *
+ * Usage: java -jar local-server-1.0.0.jar [key=value ...]
+ *   port=8080 storage=file dataDir=data region=us-east-1
+ *   optimizeConcurrency=(cores) optimizeQueue=512 dataConcurrency=64 dataQueue=256
+ *   queueTimeoutMs=30000 maxBodyBytes=6291456 warmup=20
+ *   optimizerClasses=../patrol-optimizer/target/classes
+ *   dataManagerClasses=../data-manager/target/classes
+ *
+ * storage=file keeps tables under dataDir (see FileDynamoDb); storage=dynamodb
+ * uses real tables, or DYNAMODB_ENDPOINT if set.
+ */
+public class LocalServer {
+
+    private static final String OPTIMIZE_PREFIX = "/api/optimize";
+    private static final String JOBS_PREFIX = OPTIMIZE_PREFIX + "/jobs/";
+    private static final String[] DATA_PREFIXES = {"/api/maps", "/api/results"};
+    private static final String HEALTH_PATH = "/health";
+    private static final int RETRY_AFTER_SECONDS = 1;
+    private static final int WARMUP_GRID_SIZE = 30;
+
+    private final Gson gson = new Gson();
+    private final ResponseCompressor compressor = new ResponseCompressor();
+    private final Route optimizer;
+    private final Route dataManager;
+    private final HttpServer server;
+    private final long maxBodyBytes;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public LocalServer(Map<String, String> config) throws IOException, ReflectiveOperationException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long queueTimeout = Long.parseLong(config.getOrDefault("queueTimeoutMs", "30000"));
+        // Lambda's own limit on a synchronous request payload
+        this.maxBodyBytes = Long.parseLong(config.getOrDefault("maxBodyBytes", "6291456"));
+
+        DynamoDbAsyncClient asyncDb;
+        DynamoDbClient syncDb;
+        String storage = config.getOrDefault("storage", "file");
+        if ("file".equals(storage)) {
+            asyncDb = new FileDynamoDb(Paths.get(config.getOrDefault("dataDir", "data")));
+            syncDb = new SyncDynamoDb(asyncDb);
+        } else if ("dynamodb".equals(storage)) {
+            Region region = Region.of(config.getOrDefault("region", "us-east-1"));
+            DynamoDbAsyncClientBuilder asyncBuilder = DynamoDbAsyncClient.builder().region(region);
+            DynamoDbClientBuilder syncBuilder = DynamoDbClient.builder().region(region);
+            String endpoint = System.getenv("DYNAMODB_ENDPOINT");
+            if (endpoint != null && !endpoint.isEmpty()) {
+                asyncBuilder.endpointOverride(URI.create(endpoint));
+                syncBuilder.endpointOverride(URI.create(endpoint));
+            }
+            asyncDb = asyncBuilder.build();
+            syncDb = syncBuilder.build();
+        } else {
+            throw new IllegalArgumentException("Unknown storage: " + storage + " (expected file or dynamodb)");
+        }
+
+        AdmissionGate optimizeGate = new AdmissionGate("optimize", intArg(config, "optimizeConcurrency", cores),
+            intArg(config, "optimizeQueue", 512), queueTimeout);
+        AtomicInteger workerCount = new AtomicInteger();
+        this.optimizer = new Route(
+            HandlerLoader.loadOptimizer(
+                Paths.get(config.getOrDefault("optimizerClasses", "../patrol-optimizer/target/classes")),
+                syncDb),
+            new LocalContext("patrol-optimizer"),
+            optimizeGate,
+            Executors.newFixedThreadPool(optimizeGate.getPermits(),
+                runnable -> new Thread(runnable, "optimize-" + workerCount.incrementAndGet())));
+        this.dataManager = new Route(
+            HandlerLoader.loadDataManager(
+                Paths.get(config.getOrDefault("dataManagerClasses", "../data-manager/target/classes")),
+                asyncDb),
+            new LocalContext("data-manager"),
+            new AdmissionGate("data", intArg(config, "dataConcurrency", 64),
+                intArg(config, "dataQueue", 256), queueTimeout),
+            null);
+
+        this.server = HttpServer.create(
+            new InetSocketAddress(intArg(config, "port", 8080)), intArg(config, "backlog", 1024));
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Warm up the optimizer, then start accepting connections
+     * @param warmupRuns Small optimizations to run first so the JIT has compiled the hot paths
+     */
+    public void start(int warmupRuns) {
+        if (warmupRuns > 0) {
+            String body = warmupBody();
+            for (int i = 0; i < warmupRuns; i++) {
+                ApiRequest request = new ApiRequest("POST", OPTIMIZE_PREFIX, null, null, body);
+                optimizer.handler.route(request, optimizer.context);
+            }
+        }
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        optimizer.worker.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if (HEALTH_PATH.equals(path)) {
+                Map<String, Object> health = new LinkedHashMap<>();
+                health.put("status", "ok");
+                health.put("optimize", optimizer.gate.getStats());
+                health.put("data", dataManager.gate.getStats());
+                sendJson(exchange, 200, health);
+                return;
+            }
+
+            Route route = route(path);
+            if (route == null) {
+                sendJson(exchange, 404, error("NOT_FOUND", "No route for " + path));
+                return;
+            }
+
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            if (length != null && Long.parseLong(length) > maxBodyBytes) {
+                sendJson(exchange, 413, tooLarge());
+                return;
+            }
+
+            boolean gated = isGated(exchange.getRequestMethod(), path);
+            if (gated && !route.gate.enter()) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+                sendJson(exchange, 503, error("OVERLOADED",
+                    "Too many " + route.gate.getName() + " requests in progress, retry later"));
+                return;
+            }
+
+            ApiRequest request;
+            ApiResponse response;
+            try {
+                request = toRequest(exchange);
+                if (request == null) {
+                    sendJson(exchange, 413, tooLarge());
+                    return;
+                }
+                Work<ApiResponse> work = () -> {
+                    ApiResponse routed = route.handler.route(request, route.context);
+                    if (routed.isStreaming()) {
+                        // The handler does its work as the body is written
+                        sendStream(exchange, request, routed);
+                    }
+                    return routed;
+                };
+                response = gated ? route.run(work) : work.call();
+            } finally {
+                if (gated) {
+                    route.gate.exit();
+                }
+            }
+            if (response.isStreaming()) {
+                return;
+            }
+            send(exchange, compressor.compress(request.getHeader("Accept-Encoding"), response));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Request failed: " + e);
+            try {
+                sendJson(exchange, 500, error("INTERNAL_ERROR", e.getMessage()));
+            } catch (IOException | RuntimeException ignored) {
+                // Response already started or connection gone
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Route route(String path) {
+        if (matches(path, OPTIMIZE_PREFIX)) {
+            return optimizer;
+        }
+        for (String prefix : DATA_PREFIXES) {
+            if (matches(path, prefix)) {
+                return dataManager;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(String path, String prefix) {
+        return path.equals(prefix) || path.startsWith(prefix + "/");
+    }
+
+    /**
+     * Whether a request waits for a gate slot; preflights and job polls only read a little state
+     */
+    private static boolean isGated(String method, String path) {
+        if ("OPTIONS".equals(method)) {
+            return false;
+        }
+        return !("GET".equals(method) && path.startsWith(JOBS_PREFIX));
+    }
+
+    /**
+     * Build the handler's request straight from the exchange
+     * @return The request, or null if its body turned out larger than maxBodyBytes
+     */
+    private ApiRequest toRequest(HttpExchange exchange) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            headers.put(header.getKey(), String.join(",", header.getValue()));
+        }
+
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                String name = eq >= 0 ? pair.substring(0, eq) : pair;
+                String value = eq >= 0 ? pair.substring(eq + 1) : "";
+                parameters.putIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+
+        String body = null;
+        try (InputStream in = exchange.getRequestBody()) {
+            // A chunked body has no Content-Length, so stop reading one byte past the limit
+            byte[] bytes = in.readNBytes((int) Math.min(maxBodyBytes + 1, Integer.MAX_VALUE - 8));
+            if (bytes.length > maxBodyBytes) {
+                return null;
+            }
+            if (bytes.length > 0) {
+                body = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return new ApiRequest(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+            headers, parameters, body);
+    }
+
+    private static void send(HttpExchange exchange, ApiResponse response) throws IOException {
+        copyHeaders(exchange, response);
+        write(exchange, response.getStatusCode(), response.getBodyBytes());
+    }
+
+    /**
+     * Send a streamed body chunked, so each flush by the handler reaches the client at once
+     */
+    private static void sendStream(HttpExchange exchange, ApiRequest request, ApiResponse response)
+            throws IOException {
+        copyHeaders(exchange, response);
+        boolean gzip = ResponseCompressor.acceptsGzip(request.getHeader("Accept-Encoding"));
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(response.getStatusCode(), 0);
+
+        try (OutputStream out = gzip
+                ? new GZIPOutputStream(exchange.getResponseBody(), true)
+                : exchange.getResponseBody()) {
+            response.getStream().writeTo(out);
+        }
+    }
+
+    private static void copyHeaders(HttpExchange exchange, ApiResponse response) {
+        Headers headers = exchange.getResponseHeaders();
+        for (Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+            headers.set(header.getKey(), header.getValue());
+        }
+    }
+
+
+    private void sendJson(HttpExchange exchange, int status, Map<String, ?> body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        write(exchange, status, gson.toJson(body).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void write(HttpExchange exchange, int status, byte[] body) throws IOException {
+        boolean empty = body.length == 0 || status == 204 || status == 304
+            || "HEAD".equals(exchange.getRequestMethod());
+        exchange.sendResponseHeaders(status, empty ? -1 : body.length);
+        if (!empty) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private Map<String, String> tooLarge() {
+        return error("PAYLOAD_TOO_LARGE", "Request body is larger than " + maxBodyBytes + " bytes");
+    }
+
+    private static Map<String, String> error(String code, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", code);
+        error.put("message", message);
+        return error;
+    }
+
+    /**
+     * A random map in the shape the optimizer accepts, for warm-up runs
+     */
+    private String warmupBody() {
+        Random random = new Random(1);
+        JsonArray riskMap = new JsonArray();
+        JsonArray animalMap = new JsonArray();
+        JsonArray terrainMap = new JsonArray();
+        for (int row = 0; row < WARMUP_GRID_SIZE; row++) {
+            JsonArray riskRow = new JsonArray();
+            JsonArray animalRow = new JsonArray();
+            JsonArray terrainRow = new JsonArray();
+            for (int col = 0; col < WARMUP_GRID_SIZE; col++) {
+                boolean passable = random.nextDouble() >= 0.1;
+                terrainRow.add(passable ? 1 : 0);
+                riskRow.add(passable ? Math.round(random.nextDouble() * 100) / 100.0 : 0);
+                animalRow.add(passable && random.nextDouble() < 0.2);
+            }
+            riskMap.add(riskRow);
+            animalMap.add(animalRow);
+            terrainMap.add(terrainRow);
+        }
+
+        JsonObject body = new JsonObject();
+        body.addProperty("gridSize", WARMUP_GRID_SIZE);
+        body.add("riskMap", riskMap);
+        body.add("animalMap", animalMap);
+        body.add("terrainMap", terrainMap);
+        body.addProperty("rangerCount", 4);
+        body.addProperty("maxSteps", 100);
+        return gson.toJson(body);
+    }
+
+    private static int intArg(Map<String, String> config, String key, int defaultValue) {
+        return Integer.parseInt(config.getOrDefault(key, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Work done for a request that may throw IOException
+     */
+    private interface Work<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * A handler with its Lambda context, admission gate and, for CPU-bound
+     * handlers, the platform threads its admitted requests run on
+     */
+    private static class Route {
+        final ApiHandler handler;
+        final Context context;
+        final AdmissionGate gate;
+        final ExecutorService worker;
+
+        /**
+         * @param worker Pool to run admitted requests on, or null to run them on the request's thread
+         */
+        Route(ApiHandler handler, Context context, AdmissionGate gate, ExecutorService worker) {
+            this.handler = handler;
+            this.context = context;
+            this.gate = gate;
+            this.worker = worker;
+        }
+
+        /**
+         * Run work for an admitted request, waiting for it if it goes to the worker pool
+         */
+        <T> T run(Work<T> work) throws IOException, InterruptedException {
+            if (worker == null) {
+                return work.call();
+            }
+            Future<T> result = worker.submit(work::call);
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                result.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> config = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            config.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        LocalServer server = new LocalServer(config);
+        server.start(intArg(config, "warmup", 20));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        System.out.printf("Listening on port %d (storage=%s)%n",
+            server.getPort(), config.getOrDefault("storage", "file"));
+    }
+}
@@ -1,86 +1,193 @@
 package antipoaching;
 
 import antipoaching.algorithm.PatrolOptimizer;
+import antipoaching.common.ApiHandler;
+import antipoaching.common.ApiRequest;
+import antipoaching.common.ApiResponse;
+import antipoaching.common.ResponseCompressor;
+import antipoaching.common.TilePyramid;
+import antipoaching.jobs.DynamoJobStore;
+import antipoaching.jobs.InMemoryJobStore;
+import antipoaching.jobs.Job;
+import antipoaching.jobs.JobExecutor;
+import antipoaching.jobs.JobStore;
+import antipoaching.jobs.JobWorker;
+import antipoaching.jobs.LambdaJobExecutor;
+import antipoaching.jobs.LocalJobExecutor;
 import antipoaching.model.Grid;
+import antipoaching.model.MapData;
 import antipoaching.simulation.PoachingSimulator;
+import antipoaching.storage.MapRepository;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonArray;
+import com.google.gson.JsonParseException;
 
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * AWS Lambda handler for patrol optimization
  */
-public class Handler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+public class Handler implements ApiHandler {
+
+    private static final String JOBS_PATH = "/api/optimize/jobs/";
+    private static final int LOCAL_JOB_QUEUE = 64;
+    private static final int RETRY_AFTER_SECONDS = 5;
 
     private final Gson gson = new Gson();
+    private final ResponseCompressor compressor = new ResponseCompressor();
+
+    // Created on first use so requests carrying a full grid never pay for a DynamoDB client
+    private MapRepository mapRepository;
+    private JobStore jobStore;
+    private JobExecutor jobExecutor;
+    private JobWorker jobWorker;
+
+    public Handler() {
+    }
+
+    /**
+     * Create a handler on an existing DynamoDB client, e.g. for self-hosting.
+     * Maps, results and jobs all go through the client, and jobs run on an
+     * in-process queue since there is no function to re-invoke.
+     */
+    public Handler(DynamoDbClient dynamoDb) {
+        this.mapRepository = new MapRepository(dynamoDb);
+        this.jobStore = new DynamoJobStore(dynamoDb);
+        this.jobExecutor = new LocalJobExecutor(getJobWorker(), Runtime.getRuntime().availableProcessors(),
+            LOCAL_JOB_QUEUE);
+    }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
-        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
+        // Worker invocation from LambdaJobExecutor; API Gateway always sets a request context
+        if (LambdaJobExecutor.WORKER_PATH.equals(input.getPath()) && input.getRequestContext() == null) {
+            return runJob(input.getBody(), context).toEvent();
+        }
+
+        ApiRequest request = ApiRequest.fromEvent(input);
+        ApiResponse response = route(request, context).buffer();
+        return compressor.compress(request.getHeader("Accept-Encoding"), response).toEvent();
+    }
+
+    @Override
+    public ApiResponse route(ApiRequest input, Context context) {
+        ApiResponse response = new ApiResponse();
 
         // Set CORS headers
-        Map<String, String> headers = new HashMap<>();
+        Map<String, String> headers = response.getHeaders();
         headers.put("Content-Type", "application/json");
         headers.put("Access-Control-Allow-Origin", "*");
-        headers.put("Access-Control-Allow-Methods", "POST, OPTIONS");
+        headers.put("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
         headers.put("Access-Control-Allow-Headers", "Content-Type");
-        response.setHeaders(headers);
 
         // Handle CORS preflight
-        if ("OPTIONS".equals(input.getHttpMethod())) {
+        if ("OPTIONS".equals(input.getMethod())) {
             response.setStatusCode(200);
             return response;
         }
 
         try {
+            String path = input.getPath() != null ? input.getPath() : "/api/optimize";
+
+            // GET /api/optimize/jobs/{id} - Poll an async job
+            if (path.startsWith(JOBS_PATH)) {
+                if (!"GET".equals(input.getMethod())) {
+                    return methodNotAllowed(response, "GET, OPTIONS");
+                }
+                Job job = getJobStore().get(path.substring(JOBS_PATH.length()));
+                if (job == null) {
+                    return notFound(response, "Job not found");
+                }
+                response.setStatusCode(200);
+                response.setBody(gson.toJson(job.toResponse()));
+                return response;
+            }
+
+            // POST /api/optimize - Everything else runs an optimization
+            if (!"POST".equals(input.getMethod())) {
+                return methodNotAllowed(response, "POST, OPTIONS");
+            }
+
             // Parse request body
             String body = input.getBody();
-            JsonObject request = gson.fromJson(body, JsonObject.class);
-
-            // Extract parameters
-            int gridSize = request.get("gridSize").getAsInt();
-            int rangerCount = request.get("rangerCount").getAsInt();
-            int maxSteps = request.get("maxSteps").getAsInt();
-
-            JsonArray riskMapJson = request.getAsJsonArray("riskMap");
-            JsonArray animalMapJson = request.getAsJsonArray("animalMap");
-            JsonArray terrainMapJson = request.getAsJsonArray("terrainMap");
-
-            // Convert JSON arrays to Java arrays
-            double[][] riskMap = new double[gridSize][gridSize];
-            boolean[][] animalMap = new boolean[gridSize][gridSize];
-            int[][] terrainMap = new int[gridSize][gridSize];
-
-            for (int i = 0; i < gridSize; i++) {
-                JsonArray riskRow = riskMapJson.get(i).getAsJsonArray();
-                JsonArray animalRow = animalMapJson.get(i).getAsJsonArray();
-                JsonArray terrainRow = terrainMapJson.get(i).getAsJsonArray();
-
-                for (int j = 0; j < gridSize; j++) {
-                    riskMap[i][j] = riskRow.get(j).getAsDouble();
-                    animalMap[i][j] = animalRow.get(j).getAsBoolean();
-                    terrainMap[i][j] = terrainRow.get(j).getAsInt();
+            OptimizationRequest request;
+            MapData mapData = null;
+            try {
+                request = OptimizationRequest.parse(gson.fromJson(body, JsonObject.class));
+                if (!request.isAsync()) {
+                    mapData = request.resolveMap(this::getMapRepository);
+                }
+            } catch (JsonParseException | IllegalArgumentException e) {
+                return badRequest(response, e.getMessage());
+            }
+
+            // Async mode: queue the work and return a job id immediately
+            if (request.isAsync()) {
+                String jobId = UUID.randomUUID().toString();
+                try {
+                    getJobStore().save(new Job(jobId, body, Instant.now().toString()));
+                } catch (IllegalArgumentException e) {
+                    return payloadTooLarge(response, e.getMessage());
+                }
+                try {
+                    getJobExecutor().submit(jobId);
+                } catch (IllegalStateException e) {
+                    // Never picked up, so poll the job as failed rather than queued forever
+                    Job refused = new Job(jobId, body, Instant.now().toString());
+                    refused.setStatus(Job.FAILED);
+                    refused.setError(e.getMessage());
+                    getJobStore().save(refused);
+                    return serviceUnavailable(response, e.getMessage());
+                }
+
+                Map<String, Object> accepted = new HashMap<>();
+                accepted.put("jobId", jobId);
+                accepted.put("status", Job.QUEUED);
+                accepted.put("statusUrl", JOBS_PATH + jobId);
+                response.setStatusCode(202);
+                response.setBody(gson.toJson(accepted));
+                return response;
+            }
+
+            // Resolved from storage or from the request body above
+            if (mapData == null) {
+                return notFound(response, "Map not found: " + request.getMapId());
+            }
+
+            // Reject a bad tile range before spending time on the optimization
+            int[] tileRange = null;
+            if (request.getTiles() != null) {
+                try {
+                    tileRange = getTileRange(mapData.getGridSize(), request.getTiles());
+                } catch (IllegalArgumentException e) {
+                    return badRequest(response, e.getMessage());
                 }
             }
 
-            // Create grid and initialize
-            Grid grid = new Grid(gridSize);
-            grid.initializeFromMaps(riskMap, animalMap, terrainMap);
+            // Streaming mode: NDJSON events per ranger, then stats; coverage limited to the tiles in view
+            if (request.isStream() || acceptsNdjson(input)) {
+                int[] view = tileRange != null ? TilePyramid.cellBounds(tileRange) : null;
+                return streamOptimization(request, mapData, view, response, context);
+            }
 
             // Run optimization
-            PatrolOptimizer optimizer = new PatrolOptimizer(grid);
-            optimizer.initializeRangers(rangerCount, maxSteps);
-            optimizer.optimize();
+            PatrolOptimizer optimizer = request.optimize(mapData);
+            Grid grid = optimizer.getGrid();
 
             // Calculate statistics
             PoachingSimulator simulator = new PoachingSimulator();
@@ -89,8 +196,24 @@ public class Handler implements RequestHandler<APIGatewayProxyRequestEvent, APIG
             // Build response
             Map<String, Object> result = new HashMap<>();
             result.put("routes", optimizer.getRoutes());
-            result.put("coverage", optimizer.getCoverage());
             result.put("stats", stats);
+            if (tileRange != null) {
+                // Only the tiles in view instead of the full-resolution matrix
+                TilePyramid pyramid = grid.getTilePyramid();
+                result.put("pyramid", pyramid.getInfo());
+                result.put("tiles", pyramid.getTiles(tileRange));
+            } else {
+                result.put("coverage", optimizer.getCoverage());
+            }
+
+            // Optionally persist to PatrolResults in the same invocation
+            if (request.isSaveResult()) {
+                List<Map<String, Object>> routes = optimizer.getRoutes();
+                Map<String, Object> saved = getMapRepository().saveResult(
+                    request.getMapId(), request.getRangerCount(), routes, stats);
+                result.put("resultId", saved.get("resultId"));
+                result.put("createdAt", saved.get("createdAt"));
+            }
 
             response.setStatusCode(200);
             response.setBody(gson.toJson(result));
@@ -108,4 +231,176 @@ public class Handler implements RequestHandler<APIGatewayProxyRequestEvent, APIG
 
         return response;
     }
+
+    /**
+     * Run a queued job; only LambdaJobExecutor's direct invocation reaches this
+     */
+    private ApiResponse runJob(String body, Context context) {
+        ApiResponse response = new ApiResponse();
+        try {
+            getJobWorker().run(gson.fromJson(body, JsonObject.class).get("jobId").getAsString());
+        } catch (Exception e) {
+            context.getLogger().log("Error: " + e.getMessage());
+
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "OPTIMIZATION_FAILED");
+            error.put("message", e.getMessage());
+
+            response.setStatusCode(500);
+            response.setBody(gson.toJson(error));
+        }
+        return response;
+    }
+
+    /**
+     * Run the optimization as a streamed body, writing RouteStreamWriter events
+     * as rangers finish. The work happens while the body is written, so the
+     * local server forwards each event as soon as it is flushed. Lambda's Java
+     * runtime cannot stream a response, so there handleRequest buffers the
+     * events and they arrive together. Failures after the first event are
+     * reported in-stream; a client that goes away ends the run at the next event.
+     * @param view Cells to report coverage for, or null for all
+     */
+    private ApiResponse streamOptimization(
+            OptimizationRequest request, MapData mapData, int[] view,
+            ApiResponse response, Context context) {
+
+        response.getHeaders().put("Content-Type", RouteStreamWriter.CONTENT_TYPE);
+        response.setStatusCode(200);
+        response.setStream(out -> {
+            Writer body = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            RouteStreamWriter stream = new RouteStreamWriter(body, view);
+
+            try {
+                PatrolOptimizer optimizer = request.optimize(mapData, stream);
+                Map<String, Object> stats = new PoachingSimulator().calculateStats(optimizer.getGrid());
+
+                String resultId = null;
+                if (request.isSaveResult()) {
+                    resultId = (String) getMapRepository().saveResult(
+                        request.getMapId(), request.getRangerCount(), optimizer.getRoutes(), stats)
+                        .get("resultId");
+                }
+                stream.writeStats(stats, resultId);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                context.getLogger().log("Error: " + e.getMessage());
+                stream.writeError(e.getMessage());
+            }
+        });
+        return response;
+    }
+
+    /**
+     * Validate the requested inclusive tile range at one zoom level, clipped to the pyramid
+     * @return {z, x0, y0, x1, y1}
+     * @throws IllegalArgumentException if the range is malformed, outside the pyramid or too large
+     */
+    private int[] getTileRange(int gridSize, JsonObject range) {
+        if (!range.has("z")) {
+            throw new IllegalArgumentException("tiles.z is required");
+        }
+        try {
+            int z = range.get("z").getAsInt();
+            int x0 = range.has("x0") ? range.get("x0").getAsInt() : 0;
+            int y0 = range.has("y0") ? range.get("y0").getAsInt() : 0;
+            int x1 = range.has("x1") ? range.get("x1").getAsInt() : x0;
+            int y1 = range.has("y1") ? range.get("y1").getAsInt() : y0;
+            return TilePyramid.clipRange(gridSize, z, x0, y0, x1, y1);
+        } catch (NumberFormatException | UnsupportedOperationException | IllegalStateException e) {
+            throw new IllegalArgumentException("Tile coordinates must be integers");
+        }
+    }
+
+    private boolean acceptsNdjson(ApiRequest input) {
+        String accept = input.getHeader("Accept");
+        return accept != null && accept.contains(RouteStreamWriter.CONTENT_TYPE);
+    }
+
+    private ApiResponse badRequest(ApiResponse response, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "BAD_REQUEST");
+        error.put("message", message);
+        response.setStatusCode(400);
+        response.setBody(gson.toJson(error));
+        return response;
+    }
+
+    private ApiResponse methodNotAllowed(ApiResponse response, String allowed) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "METHOD_NOT_ALLOWED");
+        error.put("message", "Allowed methods: " + allowed);
+        response.getHeaders().put("Allow", allowed);
+        response.setStatusCode(405);
+        response.setBody(gson.toJson(error));
+        return response;
+    }
+
+    private ApiResponse payloadTooLarge(ApiResponse response, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "PAYLOAD_TOO_LARGE");
+        error.put("message", message);
+        response.setStatusCode(413);
+        response.setBody(gson.toJson(error));
+        return response;
+    }
+
+    private ApiResponse serviceUnavailable(ApiResponse response, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "OVERLOADED");
+        error.put("message", message);
+        response.getHeaders().put("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+        response.setStatusCode(503);
+        response.setBody(gson.toJson(error));
+        return response;
+    }
+
+    private ApiResponse notFound(ApiResponse response, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "NOT_FOUND");
+        error.put("message", message);
+        response.setStatusCode(404);
+        response.setBody(gson.toJson(error));
+        return response;
+    }
+
+    private synchronized MapRepository getMapRepository() {
+        if (mapRepository == null) {
+            mapRepository = new MapRepository();
+        }
+        return mapRepository;
+    }
+
+    /**
+     * JOB_EXECUTOR=local keeps jobs in-process (in-memory store, local queue);
+     * otherwise jobs are stored in DynamoDB and run by re-invoking this function.
+     */
+    private static boolean useLocalJobs() {
+        return "local".equals(System.getenv("JOB_EXECUTOR"));
+    }
+
+    private synchronized JobStore getJobStore() {
+        if (jobStore == null) {
+            jobStore = useLocalJobs() ? new InMemoryJobStore() : new DynamoJobStore();
+        }
+        return jobStore;
+    }
+
+    private synchronized JobWorker getJobWorker() {
+        if (jobWorker == null) {
+            jobWorker = new JobWorker(getJobStore(), this::getMapRepository);
+        }
+        return jobWorker;
+    }
+
+    private synchronized JobExecutor getJobExecutor() {
+        if (jobExecutor == null) {
+            jobExecutor = useLocalJobs()
+                ? new LocalJobExecutor(getJobWorker(), Runtime.getRuntime().availableProcessors(),
+                    LOCAL_JOB_QUEUE)
+                : new LambdaJobExecutor();
+        }
+        return jobExecutor;
+    }
 }
@@ -0,0 +1,218 @@
+package antipoaching;
+
+import antipoaching.algorithm.GreedyStrategy;
+import antipoaching.algorithm.HotspotGraph;
+import antipoaching.algorithm.HotspotStrategy;
+import antipoaching.algorithm.MultiStartOptimizer;
+import antipoaching.algorithm.PatrolOptimizer;
+import antipoaching.algorithm.PatrolStrategy;
+import antipoaching.algorithm.SectorOptimizer;
+import antipoaching.model.Grid;
+import antipoaching.model.MapData;
+import antipoaching.model.Ranger;
+import antipoaching.storage.MapRepository;
+
+import com.google.gson.JsonObject;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Parameters of a /api/optimize request, shared by the synchronous path and the job worker
+ */
+public class OptimizationRequest {
+
+    private final JsonObject body;
+    private final int rangerCount;
+    private final int maxSteps;
+    private final String mapId;
+    private final boolean saveResult;
+    private final String strategy;
+    private final int multiStart;
+    private final boolean sectors;
+    private final long timeBudgetMs;
+    private final long seed;
+    private final boolean async;
+    private final boolean stream;
+    private final JsonObject tiles;
+
+    private OptimizationRequest(JsonObject body) {
+        this.body = body;
+        this.rangerCount = body.get("rangerCount").getAsInt();
+        this.maxSteps = body.get("maxSteps").getAsInt();
+        this.mapId = body.has("mapId") ? body.get("mapId").getAsString() : null;
+        this.saveResult = body.has("saveResult") && body.get("saveResult").getAsBoolean();
+        this.strategy = body.has("strategy") ? body.get("strategy").getAsString() : "greedy";
+        this.multiStart = body.has("multiStart") ? body.get("multiStart").getAsInt() : 1;
+        this.sectors = body.has("sectors") && body.get("sectors").getAsBoolean();
+        this.timeBudgetMs = body.has("timeBudgetMs") ? body.get("timeBudgetMs").getAsLong() : 10_000L;
+        this.seed = body.has("seed") ? body.get("seed").getAsLong() : 42L;
+        this.async = body.has("async") && body.get("async").getAsBoolean();
+        this.stream = body.has("stream") && body.get("stream").getAsBoolean();
+        this.tiles = body.has("tiles") ? body.getAsJsonObject("tiles") : null;
+    }
+
+    /**
+     * Read and check the request parameters
+     * @param body Parsed request body, or null if there was none
+     * @throws IllegalArgumentException if a required field is missing, a field has
+     *         the wrong type or a value is out of range
+     */
+    public static OptimizationRequest parse(JsonObject body) {
+        if (body == null) {
+            throw new IllegalArgumentException("Request body must be a JSON object");
+        }
+        for (String field : new String[]{"rangerCount", "maxSteps"}) {
+            if (!body.has(field) || body.get(field).isJsonNull()) {
+                throw new IllegalArgumentException(field + " is required");
+            }
+        }
+        if (!body.has("mapId")) {
+            for (String field : new String[]{"gridSize", "riskMap", "animalMap", "terrainMap"}) {
+                if (!body.has(field)) {
+                    throw new IllegalArgumentException(field + " is required without a mapId");
+                }
+            }
+        }
+
+        OptimizationRequest request;
+        try {
+            request = new OptimizationRequest(body);
+        } catch (ClassCastException | IllegalStateException | UnsupportedOperationException e) {
+            // Gson's accessors on a value of the wrong shape
+            throw new IllegalArgumentException("Invalid request field: " + e.getMessage());
+        }
+        if (request.rangerCount <= 0) {
+            throw new IllegalArgumentException("rangerCount must be positive");
+        }
+        if (request.maxSteps <= 0) {
+            throw new IllegalArgumentException("maxSteps must be positive");
+        }
+        if (request.multiStart < 1 || request.multiStart > MultiStartOptimizer.getMaxVariants()) {
+            throw new IllegalArgumentException(
+                "multiStart must be between 1 and " + MultiStartOptimizer.getMaxVariants());
+        }
+        if (request.timeBudgetMs <= 0 || request.timeBudgetMs > MultiStartOptimizer.MAX_TIME_BUDGET_MS) {
+            throw new IllegalArgumentException(
+                "timeBudgetMs must be between 1 and " + MultiStartOptimizer.MAX_TIME_BUDGET_MS);
+        }
+        return request;
+    }
+
+    /**
+     * Resolve the map, either from storage by mapId or from the layers in the body
+     * @param repository Supplies the map repository, only called when a mapId is given
+     * @return Parsed map, or null if the mapId does not exist
+     * @throws IllegalArgumentException if the layers in the body are malformed
+     */
+    public MapData resolveMap(Supplier<MapRepository> repository) {
+        if (mapId != null) {
+            return repository.get().loadMap(mapId);
+        }
+        try {
+            int gridSize = body.get("gridSize").getAsInt();
+            if (gridSize <= 0) {
+                throw new IllegalArgumentException("gridSize must be positive");
+            }
+            return MapData.fromJson(
+                gridSize,
+                body.getAsJsonArray("riskMap"),
+                body.getAsJsonArray("animalMap"),
+                body.getAsJsonArray("terrainMap"));
+        } catch (ClassCastException | IllegalStateException | UnsupportedOperationException
+                 | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(
+                "Map layers must be gridSize x gridSize nested arrays of values: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create the requested strategy for a grid
+     * @param random Seeded tie-break source, or null for deterministic runs
+     */
+    public PatrolStrategy createStrategy(Grid grid, Random random) {
+        if ("hotspot".equals(strategy)) {
+            return new HotspotStrategy(grid, random);
+        }
+        return new GreedyStrategy(random);
+    }
+
+    /**
+     * Strategy factory for grids that all carry the map's layers: the hotspot
+     * graph depends on layers alone, so it is built once and shared
+     */
+    private BiFunction<Grid, Random, PatrolStrategy> sharedStrategyFactory(MapData mapData) {
+        if (!"hotspot".equals(strategy)) {
+            return this::createStrategy;
+        }
+        HotspotGraph graph = new HotspotGraph(mapData.toGrid());
+        return (grid, random) -> new HotspotStrategy(graph, random);
+    }
+
+    /**
+     * Build a single deterministic optimizer with rangers placed, ready to optimize()
+     */
+    public PatrolOptimizer createOptimizer(MapData mapData) {
+        Grid grid = mapData.toGrid();
+        PatrolOptimizer optimizer = new PatrolOptimizer(grid, createStrategy(grid, null));
+        optimizer.initializeRangers(rangerCount, maxSteps);
+        return optimizer;
+    }
+
+    /**
+     * Run the optimization to completion, in multi-start mode if requested
+     */
+    public PatrolOptimizer optimize(MapData mapData) {
+        return optimize(mapData, null);
+    }
+
+    /**
+     * Run the optimization to completion, reporting rangers as they finish.
+     * In multi-start mode the winning plan is only known at the end, so its
+     * routes are replayed onto a fresh grid once all variants are done and
+     * reported one by one with the coverage they add up to. Sector mode
+     * plans each ranger in its own sector in parallel and reports the same
+     * way; it takes precedence over multiStart.
+     * @param listener Progress listener, or null
+     */
+    public PatrolOptimizer optimize(MapData mapData, PatrolOptimizer.ProgressListener listener) {
+        if (sectors) {
+            return new SectorOptimizer(mapData, this::createStrategy)
+                .optimize(rangerCount, maxSteps, listener);
+        }
+        if (multiStart > 1) {
+            // Perturbed variants in parallel, each on its own grid; keep the best plan
+            PatrolOptimizer best = new MultiStartOptimizer(
+                    mapData, sharedStrategyFactory(mapData), multiStart, timeBudgetMs, seed)
+                .optimize(rangerCount, maxSteps);
+            if (listener != null) {
+                PatrolOptimizer replay = new PatrolOptimizer(mapData.toGrid(), new GreedyStrategy());
+                replay.initializeRangers(rangerCount, maxSteps);
+                List<Ranger> rangers = best.getRangers();
+                for (int i = 0; i < rangers.size(); i++) {
+                    replay.restoreRoute(i, rangers.get(i).getPath());
+                    listener.onRangerComplete(rangers.get(i), i + 1, rangers.size(), replay.getGrid());
+                }
+            }
+            return best;
+        }
+        PatrolOptimizer optimizer = createOptimizer(mapData);
+        optimizer.optimize(listener);
+        return optimizer;
+    }
+
+    public JsonObject getBody() { return body; }
+    public int getRangerCount() { return rangerCount; }
+    public int getMaxSteps() { return maxSteps; }
+    public String getMapId() { return mapId; }
+    public boolean isSaveResult() { return saveResult; }
+    public boolean isAsync() { return async; }
+    public boolean isStream() { return stream; }
+
+    /**
+     * Tile range in view, {"z", "x0", "y0", "x1", "y1"} (inclusive), or null for the full matrix
+     */
+    public JsonObject getTiles() { return tiles; }
+}
@@ -0,0 +1,119 @@
+package antipoaching;
+
+import antipoaching.algorithm.PatrolOptimizer;
+import antipoaching.model.CoverageStats;
+import antipoaching.model.Grid;
+import antipoaching.model.Ranger;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes optimization progress as newline-delimited JSON, one event per line,
+ * flushing after each so a streaming transport can forward it immediately.
+ *
+ * Events, in order:
+ *   {"type":"route","rangerId":..,"path":[[r,c],..],"completed":..,"total":..,
+ *    "progress":{"coveredCells":..,"coveredHighRiskCells":..,"riskReduction":..}}
+ *   {"type":"coverage","cells":[[r,c,added],..]}    visits that route added per cell,
+ *                                                   only cells in the requested tiles if any
+ *   {"type":"stats","stats":{..}}                   once, at the end
+ *
+ * Only per-ranger deltas are held in memory; the full coverage matrix is never
+ * built. Behind Lambda the events are buffered into one response, since the
+ * Java runtime cannot stream; the local server sends them as they are flushed.
+ */
+public class RouteStreamWriter implements PatrolOptimizer.ProgressListener {
+
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private final Writer out;
+    private final int[] view;     // Inclusive {row0, col0, row1, col1} of cells to report, or null for all
+    private final Gson gson = new Gson();
+
+    public RouteStreamWriter(Writer out) {
+        this(out, null);
+    }
+
+    /**
+     * @param view Cells coverage events are limited to, as from TilePyramid.cellBounds, or null for all
+     */
+    public RouteStreamWriter(Writer out, int[] view) {
+        this.out = out;
+        this.view = view;
+    }
+
+    @Override
+    public void onRangerComplete(Ranger ranger, int completed, int total, Grid grid) {
+        Map<String, Object> route = PatrolOptimizer.getRoute(ranger);
+        route.put("type", "route");
+        route.put("completed", completed);
+        route.put("total", total);
+
+        // Running totals so far, read from the grid in O(1)
+        CoverageStats coverageStats = grid.getCoverageStats();
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("coveredCells", coverageStats.getCoveredCells());
+        progress.put("coveredHighRiskCells", coverageStats.getCoveredHighRiskCells());
+        progress.put("riskReduction", Math.round(coverageStats.getRiskReduction() * 1000.0) / 10.0);
+        route.put("progress", progress);
+        writeEvent(route);
+
+        // Coverage delta: visits this route added to each distinct cell, in path order
+        Map<Long, int[]> added = new LinkedHashMap<>();
+        for (int[] pos : ranger.getPath()) {
+            if (view != null && (pos[0] < view[0] || pos[1] < view[1] || pos[0] > view[2] || pos[1] > view[3])) {
+                continue;
+            }
+            long key = ((long) pos[0] << 32) | pos[1];
+            added.computeIfAbsent(key, k -> new int[]{pos[0], pos[1], 0})[2]++;
+        }
+        List<int[]> cells = new ArrayList<>(added.values());
+        Map<String, Object> coverage = new HashMap<>();
+        coverage.put("type", "coverage");
+        coverage.put("cells", cells);
+        writeEvent(coverage);
+    }
+
+    /**
+     * Write the final statistics event
+     */
+    public void writeStats(Map<String, Object> stats, String resultId) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", "stats");
+        event.put("stats", stats);
+        if (resultId != null) {
+            event.put("resultId", resultId);
+        }
+        writeEvent(event);
+    }
+
+    /**
+     * Write an error event; the stream ends after it
+     */
+    public void writeError(String message) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", "error");
+        event.put("error", "OPTIMIZATION_FAILED");
+        event.put("message", message);
+        writeEvent(event);
+    }
+
+    private void writeEvent(Map<String, Object> event) {
+        try {
+            out.write(gson.toJson(event));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
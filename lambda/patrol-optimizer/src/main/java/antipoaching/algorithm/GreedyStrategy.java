@@ -4,13 +4,28 @@ import antipoaching.model.Cell;
 import antipoaching.model.Grid;
 import antipoaching.model.Ranger;
 
-import java.util.List;
+import java.util.Random;
 
 /**
  * Greedy strategy for patrol route optimization
  * At each step, choose the neighboring cell with the highest score
  */
-public class GreedyStrategy {
+public class GreedyStrategy implements PatrolStrategy {
+
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    private final Random tieBreaker;  // null keeps the first best neighbor
+
+    public GreedyStrategy() {
+        this(null);
+    }
+
+    /**
+     * @param tieBreaker Seeded source used to pick uniformly among equally scored neighbors
+     */
+    public GreedyStrategy(Random tieBreaker) {
+        this.tieBreaker = tieBreaker;
+    }
 
     /**
      * Execute one step for a ranger using greedy selection
@@ -23,32 +38,40 @@ public class GreedyStrategy {
             return false;
         }
 
-        List<Cell> neighbors = grid.getNeighbors(ranger.getCurrentRow(), ranger.getCurrentCol());
-
-        if (neighbors.isEmpty()) {
-            return false;
-        }
-
-        // Find the best neighbor based on score
-        Cell bestCell = null;
+        // Score neighbors in place so untouched cells of a sparse grid are never created
+        int row = ranger.getCurrentRow();
+        int col = ranger.getCurrentCol();
+        int bestRow = -1;
+        int bestCol = -1;
         double bestScore = Double.NEGATIVE_INFINITY;
+        int ties = 0;
+
+        for (int[] dir : DIRECTIONS) {
+            int r = row + dir[0];
+            int c = col + dir[1];
+            if (!grid.isValidPosition(r, c) || !grid.isPassable(r, c)) continue;
 
-        for (Cell neighbor : neighbors) {
-            double score = neighbor.calculateScore();
+            double score = grid.getScore(r, c);
             if (score > bestScore) {
                 bestScore = score;
-                bestCell = neighbor;
+                bestRow = r;
+                bestCol = c;
+                ties = 1;
+            } else if (score == bestScore && tieBreaker != null && tieBreaker.nextInt(++ties) == 0) {
+                // Reservoir sampling keeps each tied neighbor equally likely
+                bestRow = r;
+                bestCol = c;
             }
         }
 
-        if (bestCell != null) {
-            // Move ranger and mark cell as visited
-            ranger.moveTo(bestCell.getRow(), bestCell.getCol());
-            bestCell.visit();
-            return true;
+        if (bestRow < 0) {
+            return false;
         }
 
-        return false;
+        // Move ranger and mark cell as visited
+        ranger.moveTo(bestRow, bestCol);
+        grid.getCell(bestRow, bestCol).visit();
+        return true;
     }
 
     /**
@@ -56,6 +79,7 @@ public class GreedyStrategy {
      * @param ranger The ranger to move
      * @param grid The patrol grid
      */
+    @Override
     public void executeAllSteps(Ranger ranger, Grid grid) {
         // Mark starting cell as visited
         Cell startCell = grid.getCell(ranger.getCurrentRow(), ranger.getCurrentCol());
@@ -0,0 +1,240 @@
+package antipoaching.algorithm;
+
+import antipoaching.model.Cell;
+import antipoaching.model.Grid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Contracts a grid into a small weighted graph of high-value hotspots.
+ *
+ * A hotspot is a 4-connected cluster of passable cells whose base score
+ * marks them as high risk or holding animals. Each cluster is represented
+ * by its best cell and weighted by the summed base score of its members.
+ * One BFS over passable cells per representative precomputes the pairwise
+ * walking distances, so route planning only touches the small graph. Each
+ * BFS tree is kept as a 2-bit step toward its root per cell, so any leg
+ * ending at a hotspot, from another hotspot or a ranger's start, is read
+ * off the tree without searching the grid again.
+ *
+ * Only layers, never visits, go into the graph, and it is read-only once
+ * built, so one graph can be shared by every grid built from the same map,
+ * across threads.
+ */
+public class HotspotGraph {
+
+    static final double HOTSPOT_MIN_SCORE = 1.4;  // risk >= 0.7, or an animal on risk >= 0.2
+    static final int MAX_HOTSPOTS = 128;
+
+    // Opposite directions differ in the lowest bit
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    private final int size;
+    private final int[] hotspotCells;   // Cell index of each hotspot representative
+    private final double[] values;      // Summed base score of each cluster
+    private final int[][] distances;    // Steps between representatives, -1 if unreachable
+    private final int[] components;     // Connected region of each passable cell, -1 if impassable
+    private final byte[][] towardRoot;  // Per hotspot, 2 bits per cell: direction of its BFS parent
+
+    public HotspotGraph(Grid grid) {
+        this.size = grid.getSize();
+
+        List<Cluster> clusters = findClusters(grid);
+        clusters.sort((a, b) -> Double.compare(b.value, a.value));
+
+        int count = Math.min(MAX_HOTSPOTS, clusters.size());
+        this.hotspotCells = new int[count];
+        this.values = new double[count];
+        for (int i = 0; i < count; i++) {
+            hotspotCells[i] = clusters.get(i).cell;
+            values[i] = clusters.get(i).value;
+        }
+
+        this.components = labelComponents(grid);
+
+        // One BFS per hotspot gives its distances to all others and its path tree
+        this.distances = new int[count][count];
+        this.towardRoot = new byte[count][(size * size + 3) / 4];
+        int[] dist = new int[size * size];
+        int[] queue = new int[size * size];
+        for (int i = 0; i < count; i++) {
+            Arrays.fill(dist, -1);
+            bfs(grid, hotspotCells[i], dist, queue, towardRoot[i]);
+            for (int j = 0; j < count; j++) {
+                distances[i][j] = dist[hotspotCells[j]];
+            }
+        }
+    }
+
+    private static class Cluster {
+        final int cell;       // Index of the best cell in the cluster
+        final double value;   // Summed base score
+
+        Cluster(int cell, double value) {
+            this.cell = cell;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Flood-fill high-value passable cells into clusters
+     */
+    private List<Cluster> findClusters(Grid grid) {
+        boolean[] seen = new boolean[size * size];
+        int[] stack = new int[size * size];
+        List<Cluster> clusters = new ArrayList<>();
+
+        for (int start = 0; start < size * size; start++) {
+            if (seen[start] || !isHighValue(grid.peekCell(start / size, start % size))) continue;
+
+            int top = 0;
+            stack[top++] = start;
+            seen[start] = true;
+            int best = start;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            double value = 0;
+
+            while (top > 0) {
+                int index = stack[--top];
+                Cell cell = grid.peekCell(index / size, index % size);
+                double score = cell.getBaseScore();
+                value += score;
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = index;
+                }
+
+                for (int[] dir : DIRECTIONS) {
+                    int r = index / size + dir[0];
+                    int c = index % size + dir[1];
+                    if (!grid.isValidPosition(r, c)) continue;
+                    int next = r * size + c;
+                    if (!seen[next] && isHighValue(grid.peekCell(r, c))) {
+                        seen[next] = true;
+                        stack[top++] = next;
+                    }
+                }
+            }
+
+            clusters.add(new Cluster(best, value));
+        }
+        return clusters;
+    }
+
+    private static boolean isHighValue(Cell cell) {
+        // Cells a sparse grid has not stored score 0
+        return cell != null && cell.isPassable() && cell.getBaseScore() >= HOTSPOT_MIN_SCORE;
+    }
+
+    /**
+     * Label each passable cell with its 4-connected region, so reachability is one comparison
+     */
+    private int[] labelComponents(Grid grid) {
+        int[] labels = new int[size * size];
+        Arrays.fill(labels, -1);
+        int[] queue = new int[size * size];
+        int next = 0;
+        for (int start = 0; start < size * size; start++) {
+            if (labels[start] >= 0 || !grid.isPassable(start / size, start % size)) continue;
+            int label = next++;
+            labels[start] = label;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            while (head < tail) {
+                int index = queue[head++];
+                for (int[] dir : DIRECTIONS) {
+                    int r = index / size + dir[0];
+                    int c = index % size + dir[1];
+                    if (!grid.isValidPosition(r, c) || !grid.isPassable(r, c)) continue;
+                    int neighbor = r * size + c;
+                    if (labels[neighbor] < 0) {
+                        labels[neighbor] = label;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Breadth-first search over passable cells, recording each reached cell's
+     * direction back toward the source
+     */
+    private void bfs(Grid grid, int source, int[] dist, int[] queue, byte[] tree) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        dist[source] = 0;
+
+        while (head < tail) {
+            int index = queue[head++];
+            int row = index / size;
+            int col = index % size;
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int r = row + DIRECTIONS[d][0];
+                int c = col + DIRECTIONS[d][1];
+                if (!grid.isValidPosition(r, c) || !grid.isPassable(r, c)) continue;
+                int next = r * size + c;
+                if (dist[next] < 0) {
+                    dist[next] = dist[index] + 1;
+                    tree[next >> 2] |= (byte) ((d ^ 1) << ((next & 3) << 1));
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * The next cell on a shortest walk from a cell to a hotspot
+     */
+    private int stepToward(int hotspot, int index) {
+        int d = (towardRoot[hotspot][index >> 2] >> ((index & 3) << 1)) & 3;
+        return (index / size + DIRECTIONS[d][0]) * size + index % size + DIRECTIONS[d][1];
+    }
+
+    /**
+     * Whether a cell can walk to a hotspot
+     */
+    boolean canReach(int source, int hotspot) {
+        return components[source] >= 0 && components[source] == components[hotspotCells[hotspot]];
+    }
+
+    /**
+     * Shortest walking distance from a cell to a hotspot, read off the hotspot's tree
+     * @return Steps, or -1 if unreachable
+     */
+    int distanceTo(int source, int hotspot) {
+        if (!canReach(source, hotspot)) return -1;
+        int steps = 0;
+        for (int index = source, target = hotspotCells[hotspot]; index != target; index = stepToward(hotspot, index)) {
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Expand a shortest walk from a cell to a hotspot into the cells to step through
+     * @return Cell indices after source up to and including the hotspot, or null if unreachable
+     */
+    int[] pathTo(int source, int hotspot) {
+        int steps = distanceTo(source, hotspot);
+        if (steps < 0) return null;
+
+        int[] path = new int[steps];
+        for (int i = 0, index = source; i < steps; i++) {
+            index = stepToward(hotspot, index);
+            path[i] = index;
+        }
+        return path;
+    }
+
+    public int getHotspotCount() { return hotspotCells.length; }
+    public int getHotspotCell(int hotspot) { return hotspotCells[hotspot]; }
+    public double getValue(int hotspot) { return values[hotspot]; }
+    public int getDistance(int from, int to) { return distances[from][to]; }
+    public int getGridSize() { return size; }
+}
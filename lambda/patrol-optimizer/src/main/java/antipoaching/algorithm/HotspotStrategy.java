@@ -0,0 +1,115 @@
+package antipoaching.algorithm;
+
+import antipoaching.model.Cell;
+import antipoaching.model.Grid;
+import antipoaching.model.Ranger;
+
+import java.util.Random;
+
+/**
+ * Long-range strategy that plans on a contracted hotspot graph.
+ *
+ * Each ranger repeatedly heads for the unvisited hotspot with the best
+ * value per step of travel that still fits its remaining budget, walking
+ * the shortest cell path there. A hotspot any ranger has stepped on is
+ * taken, so rangers spread out; since that is read from the grid's visit
+ * counts, routes restored onto the grid (e.g. a resumed job's checkpoint)
+ * take their hotspots too. Once no hotspot is reachable, the remaining
+ * steps fall back to the local greedy strategy.
+ */
+public class HotspotStrategy implements PatrolStrategy {
+
+    private final HotspotGraph graph;
+    private final GreedyStrategy greedy;
+
+    public HotspotStrategy(Grid grid) {
+        this(grid, null);
+    }
+
+    /**
+     * @param tieBreaker Seeded source for the greedy fallback's tie-breaks, or null
+     */
+    public HotspotStrategy(Grid grid, Random tieBreaker) {
+        this(new HotspotGraph(grid), tieBreaker);
+    }
+
+    /**
+     * Plan on a graph already built from the same map layers
+     * @param tieBreaker Seeded source for the greedy fallback's tie-breaks, or null
+     */
+    public HotspotStrategy(HotspotGraph graph, Random tieBreaker) {
+        this.graph = graph;
+        this.greedy = new GreedyStrategy(tieBreaker);
+    }
+
+    @Override
+    public void executeAllSteps(Ranger ranger, Grid grid) {
+        int size = graph.getGridSize();
+        Cell startCell = grid.getCell(ranger.getCurrentRow(), ranger.getCurrentCol());
+        if (startCell == null) {
+            return;
+        }
+        startCell.visit();
+
+        int current = ranger.getCurrentRow() * size + ranger.getCurrentCol();
+        int[] distFromStart = new int[graph.getHotspotCount()];
+        for (int h = 0; h < distFromStart.length; h++) {
+            distFromStart[h] = isTaken(grid, h) ? -1 : graph.distanceTo(current, h);
+        }
+        int at = -1;  // Hotspot the ranger is standing on, -1 before the first
+
+        while (ranger.canMove()) {
+            int next = pickNextHotspot(grid, at, distFromStart, ranger.getRemainingSteps());
+            if (next < 0) break;
+
+            int target = graph.getHotspotCell(next);
+            int[] path = graph.pathTo(current, next);
+
+            for (int index : path) {
+                ranger.moveTo(index / size, index % size);
+                grid.getCell(index / size, index % size).visit();
+            }
+            current = target;
+            at = next;
+        }
+
+        // Spend whatever budget is left on local greedy moves
+        while (greedy.executeStep(ranger, grid)) {
+            // Keep moving
+        }
+    }
+
+    /**
+     * Whether some ranger has already stepped on a hotspot
+     */
+    private boolean isTaken(Grid grid, int hotspot) {
+        int cell = graph.getHotspotCell(hotspot);
+        Cell visited = grid.peekCell(cell / graph.getGridSize(), cell % graph.getGridSize());
+        return visited != null && visited.getVisitCount() > 0;
+    }
+
+    /**
+     * Choose the untaken hotspot with the highest value per step that fits the budget
+     * @return Hotspot index, or -1 if none is reachable
+     */
+    private int pickNextHotspot(Grid grid, int at, int[] distFromStart, int remainingSteps) {
+        int best = -1;
+        double bestGain = 0;
+
+        for (int h = 0; h < graph.getHotspotCount(); h++) {
+            if (isTaken(grid, h)) continue;
+
+            int distance = at < 0
+                ? distFromStart[h]
+                : graph.getDistance(at, h);
+            if (distance < 0 || distance > remainingSteps) continue;
+
+            double gain = graph.getValue(h) / (distance + 1);
+            if (gain > bestGain) {
+                bestGain = gain;
+                best = h;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,166 @@
+package antipoaching.algorithm;
+
+import antipoaching.model.Grid;
+import antipoaching.model.MapData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+
+/**
+ * Runs several randomized variants of the optimizer in parallel and keeps the best plan.
+ *
+ * Every variant gets its own Grid built from the shared MapData, so no visit
+ * state is shared. Variant 0 is the unperturbed deterministic run; the others
+ * jitter start positions and break score ties with a per-variant seeded Random.
+ * The plan with the highest risk reduction wins, ties going to the lower variant.
+ *
+ * The time budget is checked before each ranger is planned: a perturbed
+ * variant that has not started by the deadline is skipped, and one still
+ * running is dropped at its next ranger, since a partial plan cannot be
+ * compared. A ranger being planned is never interrupted, so the budget can
+ * be overrun by one ranger's planning time. Variant 0 always completes.
+ *
+ * Only the best plan so far is kept: each variant is compared as it finishes
+ * and a losing grid is dropped at once, so at most one grid per pool thread
+ * plus the current best is alive. K and the budget are bounded (see
+ * MAX_TIME_BUDGET_MS and getMaxVariants) so one request cannot queue
+ * unbounded work or outlive the function timeout.
+ */
+public class MultiStartOptimizer {
+
+    /** Upper bound on timeBudgetMillis, leaving the 30 s function timeout room for the last ranger and the response */
+    public static final long MAX_TIME_BUDGET_MS = 20_000L;
+
+    private static final int VARIANTS_PER_THREAD = 4;
+
+    private static final ForkJoinPool POOL =
+        new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+    private final MapData mapData;
+    private final BiFunction<Grid, Random, PatrolStrategy> strategyFactory;
+    private final int variants;
+    private final long timeBudgetMillis;
+    private final long seed;
+
+    /**
+     * @param mapData Parsed map layers to build each variant's grid from
+     * @param strategyFactory Creates a strategy for a variant's grid and tie-break source
+     * @param variants Number of variants K to run, clamped to 1 - getMaxVariants()
+     * @param timeBudgetMillis Budget after which perturbed variants stop at their next ranger,
+     *        clamped to 0 - MAX_TIME_BUDGET_MS
+     * @param seed Base seed; the same seed reproduces the same plans
+     */
+    public MultiStartOptimizer(MapData mapData, BiFunction<Grid, Random, PatrolStrategy> strategyFactory,
+                               int variants, long timeBudgetMillis, long seed) {
+        this.mapData = mapData;
+        this.strategyFactory = strategyFactory;
+        this.variants = Math.max(1, Math.min(getMaxVariants(), variants));
+        this.timeBudgetMillis = Math.max(0, Math.min(MAX_TIME_BUDGET_MS, timeBudgetMillis));
+        this.seed = seed;
+    }
+
+    /**
+     * Largest K worth running: a few rounds of the pool's threads
+     */
+    public static int getMaxVariants() {
+        return VARIANTS_PER_THREAD * POOL.getParallelism();
+    }
+
+    /**
+     * Run all variants and return the optimizer holding the best plan
+     * @param rangerCount Number of rangers
+     * @param maxSteps Maximum steps per ranger
+     */
+    public PatrolOptimizer optimize(int rangerCount, int maxSteps) {
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+
+        Best best = new Best();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < variants; i++) {
+            final int index = i;
+            tasks.add(POOL.submit(() -> best.offer(runVariant(index, rangerCount, maxSteps, deadline))));
+        }
+
+        for (ForkJoinTask<?> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Optimization variant failed", e.getCause());
+            }
+        }
+
+        // Variant 0 always runs, so a plan exists unless the caller was interrupted
+        Variant winner = best.get();
+        if (winner == null) {
+            throw new IllegalStateException("No optimization variant completed");
+        }
+        return winner.optimizer;
+    }
+
+    /**
+     * Plan one variant
+     * @return The variant, or null if it ran past the deadline
+     */
+    private Variant runVariant(int index, int rangerCount, int maxSteps, long deadline) {
+        if (index > 0 && System.nanoTime() > deadline) {
+            return null;
+        }
+
+        Random random = index == 0 ? null : new Random(seed + index * 0x9E3779B97F4A7C15L);
+        Grid grid = mapData.toGrid();
+        PatrolOptimizer optimizer = new PatrolOptimizer(grid, strategyFactory.apply(grid, random));
+        optimizer.initializeRangers(rangerCount, maxSteps, random);
+        for (int i = 0; i < optimizer.getRangers().size(); i++) {
+            if (index > 0 && System.nanoTime() > deadline) {
+                return null;
+            }
+            optimizer.optimizeRanger(i);
+        }
+
+        double reduction = grid.getCoverageStats().getRiskReduction();
+
+        return new Variant(index, optimizer, reduction);
+    }
+
+    private static class Variant {
+        final int index;
+        final PatrolOptimizer optimizer;
+        final double riskReduction;
+
+        Variant(int index, PatrolOptimizer optimizer, double riskReduction) {
+            this.index = index;
+            this.optimizer = optimizer;
+            this.riskReduction = riskReduction;
+        }
+
+        boolean beats(Variant other) {
+            return riskReduction > other.riskReduction
+                || (riskReduction == other.riskReduction && index < other.index);
+        }
+    }
+
+    /**
+     * The best variant finished so far; losers are not referenced once compared
+     */
+    private static class Best {
+        private Variant variant;
+
+        synchronized void offer(Variant candidate) {
+            if (candidate != null && (variant == null || candidate.beats(variant))) {
+                variant = candidate;
+            }
+        }
+
+        synchronized Variant get() {
+            return variant;
+        }
+    }
+}
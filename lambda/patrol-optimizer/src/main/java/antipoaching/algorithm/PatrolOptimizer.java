@@ -13,12 +13,16 @@ public class PatrolOptimizer {
 
     private Grid grid;
     private List<Ranger> rangers;
-    private GreedyStrategy strategy;
+    private PatrolStrategy strategy;
 
     public PatrolOptimizer(Grid grid) {
+        this(grid, new GreedyStrategy());
+    }
+
+    public PatrolOptimizer(Grid grid, PatrolStrategy strategy) {
         this.grid = grid;
         this.rangers = new ArrayList<>();
-        this.strategy = new GreedyStrategy();
+        this.strategy = strategy;
     }
 
     /**
@@ -27,11 +31,24 @@ public class PatrolOptimizer {
      * @param maxSteps Maximum steps per ranger
      */
     public void initializeRangers(int rangerCount, int maxSteps) {
+        initializeRangers(rangerCount, maxSteps, null);
+    }
+
+    /**
+     * Initialize rangers, optionally jittering each strategic start position
+     * @param rangerCount Number of rangers
+     * @param maxSteps Maximum steps per ranger
+     * @param random Seeded source for perturbing start positions, or null for none
+     */
+    public void initializeRangers(int rangerCount, int maxSteps, Random random) {
         rangers.clear();
         List<Cell> startPositions = findStartingPositions(rangerCount);
 
         for (int i = 0; i < rangerCount; i++) {
             Cell start = startPositions.get(i % startPositions.size());
+            if (random != null) {
+                start = jitter(start, random);
+            }
             Ranger ranger = new Ranger(i, start.getRow(), start.getCol(), maxSteps);
             rangers.add(ranger);
         }
@@ -42,10 +59,8 @@ public class PatrolOptimizer {
      * Strategy: spread rangers across high-risk areas
      */
     private List<Cell> findStartingPositions(int count) {
-        List<Cell> passableCells = grid.getPassableCells();
-
-        // Sort by risk level (highest first)
-        passableCells.sort((a, b) -> Double.compare(b.getRiskLevel(), a.getRiskLevel()));
+        // Highest risk first; corners below take at most four slots
+        List<Cell> passableCells = grid.getHighestRiskCells(count + 4);
 
         List<Cell> positions = new ArrayList<>();
         int gridSize = grid.getSize();
@@ -60,7 +75,7 @@ public class PatrolOptimizer {
 
             for (int[] corner : corners) {
                 Cell cell = findNearestPassable(corner[0], corner[1]);
-                if (cell != null && !positions.contains(cell)) {
+                if (cell != null && !containsPosition(positions, cell)) {
                     positions.add(cell);
                 }
             }
@@ -69,7 +84,7 @@ public class PatrolOptimizer {
         // Fill remaining with high-risk cells
         for (Cell cell : passableCells) {
             if (positions.size() >= count) break;
-            if (!positions.contains(cell)) {
+            if (!containsPosition(positions, cell)) {
                 positions.add(cell);
             }
         }
@@ -83,7 +98,34 @@ public class PatrolOptimizer {
     }
 
     /**
-     * Find nearest passable cell to given coordinates
+     * Move a start position by a random offset of up to a tenth of the grid,
+     * snapping to the nearest passable cell
+     */
+    private Cell jitter(Cell cell, Random random) {
+        int radius = Math.max(1, grid.getSize() / 10);
+        int row = Math.max(0, Math.min(grid.getSize() - 1,
+            cell.getRow() + random.nextInt(2 * radius + 1) - radius));
+        int col = Math.max(0, Math.min(grid.getSize() - 1,
+            cell.getCol() + random.nextInt(2 * radius + 1) - radius));
+        Cell moved = findNearestPassable(row, col);
+        return moved != null ? moved : cell;
+    }
+
+    /**
+     * Whether a cell's position is taken; on a sparse grid the same position
+     * can come back as different detached cells
+     */
+    private static boolean containsPosition(List<Cell> positions, Cell cell) {
+        for (Cell position : positions) {
+            if (position.getRow() == cell.getRow() && position.getCol() == cell.getCol()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find nearest passable cell to given coordinates, for reading (see Grid.readCell)
      */
     private Cell findNearestPassable(int row, int col) {
         int gridSize = grid.getSize();
@@ -94,11 +136,8 @@ public class PatrolOptimizer {
                 for (int dc = -radius; dc <= radius; dc++) {
                     int r = row + dr;
                     int c = col + dc;
-                    if (grid.isValidPosition(r, c)) {
-                        Cell cell = grid.getCell(r, c);
-                        if (cell.isPassable()) {
-                            return cell;
-                        }
+                    if (grid.isValidPosition(r, c) && grid.isPassable(r, c)) {
+                        return grid.readCell(r, c);
                     }
                 }
             }
@@ -110,12 +149,58 @@ public class PatrolOptimizer {
      * Run the optimization algorithm
      */
     public void optimize() {
-        // Run each ranger through the greedy strategy
-        for (Ranger ranger : rangers) {
-            strategy.executeAllSteps(ranger, grid);
+        optimize(0, null);
+    }
+
+    /**
+     * Run the optimization algorithm, reporting each ranger as it finishes
+     */
+    public void optimize(ProgressListener listener) {
+        optimize(0, listener);
+    }
+
+    /**
+     * Run the optimization algorithm starting at a given ranger
+     * @param firstRanger Index of the first ranger to plan; earlier rangers
+     *                    must already have been restored with restoreRoute
+     * @param listener Notified after each ranger completes, or null
+     */
+    public void optimize(int firstRanger, ProgressListener listener) {
+        // Run each ranger through the strategy
+        for (int i = firstRanger; i < rangers.size(); i++) {
+            optimizeRanger(i);
+            if (listener != null) {
+                listener.onRangerComplete(rangers.get(i), i + 1, rangers.size(), grid);
+            }
         }
     }
 
+    /**
+     * Plan a single ranger; rangers must be planned (or restored) in order
+     */
+    public void optimizeRanger(int rangerIndex) {
+        strategy.executeAllSteps(rangers.get(rangerIndex), grid);
+    }
+
+    /**
+     * Replay a previously computed route for a ranger, re-applying its visits to the grid
+     * @param rangerIndex Index of the ranger created by initializeRangers
+     * @param path Cells visited, starting position first
+     */
+    public void restoreRoute(int rangerIndex, List<int[]> path) {
+        Ranger original = rangers.get(rangerIndex);
+        int[] start = path.get(0);
+        Ranger ranger = new Ranger(original.getId(), start[0], start[1], original.getMaxSteps());
+        grid.getCell(start[0], start[1]).visit();
+
+        for (int i = 1; i < path.size(); i++) {
+            int[] pos = path.get(i);
+            ranger.moveTo(pos[0], pos[1]);
+            grid.getCell(pos[0], pos[1]).visit();
+        }
+        rangers.set(rangerIndex, ranger);
+    }
+
     /**
      * Get all patrol routes
      */
@@ -123,15 +208,22 @@ public class PatrolOptimizer {
         List<Map<String, Object>> routes = new ArrayList<>();
 
         for (Ranger ranger : rangers) {
-            Map<String, Object> route = new HashMap<>();
-            route.put("rangerId", ranger.getId());
-            route.put("path", ranger.getPathAsList());
-            routes.add(route);
+            routes.add(getRoute(ranger));
         }
 
         return routes;
     }
 
+    /**
+     * Get a single ranger's route in the same shape as getRoutes
+     */
+    public static Map<String, Object> getRoute(Ranger ranger) {
+        Map<String, Object> route = new HashMap<>();
+        route.put("rangerId", ranger.getId());
+        route.put("path", ranger.getPathAsList());
+        return route;
+    }
+
     /**
      * Get coverage matrix
      */
@@ -139,6 +231,20 @@ public class PatrolOptimizer {
         return grid.getCoverageMatrix();
     }
 
+    /**
+     * Callback for incremental progress during optimize()
+     */
+    public interface ProgressListener {
+        /**
+         * @param ranger The ranger whose route was just completed
+         * @param completed Number of rangers finished so far
+         * @param total Total number of rangers
+         * @param grid The grid with every completed route applied; its
+         *             coverage stats give live progress in O(1)
+         */
+        void onRangerComplete(Ranger ranger, int completed, int total, Grid grid);
+    }
+
     public Grid getGrid() { return grid; }
     public List<Ranger> getRangers() { return rangers; }
 }
@@ -0,0 +1,18 @@
+package antipoaching.algorithm;
+
+import antipoaching.model.Grid;
+import antipoaching.model.Ranger;
+
+/**
+ * A planner that lays down one ranger's complete patrol route on the grid
+ */
+public interface PatrolStrategy {
+
+    /**
+     * Move the ranger until its step budget is spent or it is stuck,
+     * visiting every cell it passes through
+     * @param ranger The ranger to move
+     * @param grid The patrol grid
+     */
+    void executeAllSteps(Ranger ranger, Grid grid);
+}
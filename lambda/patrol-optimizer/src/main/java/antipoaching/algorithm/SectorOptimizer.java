@@ -0,0 +1,180 @@
+package antipoaching.algorithm;
+
+import antipoaching.model.Cell;
+import antipoaching.model.Grid;
+import antipoaching.model.MapData;
+import antipoaching.model.Ranger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+
+/**
+ * Plans every ranger inside its own sector, all sectors in parallel.
+ *
+ * Start positions are picked as in the sequential optimizer, then
+ * SectorPartitioner splits the passable area into one balanced sector per
+ * ranger, grown from those starts. Each ranger is planned on a private grid
+ * covering its sector's bounding box, with every cell outside the sector
+ * impassable, so planning shares no mutable state and rangers never enter
+ * each other's sectors. The routes are then replayed onto one grid for the
+ * usual routes, coverage and stats.
+ */
+public class SectorOptimizer {
+
+    private static final ForkJoinPool POOL =
+        new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+    private final MapData mapData;
+    private final BiFunction<Grid, Random, PatrolStrategy> strategyFactory;
+
+    /**
+     * @param mapData Parsed map layers
+     * @param strategyFactory Creates the strategy for each sector's grid
+     */
+    public SectorOptimizer(MapData mapData, BiFunction<Grid, Random, PatrolStrategy> strategyFactory) {
+        this.mapData = mapData;
+        this.strategyFactory = strategyFactory;
+    }
+
+    /**
+     * Partition, plan all sectors and merge the routes
+     * @param rangerCount Number of rangers
+     * @param maxSteps Maximum steps per ranger
+     * @param listener Notified for each ranger as its route is merged, or null
+     * @return Optimizer whose grid and rangers hold the merged plan
+     */
+    public PatrolOptimizer optimize(int rangerCount, int maxSteps, PatrolOptimizer.ProgressListener listener) {
+        PatrolOptimizer merged = new PatrolOptimizer(mapData.toGrid(), new GreedyStrategy());
+        merged.initializeRangers(rangerCount, maxSteps);
+        int[] seeds = distinctStarts(merged);
+
+        int[] owner = new SectorPartitioner(mapData, POOL).partition(seeds);
+        int[][] bounds = sectorBounds(owner, seeds.length);
+
+        List<ForkJoinTask<List<int[]>>> tasks = new ArrayList<>();
+        for (int i = 0; i < seeds.length; i++) {
+            final int sector = i;
+            tasks.add(POOL.submit(() -> planSector(sector, seeds[sector], owner, bounds[sector], maxSteps)));
+        }
+
+        List<Ranger> rangers = merged.getRangers();
+        for (int i = 0; i < tasks.size(); i++) {
+            List<int[]> path;
+            try {
+                path = tasks.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Sector planning interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Sector planning failed", e.getCause());
+            }
+
+            merged.restoreRoute(i, path);
+            if (listener != null) {
+                listener.onRangerComplete(rangers.get(i), i + 1, rangers.size(), merged.getGrid());
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Start cells as row-major indices, one per ranger. initializeRangers reuses
+     * positions when there are more rangers than candidates; those rangers are
+     * moved to the next highest-risk cell not already taken, where one exists.
+     */
+    private int[] distinctStarts(PatrolOptimizer optimizer) {
+        Grid grid = optimizer.getGrid();
+        int size = grid.getSize();
+        List<Ranger> rangers = optimizer.getRangers();
+
+        Set<Integer> taken = new HashSet<>();
+        List<Cell> spare = null;
+        int spareIndex = 0;
+        int[] seeds = new int[rangers.size()];
+        for (int i = 0; i < rangers.size(); i++) {
+            Ranger ranger = rangers.get(i);
+            int cell = ranger.getCurrentRow() * size + ranger.getCurrentCol();
+            if (!taken.add(cell)) {
+                if (spare == null) {
+                    spare = grid.getHighestRiskCells(2 * rangers.size() + 4);
+                }
+                while (spareIndex < spare.size() && taken.contains(index(spare.get(spareIndex), size))) {
+                    spareIndex++;
+                }
+                if (spareIndex == spare.size()) {
+                    throw new IllegalArgumentException("More rangers than passable cells to start from");
+                }
+                cell = index(spare.get(spareIndex++), size);
+                taken.add(cell);
+            }
+            seeds[i] = cell;
+        }
+        return seeds;
+    }
+
+    private static int index(Cell cell, int size) {
+        return cell.getRow() * size + cell.getCol();
+    }
+
+    /**
+     * Bounding box {minRow, minCol, maxRow, maxCol} of each sector's cells
+     */
+    private int[][] sectorBounds(int[] owner, int sectors) {
+        int size = mapData.getGridSize();
+        int[][] bounds = new int[sectors][];
+        for (int i = 0; i < sectors; i++) {
+            bounds[i] = new int[]{size, size, -1, -1};
+        }
+        for (int cell = 0; cell < owner.length; cell++) {
+            if (owner[cell] < 0) continue;
+            int[] box = bounds[owner[cell]];
+            int row = cell / size;
+            int col = cell % size;
+            box[0] = Math.min(box[0], row);
+            box[1] = Math.min(box[1], col);
+            box[2] = Math.max(box[2], row);
+            box[3] = Math.max(box[3], col);
+        }
+        return bounds;
+    }
+
+    /**
+     * Plan one ranger on a grid holding only its sector
+     * @return The route in full-map coordinates, start first
+     */
+    private List<int[]> planSector(int sector, int seed, int[] owner, int[] box, int maxSteps) {
+        int size = mapData.getGridSize();
+        int rowOffset = box[0];
+        int colOffset = box[1];
+        int localSize = Math.max(box[2] - box[0], box[3] - box[1]) + 1;
+
+        double[][] riskMap = new double[localSize][localSize];
+        boolean[][] animalMap = new boolean[localSize][localSize];
+        int[][] terrainMap = new int[localSize][localSize];
+        for (int row = box[0]; row <= box[2]; row++) {
+            for (int col = box[1]; col <= box[3]; col++) {
+                if (owner[row * size + col] != sector) continue;
+                riskMap[row - rowOffset][col - colOffset] = mapData.getRisk(row, col);
+                animalMap[row - rowOffset][col - colOffset] = mapData.hasAnimal(row, col);
+                terrainMap[row - rowOffset][col - colOffset] = 1;
+            }
+        }
+
+        Grid grid = new MapData(localSize, riskMap, animalMap, terrainMap).toGrid();
+        Ranger ranger = new Ranger(sector, seed / size - rowOffset, seed % size - colOffset, maxSteps);
+        strategyFactory.apply(grid, null).executeAllSteps(ranger, grid);
+
+        List<int[]> path = new ArrayList<>();
+        for (int[] pos : ranger.getPath()) {
+            path.add(new int[]{pos[0] + rowOffset, pos[1] + colOffset});
+        }
+        return path;
+    }
+}
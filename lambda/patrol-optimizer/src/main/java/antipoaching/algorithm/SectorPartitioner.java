@@ -0,0 +1,224 @@
+package antipoaching.algorithm;
+
+import antipoaching.model.MapData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Splits a map's passable cells into connected sectors of roughly equal weight,
+ * one grown from each seed cell.
+ *
+ * A cell weighs BASE_WEIGHT plus its risk, plus ANIMAL_WEIGHT if animals are
+ * present, so sectors balance patrol value rather than area alone. Sectors grow
+ * breadth-first in rounds: each round, every sector at or below the mean weight
+ * of those still growing claims the free neighbours of its last layer, all such
+ * sectors in parallel. The lightest sector always grows, so rounding in the mean
+ * can never stall a round. A cell wanted by several sectors goes to the lightest
+ * (then lowest index), settled through a per-cell atomic max, so the result
+ * does not depend on thread timing. Passable cells no seed can reach stay
+ * unassigned.
+ */
+public class SectorPartitioner {
+
+    public static final double BASE_WEIGHT = 0.1;
+    public static final double ANIMAL_WEIGHT = 1.0;
+
+    // Rounds with less frontier than this run inline; the outcome is the same either way
+    private static final int PARALLEL_FRONTIER = 4096;
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    private final MapData mapData;
+    private final ExecutorService executor;
+
+    /**
+     * @param mapData Map layers to partition
+     * @param executor Runs each round's per-sector work
+     */
+    public SectorPartitioner(MapData mapData, ExecutorService executor) {
+        this.mapData = mapData;
+        this.executor = executor;
+    }
+
+    /**
+     * Grow one sector from each seed
+     * @param seeds Distinct passable cells as row-major indices; sector i grows from seeds[i]
+     * @return Sector index for every cell, row-major, or -1 for cells in no sector
+     */
+    public int[] partition(int[] seeds) {
+        int size = mapData.getGridSize();
+        int[] owner = new int[size * size];
+        Arrays.fill(owner, -1);
+
+        int count = seeds.length;
+        Sector[] sectors = new Sector[count];
+        for (int i = 0; i < count; i++) {
+            sectors[i] = new Sector(i);
+            owner[seeds[i]] = i;
+            sectors[i].weight = weight(seeds[i]);
+            sectors[i].frontier.add(seeds[i]);
+        }
+
+        // Highest bid per cell: round * (count + 1) + priority, so stale bids never win
+        AtomicLongArray bids = new AtomicLongArray(size * size);
+
+        for (long round = 1; ; round++) {
+            List<Sector> active = new ArrayList<>();
+            double totalWeight = 0;
+            double lightest = Double.POSITIVE_INFINITY;
+            for (Sector sector : sectors) {
+                if (!sector.frontier.isEmpty()) {
+                    active.add(sector);
+                    totalWeight += sector.weight;
+                    lightest = Math.min(lightest, sector.weight);
+                }
+            }
+            if (active.isEmpty()) {
+                break;
+            }
+
+            // The rounded mean of equal weights can fall below all of them
+            double threshold = Math.max(totalWeight / active.size(), lightest);
+            List<Sector> growing = new ArrayList<>();
+            int frontierCells = 0;
+            for (Sector sector : active) {
+                if (sector.weight <= threshold) {
+                    growing.add(sector);
+                    frontierCells += sector.frontier.size();
+                }
+            }
+
+            // Lighter sectors bid higher; ties go to the lower index
+            growing.sort((a, b) -> a.weight != b.weight
+                ? Double.compare(a.weight, b.weight)
+                : Integer.compare(a.index, b.index));
+            long base = round * (count + 1);
+            for (int rank = 0; rank < growing.size(); rank++) {
+                growing.get(rank).bid = base + count - rank;
+            }
+
+            boolean parallel = frontierCells >= PARALLEL_FRONTIER && growing.size() > 1;
+            forEach(growing, parallel, sector -> sector.bid(owner, bids, size));
+            forEach(growing, parallel, sector -> sector.claim(owner, bids));
+        }
+        return owner;
+    }
+
+    private double weight(int cell) {
+        int size = mapData.getGridSize();
+        int row = cell / size;
+        int col = cell % size;
+        return BASE_WEIGHT + mapData.getRisk(row, col)
+            + (mapData.hasAnimal(row, col) ? ANIMAL_WEIGHT : 0);
+    }
+
+    private void forEach(List<Sector> sectors, boolean parallel, SectorTask task) {
+        if (!parallel) {
+            for (Sector sector : sectors) {
+                task.run(sector);
+            }
+            return;
+        }
+
+        List<Callable<Void>> calls = new ArrayList<>();
+        for (Sector sector : sectors) {
+            calls.add(() -> {
+                task.run(sector);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(calls)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sector partitioning interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sector partitioning failed", e.getCause());
+        }
+    }
+
+    private interface SectorTask {
+        void run(Sector sector);
+    }
+
+    /**
+     * Growth state of one sector; only touched by the task running it
+     */
+    private class Sector {
+        final int index;
+        double weight;
+        long bid;
+        IntList frontier = new IntList();
+        final IntList candidates = new IntList();
+
+        Sector(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Bid on every free passable neighbour of the last layer
+         */
+        void bid(int[] owner, AtomicLongArray bids, int size) {
+            candidates.clear();
+            for (int i = 0; i < frontier.size(); i++) {
+                int cell = frontier.get(i);
+                int row = cell / size;
+                int col = cell % size;
+                for (int[] dir : DIRECTIONS) {
+                    int r = row + dir[0];
+                    int c = col + dir[1];
+                    if (r < 0 || r >= size || c < 0 || c >= size || !mapData.isPassable(r, c)) continue;
+                    int neighbor = r * size + c;
+                    if (owner[neighbor] >= 0) continue;
+                    if (bids.getAndAccumulate(neighbor, bid, Math::max) < bid) {
+                        candidates.add(neighbor);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Take the cells this sector won; they become its next layer
+         */
+        void claim(int[] owner, AtomicLongArray bids) {
+            IntList next = new IntList();
+            for (int i = 0; i < candidates.size(); i++) {
+                int cell = candidates.get(i);
+                if (bids.get(cell) == bid && owner[cell] < 0) {
+                    owner[cell] = index;
+                    weight += weight(cell);
+                    next.add(cell);
+                }
+            }
+            frontier = next;
+        }
+    }
+
+    /**
+     * Growable list of primitive ints
+     */
+    private static class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) { return values[index]; }
+        int size() { return size; }
+        boolean isEmpty() { return size == 0; }
+        void clear() { size = 0; }
+    }
+}
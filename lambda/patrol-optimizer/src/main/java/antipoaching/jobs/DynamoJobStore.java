@@ -0,0 +1,263 @@
+package antipoaching.jobs;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Job store backed by the OptimizationJobs table. Items expire a day after
+ * their last update through the table's expiresAt TTL attribute.
+ *
+ * Checkpointed routes do not go into the job item, which would outgrow
+ * DynamoDB's 400KB item limit on long plans. Each ranger's route is its own
+ * item under "<jobId>#route#<index>", with the path packed as two unsigned
+ * 16-bit coordinates per step, and the job item only records how many there
+ * are. Routes are written before the job item that counts them, and a
+ * completed route never changes, so each is written once per container.
+ */
+public class DynamoJobStore implements JobStore {
+
+    private static final String JOBS_TABLE = "OptimizationJobs";
+    private static final String ROUTE_KEY = "#route#";
+
+    // DynamoDB items are capped at 400KB; leave room for the other attributes
+    private static final int MAX_REQUEST_BYTES = 200_000;
+    private static final int MAX_ITEM_BYTES = 380_000;
+
+    private final DynamoDbClient dynamoDb;
+    private final Gson gson = new Gson();
+
+    // Per job, how many of its route items this container has already written
+    private final Map<String, Integer> writtenRoutes = new ConcurrentHashMap<>();
+
+    public DynamoJobStore() {
+        DynamoDbClientBuilder builder = DynamoDbClient.builder()
+            .region(Region.US_EAST_1);  // Change to your region
+
+        String endpoint = System.getenv("DYNAMODB_ENDPOINT");
+        if (endpoint != null && !endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+
+        this.dynamoDb = builder.build();
+    }
+
+    public DynamoJobStore(DynamoDbClient dynamoDb) {
+        this.dynamoDb = dynamoDb;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request, or the job or one of its
+     *         routes once encoded, is too large for a DynamoDB item
+     */
+    @Override
+    public void save(Job job) {
+        if (job.getRequestJson().length() > MAX_REQUEST_BYTES) {
+            throw new IllegalArgumentException(
+                "Request too large for an async job; save the map and submit it by mapId");
+        }
+
+        int routeCount = saveRoutes(job);
+
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("jobId", AttributeValue.builder().s(job.getJobId()).build());
+        item.put("status", AttributeValue.builder().s(job.getStatus()).build());
+        item.put("percentComplete", AttributeValue.builder()
+            .n(String.valueOf(job.getPercentComplete()))
+            .build());
+        item.put("request", AttributeValue.builder().s(job.getRequestJson()).build());
+        if (job.getRoutesJson() != null) {
+            item.put("routeCount", AttributeValue.builder().n(String.valueOf(routeCount)).build());
+        }
+        putIfPresent(item, "stats", job.getStatsJson());
+        putIfPresent(item, "resultId", job.getResultId());
+        putIfPresent(item, "error", job.getError());
+        item.put("createdAt", AttributeValue.builder().s(job.getCreatedAt()).build());
+        item.put("updatedAt", AttributeValue.builder().s(job.getUpdatedAt()).build());
+        item.put("expiresAt", expiresAt());
+        checkSize(item, "Job " + job.getJobId());
+
+        dynamoDb.putItem(PutItemRequest.builder()
+            .tableName(JOBS_TABLE)
+            .item(item)
+            .build());
+
+        if (Job.SUCCEEDED.equals(job.getStatus()) || Job.FAILED.equals(job.getStatus())) {
+            writtenRoutes.remove(job.getJobId());
+        }
+    }
+
+    /**
+     * Write the job's routes not yet written by this container, one item each
+     * @return Number of routes the job holds
+     */
+    private int saveRoutes(Job job) {
+        if (job.getRoutesJson() == null) {
+            return 0;
+        }
+
+        JsonArray routes = gson.fromJson(job.getRoutesJson(), JsonArray.class);
+        int written = writtenRoutes.getOrDefault(job.getJobId(), 0);
+        for (int i = written; i < routes.size(); i++) {
+            JsonObject route = routes.get(i).getAsJsonObject();
+            Map<String, AttributeValue> item = new HashMap<>();
+            item.put("jobId", AttributeValue.builder().s(routeKey(job.getJobId(), i)).build());
+            item.put("rangerId", AttributeValue.builder().n(route.get("rangerId").getAsString()).build());
+            item.put("path", AttributeValue.builder()
+                .b(SdkBytes.fromByteArray(packPath(route.getAsJsonArray("path"))))
+                .build());
+            item.put("expiresAt", expiresAt());
+            checkSize(item, "Route " + i + " of job " + job.getJobId());
+
+            dynamoDb.putItem(PutItemRequest.builder()
+                .tableName(JOBS_TABLE)
+                .item(item)
+                .build());
+        }
+        writtenRoutes.put(job.getJobId(), routes.size());
+        return routes.size();
+    }
+
+    @Override
+    public Job get(String jobId) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("jobId", AttributeValue.builder().s(jobId).build());
+
+        GetItemResponse response = dynamoDb.getItem(GetItemRequest.builder()
+            .tableName(JOBS_TABLE)
+            .key(key)
+            .consistentRead(true)
+            .build());
+
+        if (!response.hasItem()) {
+            return null;
+        }
+
+        Map<String, AttributeValue> item = response.item();
+        if (!item.containsKey("request")) {
+            return null;  // A route item, not a job
+        }
+        Job job = new Job(jobId, item.get("request").s(), item.get("createdAt").s());
+        job.setStatus(item.get("status").s());
+        job.setPercentComplete(Integer.parseInt(item.get("percentComplete").n()));
+        if (item.containsKey("routeCount")) {
+            job.setRoutesJson(gson.toJson(loadRoutes(jobId, Integer.parseInt(item.get("routeCount").n()))));
+        }
+        job.setStatsJson(getString(item, "stats"));
+        job.setResultId(getString(item, "resultId"));
+        job.setError(getString(item, "error"));
+        job.setUpdatedAt(item.get("updatedAt").s());
+        return job;
+    }
+
+    private JsonArray loadRoutes(String jobId, int count) {
+        JsonArray routes = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            Map<String, AttributeValue> key = new HashMap<>();
+            key.put("jobId", AttributeValue.builder().s(routeKey(jobId, i)).build());
+            Map<String, AttributeValue> item = dynamoDb.getItem(GetItemRequest.builder()
+                .tableName(JOBS_TABLE)
+                .key(key)
+                .consistentRead(true)
+                .build()).item();
+
+            JsonObject route = new JsonObject();
+            route.addProperty("rangerId", Integer.parseInt(item.get("rangerId").n()));
+            route.add("path", unpackPath(item.get("path").b().asByteArray()));
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    private static String routeKey(String jobId, int index) {
+        return jobId + ROUTE_KEY + index;
+    }
+
+    /**
+     * Pack [[row, col], ...] as unsigned 16-bit pairs
+     */
+    private static byte[] packPath(JsonArray path) {
+        ByteBuffer packed = ByteBuffer.allocate(path.size() * 4);
+        for (JsonElement point : path) {
+            JsonArray pos = point.getAsJsonArray();
+            for (int i = 0; i < 2; i++) {
+                int coordinate = pos.get(i).getAsInt();
+                if (coordinate < 0 || coordinate > 0xFFFF) {
+                    throw new IllegalArgumentException("Route coordinate out of range: " + coordinate);
+                }
+                packed.putShort((short) coordinate);
+            }
+        }
+        return packed.array();
+    }
+
+    private static JsonArray unpackPath(byte[] packed) {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        JsonArray path = new JsonArray();
+        while (buffer.remaining() >= 4) {
+            JsonArray pos = new JsonArray();
+            pos.add(Short.toUnsignedInt(buffer.getShort()));
+            pos.add(Short.toUnsignedInt(buffer.getShort()));
+            path.add(pos);
+        }
+        return path;
+    }
+
+    private static AttributeValue expiresAt() {
+        return AttributeValue.builder()
+            .n(String.valueOf(Instant.now().plus(1, ChronoUnit.DAYS).getEpochSecond()))
+            .build();
+    }
+
+    /**
+     * Reject an item DynamoDB would refuse, counting attribute names and values
+     * the way its item size limit does
+     */
+    private static void checkSize(Map<String, AttributeValue> item, String what) {
+        long bytes = 0;
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            AttributeValue value = attribute.getValue();
+            bytes += attribute.getKey().getBytes(StandardCharsets.UTF_8).length;
+            if (value.s() != null) {
+                bytes += value.s().getBytes(StandardCharsets.UTF_8).length;
+            } else if (value.n() != null) {
+                bytes += value.n().length();
+            } else if (value.b() != null) {
+                bytes += value.b().asByteArray().length;
+            }
+        }
+        if (bytes > MAX_ITEM_BYTES) {
+            throw new IllegalArgumentException(what + " is too large to store (" + bytes + " bytes)");
+        }
+    }
+
+    private static void putIfPresent(Map<String, AttributeValue> item, String name, String value) {
+        if (value != null) {
+            item.put(name, AttributeValue.builder().s(value).build());
+        }
+    }
+
+    private static String getString(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value != null ? value.s() : null;
+    }
+}
@@ -0,0 +1,23 @@
+package antipoaching.jobs;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Job store for local runs; state lives only as long as the process
+ */
+public class InMemoryJobStore implements JobStore {
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(Job job) {
+        jobs.put(job.getJobId(), job.copy());
+    }
+
+    @Override
+    public Job get(String jobId) {
+        Job job = jobs.get(jobId);
+        return job != null ? job.copy() : null;
+    }
+}
@@ -0,0 +1,86 @@
+package antipoaching.jobs;
+
+import com.google.gson.Gson;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * State of an asynchronous optimization job, including its latest checkpoint
+ */
+public class Job {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+
+    private static final Gson GSON = new Gson();
+
+    private String jobId;
+    private String status;
+    private int percentComplete;
+    private String requestJson;   // Original /api/optimize body
+    private String routesJson;    // Routes completed so far, as returned by getRoutes()
+    private String statsJson;
+    private String resultId;
+    private String error;
+    private String createdAt;
+    private String updatedAt;
+
+    public Job(String jobId, String requestJson, String createdAt) {
+        this.jobId = jobId;
+        this.status = QUEUED;
+        this.requestJson = requestJson;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    /**
+     * Build the client-facing status; the original request is not echoed back
+     */
+    public Map<String, Object> toResponse() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", jobId);
+        response.put("status", status);
+        response.put("percentComplete", percentComplete);
+        response.put("createdAt", createdAt);
+        response.put("updatedAt", updatedAt);
+        if (routesJson != null) response.put("routes", GSON.fromJson(routesJson, Object.class));
+        if (statsJson != null) response.put("stats", GSON.fromJson(statsJson, Object.class));
+        if (resultId != null) response.put("resultId", resultId);
+        if (error != null) response.put("message", error);
+        return response;
+    }
+
+    public Job copy() {
+        Job copy = new Job(jobId, requestJson, createdAt);
+        copy.status = status;
+        copy.percentComplete = percentComplete;
+        copy.routesJson = routesJson;
+        copy.statsJson = statsJson;
+        copy.resultId = resultId;
+        copy.error = error;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
+    // Get and Set
+    public String getJobId() { return jobId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public int getPercentComplete() { return percentComplete; }
+    public void setPercentComplete(int percentComplete) { this.percentComplete = percentComplete; }
+    public String getRequestJson() { return requestJson; }
+    public String getRoutesJson() { return routesJson; }
+    public void setRoutesJson(String routesJson) { this.routesJson = routesJson; }
+    public String getStatsJson() { return statsJson; }
+    public void setStatsJson(String statsJson) { this.statsJson = statsJson; }
+    public String getResultId() { return resultId; }
+    public void setResultId(String resultId) { this.resultId = resultId; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public String getCreatedAt() { return createdAt; }
+    public String getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,13 @@
+package antipoaching.jobs;
+
+/**
+ * Hands a stored job to a worker without waiting for it to finish
+ */
+public interface JobExecutor {
+
+    /**
+     * @param jobId A job already saved in the job store
+     * @throws IllegalStateException if no more jobs can be taken right now
+     */
+    void submit(String jobId);
+}
@@ -0,0 +1,18 @@
+package antipoaching.jobs;
+
+/**
+ * Persists job state so any container can report on it
+ */
+public interface JobStore {
+
+    /**
+     * Store a new job, replacing any previous state under the same id
+     * @throws IllegalArgumentException if the job's request is too large for the store
+     */
+    void save(Job job);
+
+    /**
+     * @return The job, or null if unknown
+     */
+    Job get(String jobId);
+}
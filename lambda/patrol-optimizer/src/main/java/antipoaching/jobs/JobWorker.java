@@ -0,0 +1,130 @@
+package antipoaching.jobs;
+
+import antipoaching.OptimizationRequest;
+import antipoaching.algorithm.PatrolOptimizer;
+import antipoaching.model.MapData;
+import antipoaching.simulation.PoachingSimulator;
+import antipoaching.storage.MapRepository;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Runs an optimization job to completion.
+ *
+ * Progress is checkpointed to the job store after rangers finish (at most once
+ * per CHECKPOINT_INTERVAL_MS), recording percent complete and the routes laid
+ * down so far. A retried job replays those routes onto a fresh grid and resumes
+ * with the next ranger. The finished plan is saved to PatrolResults.
+ */
+public class JobWorker {
+
+    private static final long CHECKPOINT_INTERVAL_MS = 1000;
+    private static final int MAX_ERROR_CHARS = 1000;
+
+    private final JobStore store;
+    private final Supplier<MapRepository> repository;
+    private final Gson gson = new Gson();
+
+    public JobWorker(JobStore store, Supplier<MapRepository> repository) {
+        this.store = store;
+        this.repository = repository;
+    }
+
+    public void run(String jobId) {
+        Job job = store.get(jobId);
+        if (job == null || Job.SUCCEEDED.equals(job.getStatus()) || Job.FAILED.equals(job.getStatus())) {
+            return;
+        }
+
+        try {
+            OptimizationRequest request = OptimizationRequest.parse(
+                gson.fromJson(job.getRequestJson(), JsonObject.class));
+
+            MapData mapData = request.resolveMap(repository);
+            if (mapData == null) {
+                fail(job, "Map not found: " + request.getMapId());
+                return;
+            }
+
+            PatrolOptimizer optimizer = request.createOptimizer(mapData);
+            int resumeFrom = restoreCheckpoint(job, optimizer);
+
+            job.setStatus(Job.RUNNING);
+            touch(job);
+
+            long[] lastCheckpoint = {System.currentTimeMillis()};
+            optimizer.optimize(resumeFrom, (ranger, completed, total, grid) -> {
+                long now = System.currentTimeMillis();
+                if (completed < total && now - lastCheckpoint[0] < CHECKPOINT_INTERVAL_MS) {
+                    return;
+                }
+                lastCheckpoint[0] = now;
+                List<Map<String, Object>> routes = optimizer.getRoutes().subList(0, completed);
+                job.setPercentComplete(completed * 100 / total);
+                job.setRoutesJson(gson.toJson(routes));
+                touch(job);
+            });
+
+            List<Map<String, Object>> routes = optimizer.getRoutes();
+            Map<String, Object> stats = new PoachingSimulator().calculateStats(optimizer.getGrid());
+            Map<String, Object> saved = repository.get().saveResult(
+                request.getMapId(), request.getRangerCount(), routes, stats);
+
+            job.setStatus(Job.SUCCEEDED);
+            job.setPercentComplete(100);
+            job.setRoutesJson(gson.toJson(routes));
+            job.setStatsJson(gson.toJson(stats));
+            job.setResultId((String) saved.get("resultId"));
+            touch(job);
+
+        } catch (RuntimeException e) {
+            // Recorded rather than rethrown: retrying a deterministic failure cannot help.
+            // A timed-out worker never gets here and is resumed from its checkpoint instead.
+            fail(job, e.getMessage());
+        }
+    }
+
+    /**
+     * Replay checkpointed routes onto the optimizer's grid
+     * @return Index of the first ranger still to plan
+     */
+    private int restoreCheckpoint(Job job, PatrolOptimizer optimizer) {
+        if (job.getRoutesJson() == null) {
+            return 0;
+        }
+
+        JsonArray routes = gson.fromJson(job.getRoutesJson(), JsonArray.class);
+        for (int i = 0; i < routes.size(); i++) {
+            List<int[]> path = new ArrayList<>();
+            for (JsonElement point : routes.get(i).getAsJsonObject().getAsJsonArray("path")) {
+                JsonArray pos = point.getAsJsonArray();
+                path.add(new int[]{pos.get(0).getAsInt(), pos.get(1).getAsInt()});
+            }
+            optimizer.restoreRoute(i, path);
+        }
+        return routes.size();
+    }
+
+    private void fail(Job job, String message) {
+        // A partial plan is of no use once failed, and may be what could not be saved
+        job.setStatus(Job.FAILED);
+        job.setRoutesJson(null);
+        job.setError(message != null && message.length() > MAX_ERROR_CHARS
+            ? message.substring(0, MAX_ERROR_CHARS) : message);
+        touch(job);
+    }
+
+    private void touch(Job job) {
+        job.setUpdatedAt(Instant.now().toString());
+        store.save(job);
+    }
+}
@@ -0,0 +1,58 @@
+package antipoaching.jobs;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.lambda.LambdaClient;
+import software.amazon.awssdk.services.lambda.model.InvocationType;
+import software.amazon.awssdk.services.lambda.model.InvokeRequest;
+
+import com.google.gson.Gson;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs jobs by asynchronously invoking the worker function with an internal
+ * worker event. The worker is the same handler deployed with a long timeout
+ * and no API events (JOB_WORKER_FUNCTION), so jobs are bound only by its
+ * timeout while the API function keeps the short one; without that variable
+ * this function re-invokes itself.
+ */
+public class LambdaJobExecutor implements JobExecutor {
+
+    public static final String WORKER_PATH = "/internal/jobs/run";
+
+    private final LambdaClient lambda;
+    private final String functionName;
+    private final Gson gson = new Gson();
+
+    public LambdaJobExecutor() {
+        this(LambdaClient.builder().region(Region.US_EAST_1).build(),  // Change to your region
+            System.getenv("JOB_WORKER_FUNCTION") != null
+                ? System.getenv("JOB_WORKER_FUNCTION")
+                : System.getenv("AWS_LAMBDA_FUNCTION_NAME"));
+    }
+
+    public LambdaJobExecutor(LambdaClient lambda, String functionName) {
+        this.lambda = lambda;
+        this.functionName = functionName;
+    }
+
+    @Override
+    public void submit(String jobId) {
+        Map<String, String> body = new HashMap<>();
+        body.put("jobId", jobId);
+
+        // Shaped like an API Gateway event so the same handler can route it
+        Map<String, Object> event = new HashMap<>();
+        event.put("httpMethod", "POST");
+        event.put("path", WORKER_PATH);
+        event.put("body", gson.toJson(body));
+
+        lambda.invoke(InvokeRequest.builder()
+            .functionName(functionName)
+            .invocationType(InvocationType.EVENT)
+            .payload(SdkBytes.fromUtf8String(gson.toJson(event)))
+            .build());
+    }
+}
@@ -0,0 +1,50 @@
+package antipoaching.jobs;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs jobs on an in-process queue, for local development and self-hosting.
+ * The queue is bounded, so a burst of submissions is turned away rather than
+ * held in memory behind work the process may never get to.
+ */
+public class LocalJobExecutor implements JobExecutor {
+
+    private final JobWorker worker;
+    private final ExecutorService executor;
+
+    /**
+     * @param threads Jobs run at once
+     * @param maxQueued Jobs waiting for a thread before submit() refuses more
+     */
+    public LocalJobExecutor(JobWorker worker, int threads, int maxQueued) {
+        this.worker = worker;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxQueued), runnable -> {
+                Thread thread = new Thread(runnable, "optimization-job");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * @throws IllegalStateException if the queue is full
+     */
+    @Override
+    public void submit(String jobId) {
+        try {
+            executor.execute(() -> {
+                try {
+                    worker.run(jobId);
+                } catch (RuntimeException e) {
+                    // Already recorded on the job as FAILED
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Too many jobs queued, retry later");
+        }
+    }
+}
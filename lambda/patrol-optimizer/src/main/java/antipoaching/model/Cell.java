@@ -10,6 +10,10 @@ public class Cell {
     private boolean hasAnimal;      // Whether animals are present
     private boolean passable;       // Whether terrain is passable
     private int visitCount;         // Number of times visited by rangers
+    private double baseScore;       // riskLevel * 2 + animalBonus, cached
+    private double score;           // baseScore / (visitCount + 1), or -1 if impassable
+    Grid grid;                      // Owning grid, notified so its indexes stay current
+    int id;                         // Id in the owning grid's score heap
 
     public Cell(int row, int col) {
         this.row = row;
@@ -18,6 +22,7 @@ public class Cell {
         this.hasAnimal = false;
         this.passable = true;
         this.visitCount = 0;
+        updateScore();
     }
 
     public Cell(int row, int col, double riskLevel, boolean hasAnimal, boolean passable) {
@@ -27,23 +32,52 @@ public class Cell {
         this.hasAnimal = hasAnimal;
         this.passable = passable;
         this.visitCount = 0;
+        updateScore();
     }
 
     /**
      * Calculate the priority score for visiting this cell
      * Higher score = more important to patrol
+     * The value is maintained incrementally, so this is a field read.
      */
     public double calculateScore() {
-        if (!passable) return -1;
-
-        double animalBonus = hasAnimal ? 1.0 : 0.0;
-        double visitPenalty = 1.0 / (visitCount + 1);
+        return score;
+    }
 
-        return (riskLevel * 2 + animalBonus) * visitPenalty;
+    /**
+     * Get the score this cell would have if it had never been visited
+     */
+    public double getBaseScore() {
+        return passable ? baseScore : -1;
     }
 
     public void visit() {
         this.visitCount++;
+        applyVisitPenalty();
+        if (grid != null) {
+            grid.cellVisited(this);
+        }
+    }
+
+    private void updateScore() {
+        double animalBonus = hasAnimal ? 1.0 : 0.0;
+        this.baseScore = riskLevel * 2 + animalBonus;
+        applyVisitPenalty();
+    }
+
+    /**
+     * Tell the owning grid about a layer change, with what the cell
+     * contributed before it
+     */
+    private void layerChanged(boolean wasPassable, double oldRisk) {
+        if (grid != null) {
+            grid.cellChanged(this, wasPassable, oldRisk, visitCount > 0);
+        }
+    }
+
+    private void applyVisitPenalty() {
+        double visitPenalty = 1.0 / (visitCount + 1);
+        this.score = passable ? baseScore * visitPenalty : -1;
     }
 
     // Get and Set
@@ -58,7 +92,10 @@ public class Cell {
         return riskLevel; 
     }
     public void setRiskLevel(double riskLevel) { 
+        double oldRisk = this.riskLevel;
         this.riskLevel = riskLevel; 
+        updateScore();
+        layerChanged(passable, oldRisk);
     }
 
     public boolean hasAnimal() { 
@@ -66,13 +103,18 @@ public class Cell {
     }
     public void setHasAnimal(boolean hasAnimal) { 
         this.hasAnimal = hasAnimal; 
+        updateScore();
+        layerChanged(passable, riskLevel);
     }
 
     public boolean isPassable() { 
         return passable; 
     }
     public void setPassable(boolean passable) { 
+        boolean wasPassable = this.passable;
         this.passable = passable; 
+        applyVisitPenalty();
+        layerChanged(wasPassable, riskLevel);
     }
 
     public int getVisitCount() { 
@@ -0,0 +1,100 @@
+package antipoaching.model;
+
+/**
+ * Running risk and coverage totals for a grid, kept current as cells change.
+ *
+ * Each layer change swaps the cell's old contribution, which the cell reports
+ * alongside the change, for its new one, and a cell's first visit moves it
+ * into the covered totals, so every figure is available in O(1) at any point
+ * during or after optimization. Before- and after-risk are each accumulated
+ * exactly (see ExactSum), so they match a fresh count of the same grid
+ * however its changes and visits were ordered, and a reloaded plan reports
+ * the same figures as the run that produced it.
+ */
+public class CoverageStats {
+
+    public static final double PATROL_REDUCTION_FACTOR = 0.2;  // 80% risk reduction when patrolled
+    public static final double HIGH_RISK_THRESHOLD = 0.7;
+
+    private int passableCells;
+    private int coveredCells;
+    private int highRiskCells;
+    private int coveredHighRiskCells;
+    private final ExactSum totalRisk = new ExactSum();
+    private final ExactSum afterRisk = new ExactSum();   // Risk with each covered cell reduced
+
+    CoverageStats(int defaultCells) {
+        // Default cells are passable, zero-risk and unvisited
+        this.passableCells = defaultCells;
+    }
+
+    /**
+     * Record a layer change, given the cell's contribution before it
+     * @param wasPassable Whether the cell was passable
+     * @param oldRisk The cell's risk
+     * @param wasCovered Whether the cell had been visited
+     */
+    void changed(Cell cell, boolean wasPassable, double oldRisk, boolean wasCovered) {
+        boolean passable = cell.isPassable();
+        double risk = cell.getRiskLevel();
+        boolean covered = cell.getVisitCount() > 0;
+        if (passable == wasPassable && covered == wasCovered
+                && (!passable || risk == oldRisk)) {
+            return;
+        }
+        apply(wasPassable, oldRisk, wasCovered, -1);
+        apply(passable, risk, covered, 1);
+    }
+
+    /**
+     * Record a visit; only a cell's first visit changes the totals
+     */
+    void visited(Cell cell) {
+        if (cell.getVisitCount() != 1 || !cell.isPassable()) {
+            return;
+        }
+        double risk = cell.getRiskLevel();
+        coveredCells++;
+        afterRisk.add(-risk);
+        afterRisk.add(risk * PATROL_REDUCTION_FACTOR);
+        if (risk >= HIGH_RISK_THRESHOLD) {
+            coveredHighRiskCells++;
+        }
+    }
+
+    private void apply(boolean passable, double risk, boolean covered, int sign) {
+        if (!passable) return;
+        boolean high = risk >= HIGH_RISK_THRESHOLD;
+        passableCells += sign;
+        totalRisk.add(sign * risk);
+        afterRisk.add(sign * (covered ? risk * PATROL_REDUCTION_FACTOR : risk));
+        if (high) highRiskCells += sign;
+        if (covered) {
+            coveredCells += sign;
+            if (high) coveredHighRiskCells += sign;
+        }
+    }
+
+    public int getPassableCells() { return passableCells; }
+    public int getCoveredCells() { return coveredCells; }
+    public int getHighRiskCells() { return highRiskCells; }
+    public int getCoveredHighRiskCells() { return coveredHighRiskCells; }
+
+    /**
+     * Summed risk of passable cells before any patrol
+     */
+    public double getTotalRisk() { return totalRisk.value(); }
+
+    /**
+     * Summed risk of passable cells with patrolled cells reduced
+     */
+    public double getAfterRisk() { return afterRisk.value(); }
+
+    /**
+     * Fraction of total risk removed by patrols, 0 - 1
+     */
+    public double getRiskReduction() {
+        double total = getTotalRisk();
+        return total > 0 ? (total - getAfterRisk()) / total : 0;
+    }
+}
@@ -0,0 +1,129 @@
+package antipoaching.model;
+
+/**
+ * Running sum of doubles that never rounds. Each value is split into 32-bit
+ * digits of one fixed-point number wide enough for any double, so adding and
+ * later subtracting a value restores the total exactly and the result does
+ * not depend on the order values arrived in. Only reading it rounds, once.
+ *
+ * Compensated summation would be smaller, but its result still depends on
+ * the order of additions and a subtraction does not exactly undo an earlier
+ * addition, which CoverageStats relies on. An add here touches two digits,
+ * with a carry pass every CARRY_INTERVAL adds.
+ */
+final class ExactSum {
+    private static final int DIGIT_BITS = 32;
+    private static final long DIGIT_MASK = (1L << DIGIT_BITS) - 1;
+    private static final int LOWEST_EXPONENT = -1074;   // Weight of the lowest bit of any double
+    private static final int DIGITS = 2098 / DIGIT_BITS + 3;
+    private static final int CARRY_INTERVAL = 512;      // Additions a digit absorbs before overflow is possible
+
+    private final long[] digits = new long[DIGITS];
+    private int uncarried;
+
+    void add(double value) {
+        if (value == 0) {
+            return;
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        int exponent = (int) ((bits >>> 52) & 0x7ff);
+        long mantissa = bits & ((1L << 52) - 1);
+        if (exponent == 0) {
+            exponent = 1;                 // Subnormal: no implicit bit
+        } else {
+            mantissa |= 1L << 52;
+        }
+        if (bits < 0) {
+            mantissa = -mantissa;
+        }
+
+        // value = mantissa * 2^(LOWEST_EXPONENT + exponent - 1)
+        int shift = exponent - 1;
+        int digit = shift / DIGIT_BITS;
+        int offset = shift % DIGIT_BITS;
+        long low = (mantissa & DIGIT_MASK) << offset;    // Non-negative, under 2^63
+        digits[digit] += low & DIGIT_MASK;
+        digits[digit + 1] += (low >>> DIGIT_BITS) + ((mantissa >> DIGIT_BITS) << offset);
+
+        if (++uncarried == CARRY_INTERVAL) {
+            carry();
+        }
+    }
+
+    /**
+     * The sum, correctly rounded to the nearest double (ties to even)
+     */
+    double value() {
+        carry();
+        boolean negative = digits[DIGITS - 1] < 0;
+        long[] magnitude = negative ? negated() : digits;
+
+        int top = DIGITS - 1;
+        while (top >= 0 && magnitude[top] == 0) {
+            top--;
+        }
+        if (top < 0) {
+            return 0.0;
+        }
+        if (top == DIGITS - 1) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;  // Beyond any double
+        }
+
+        // Gather the leading 62 bits, or all of them if there are fewer
+        long window = 0;
+        int exponent = LOWEST_EXPONENT + (top + 1) * DIGIT_BITS;   // Weight of the bit above the window
+        int digit = top;
+        while (digit >= 0 && window < (1L << 30)) {
+            window = (window << DIGIT_BITS) | magnitude[digit--];
+            exponent -= DIGIT_BITS;
+        }
+        boolean sticky = false;
+        if (digit >= 0) {
+            int shift = Long.numberOfLeadingZeros(window) - 2;
+            window = (window << shift) | (magnitude[digit] >>> (DIGIT_BITS - shift));
+            exponent -= shift;
+            sticky = (magnitude[digit] & ((1L << (DIGIT_BITS - shift)) - 1)) != 0;
+            for (int d = digit - 1; d >= 0 && !sticky; d--) {
+                sticky = magnitude[d] != 0;
+            }
+        }
+
+        // Bits below the window only matter to break a tie, and 9 spare bits
+        // under the 53 kept leave the lowest free to mark them. The long to
+        // double conversion is the one rounding; scalb is exact here, as a
+        // result in the subnormal range has no bits below the window.
+        if (sticky) {
+            window |= 1;
+        }
+        double total = Math.scalb((double) window, exponent);
+        return negative ? -total : total;
+    }
+
+    /**
+     * The digits of the negated sum, for reading a negative total
+     */
+    private long[] negated() {
+        long[] negated = new long[DIGITS];
+        long carry = 0;
+        for (int digit = 0; digit < DIGITS - 1; digit++) {
+            long value = carry - digits[digit];
+            negated[digit] = value & DIGIT_MASK;
+            carry = value >> DIGIT_BITS;
+        }
+        negated[DIGITS - 1] = carry - digits[DIGITS - 1];
+        return negated;
+    }
+
+    /**
+     * Move each digit's overflow into the next, leaving every digit but the
+     * top one in [0, 2^32)
+     */
+    private void carry() {
+        for (int digit = 0; digit < DIGITS - 1; digit++) {
+            long overflow = digits[digit] >> DIGIT_BITS;
+            digits[digit] -= overflow << DIGIT_BITS;
+            digits[digit + 1] += overflow;
+        }
+        uncarried = 0;
+    }
+}
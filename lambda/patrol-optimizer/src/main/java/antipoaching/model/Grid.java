@@ -1,48 +1,204 @@
 package antipoaching.model;
 
+import antipoaching.common.TilePyramid;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.PriorityQueue;
 
 /**
- * Represents the patrol area as a 2D grid of cells
+ * Represents the patrol area as a 2D grid of cells.
+ *
+ * A dense grid holds every Cell. A sparse grid only stores cells that differ from the default (passable, zero
+ * risk, no animal, unvisited) in a SparseCellMap; any other cell is created
+ * the first time it is asked for. Memory and whole-grid scans of a sparse
+ * grid therefore scale with the hotspots and the cells rangers have touched.
+ *
+ * The score heap behind getBestCell and getTopCells is only built on the
+ * first such query; grids nobody ranks (most planning grids) never pay for
+ * keeping it current.
  */
 public class Grid {
     private int size;
-    private Cell[][] cells;
+    private final boolean sparse;
+    private Cell[][] cells;                // Dense only
+    private SparseCellMap storedCells;     // Sparse only
+    private ScoreHeap scoreHeap;           // Max-heap of passable cells by score, null until first ranked
+    private final CoverageStats coverageStats;
+
+    private TilePyramid tilePyramid;       // Built on first request, then kept current
 
     public Grid(int size) {
+        this(size, false);
+    }
+
+    /**
+     * @param sparse Store only non-default cells instead of allocating all size * size
+     */
+    public Grid(int size, boolean sparse) {
         this.size = size;
+        this.sparse = sparse;
+        this.coverageStats = new CoverageStats(size * size);
+
+        if (sparse) {
+            this.storedCells = new SparseCellMap(16);
+            return;
+        }
+
         this.cells = new Cell[size][size];
 
-        // Initialize empty cells
+        // Initialize empty cells; they report their own changes through cellChanged
         for (int row = 0; row < size; row++) {
             for (int col = 0; col < size; col++) {
                 cells[row][col] = new Cell(row, col);
+                cells[row][col].grid = this;
+            }
+        }
+    }
+
+    /**
+     * The score heap, indexing every existing cell on first use
+     */
+    private ScoreHeap scoreHeap() {
+        if (scoreHeap == null) {
+            if (sparse) {
+                Cell[] stored = getStoredCells();
+                scoreHeap = new ScoreHeap(size, stored.length);
+                for (Cell cell : stored) {
+                    scoreHeap.register(cell);
+                }
+            } else {
+                scoreHeap = new ScoreHeap(size, size * size);
+                for (int row = 0; row < size; row++) {
+                    for (int col = 0; col < size; col++) {
+                        scoreHeap.register(cells[row][col]);
+                    }
+                }
             }
+            scoreHeap.rebuild();
+        }
+        return scoreHeap;
+    }
+
+    /**
+     * Called by a cell whenever its risk, animal or passability changes,
+     * with what it contributed to the totals before the change
+     */
+    void cellChanged(Cell cell, boolean wasPassable, double oldRisk, boolean wasCovered) {
+        coverageStats.changed(cell, wasPassable, oldRisk, wasCovered);
+        tilePyramid = null;  // Layer change: rebuild on next request
+        if (scoreHeap != null) {
+            scoreHeap.update(cell);
+        }
+    }
+
+    /**
+     * Called by a cell after each visit
+     */
+    void cellVisited(Cell cell) {
+        coverageStats.visited(cell);
+        if (tilePyramid != null && cell.isPassable()) {
+            tilePyramid.addVisit(cell.getRow(), cell.getCol(), cell.getVisitCount());
+        }
+        if (scoreHeap != null) {
+            scoreHeap.update(cell);
         }
     }
 
     /**
-     * Initialize grid from map data
+     * Initialize grid from map data. A sparse grid only stores the cells
+     * that differ from the default.
      */
     public void initializeFromMaps(double[][] riskMap, boolean[][] animalMap, int[][] terrainMap) {
+        // Bulk load without per-cell heap repairs, then heapify once
+        if (scoreHeap != null) {
+            scoreHeap.suspend();
+        }
         for (int row = 0; row < size; row++) {
             for (int col = 0; col < size; col++) {
-                cells[row][col].setRiskLevel(riskMap[row][col]);
-                cells[row][col].setHasAnimal(animalMap[row][col]);
-                cells[row][col].setPassable(terrainMap[row][col] == 1);
+                if (sparse && MapData.isDefaultCell(riskMap[row][col], animalMap[row][col], terrainMap[row][col])) {
+                    continue;
+                }
+                Cell cell = getCell(row, col);
+                // Passability first, so an impassable cell's risk never enters the totals
+                cell.setPassable(terrainMap[row][col] == 1);
+                cell.setRiskLevel(riskMap[row][col]);
+                cell.setHasAnimal(animalMap[row][col]);
             }
         }
+        if (scoreHeap != null) {
+            scoreHeap.rebuild();
+        }
+    }
+
+    /**
+     * Initialize only the listed cells; every other cell keeps its default
+     * values. Cost scales with the number of cells listed.
+     * @param cellIndices Row-major indices in ascending order
+     * @param risk Risk of each listed cell
+     * @param animals Whether each listed cell holds animals
+     * @param terrain Terrain of each listed cell, 1 for passable
+     */
+    public void initializeFromCells(int[] cellIndices, double[] risk, boolean[] animals, int[] terrain) {
+        if (scoreHeap != null) {
+            scoreHeap.suspend();
+        }
+        for (int i = 0; i < cellIndices.length; i++) {
+            Cell cell = getCell(cellIndices[i] / size, cellIndices[i] % size);
+            cell.setPassable(terrain[i] == 1);
+            cell.setRiskLevel(risk[i]);
+            cell.setHasAnimal(animals[i]);
+        }
+        if (scoreHeap != null) {
+            scoreHeap.rebuild();
+        }
     }
 
     /**
-     * Get a cell at specific coordinates
+     * Get a cell at specific coordinates. On a sparse grid a default cell is
+     * created and stored on first access.
      */
     public Cell getCell(int row, int col) {
-        if (isValidPosition(row, col)) {
+        if (!isValidPosition(row, col)) {
+            return null;
+        }
+        if (!sparse) {
             return cells[row][col];
         }
-        return null;
+
+        int index = row * size + col;
+        Cell cell = storedCells.get(index);
+        if (cell == null) {
+            cell = new Cell(row, col);
+            cell.grid = this;
+            storedCells.put(index, cell);
+            if (scoreHeap != null) {
+                scoreHeap.register(cell);
+                scoreHeap.update(cell);
+            }
+        }
+        return cell;
+    }
+
+    /**
+     * Get a cell for reading: the stored cell, or for an untouched cell of a
+     * sparse grid a detached default one that is not stored. Changes to a
+     * detached cell do not reach the grid; use getCell to modify.
+     */
+    public Cell readCell(int row, int col) {
+        Cell cell = peekCell(row, col);
+        return cell != null || !isValidPosition(row, col) ? cell : new Cell(row, col);
+    }
+
+    /**
+     * Get a cell only if it is stored; null for an untouched default cell of a
+     * sparse grid. Never allocates.
+     */
+    public Cell peekCell(int row, int col) {
+        if (!isValidPosition(row, col)) {
+            return null;
+        }
+        return sparse ? storedCells.get(row * size + col) : cells[row][col];
     }
 
     /**
@@ -53,7 +209,23 @@ public class Grid {
     }
 
     /**
-     * Get all valid neighboring cells (up, down, left, right)
+     * Whether an in-bounds cell is passable, without creating it
+     */
+    public boolean isPassable(int row, int col) {
+        Cell cell = peekCell(row, col);
+        return cell == null || cell.isPassable();
+    }
+
+    /**
+     * Effective score of an in-bounds cell, without creating it
+     */
+    public double getScore(int row, int col) {
+        Cell cell = peekCell(row, col);
+        return cell == null ? 0.0 : cell.calculateScore();
+    }
+
+    /**
+     * Get all valid neighboring cells (up, down, left, right), for reading (see readCell)
      */
     public List<Cell> getNeighbors(int row, int col) {
         List<Cell> neighbors = new ArrayList<>();
@@ -63,8 +235,8 @@ public class Grid {
             int newRow = row + dir[0];
             int newCol = col + dir[1];
 
-            if (isValidPosition(newRow, newCol) && cells[newRow][newCol].isPassable()) {
-                neighbors.add(cells[newRow][newCol]);
+            if (isValidPosition(newRow, newCol) && isPassable(newRow, newCol)) {
+                neighbors.add(readCell(newRow, newCol));
             }
         }
 
@@ -72,14 +244,16 @@ public class Grid {
     }
 
     /**
-     * Get all passable cells in the grid
+     * Get all passable cells in the grid, for reading (see readCell). Lists
+     * every cell of a sparse grid; prefer getHighestRiskCells or getAnimalCells there.
      */
     public List<Cell> getPassableCells() {
         List<Cell> passable = new ArrayList<>();
         for (int row = 0; row < size; row++) {
             for (int col = 0; col < size; col++) {
-                if (cells[row][col].isPassable()) {
-                    passable.add(cells[row][col]);
+                Cell cell = readCell(row, col);
+                if (cell.isPassable()) {
+                    passable.add(cell);
                 }
             }
         }
@@ -87,18 +261,135 @@ public class Grid {
     }
 
     /**
-     * Calculate total risk across the grid
+     * Get up to k passable cells by descending risk, ties in row-major order,
+     * for reading (see readCell)
      */
-    public double calculateTotalRisk() {
-        double total = 0;
+    public List<Cell> getHighestRiskCells(int k) {
+        if (!sparse) {
+            List<Cell> passable = getPassableCells();
+            passable.sort((a, b) -> Double.compare(b.getRiskLevel(), a.getRiskLevel()));
+            return new ArrayList<>(passable.subList(0, Math.min(k, passable.size())));
+        }
+
+        List<Cell> ranked = new ArrayList<>();
+        for (Cell cell : getStoredCells()) {
+            if (cell.isPassable() && cell.getRiskLevel() > 0) {
+                ranked.add(cell);
+            }
+        }
+        ranked.sort((a, b) -> Double.compare(b.getRiskLevel(), a.getRiskLevel()));
+        if (ranked.size() >= k) {
+            return new ArrayList<>(ranked.subList(0, k));
+        }
+
+        // Zero-risk passable cells follow in row-major order
+        addZeroCells(ranked, k, false);
+        return ranked;
+    }
+
+    /**
+     * Sparse grids only: append passable cells that score 0 (or have 0 risk)
+     * in row-major order until the list holds k cells. Walks the gaps between
+     * stored cells, so the cost is O(k + stored cells) rather than the grid.
+     * Untouched cells are added detached, so the query stores nothing.
+     */
+    private void addZeroCells(List<Cell> out, int k, boolean byScore) {
+        int limit = Math.min(k, coverageStats.getPassableCells());
+        Cell[] stored = getStoredCells();
+        int next = 0;
+        for (int index = 0; index < size * size && out.size() < limit; index++) {
+            Cell cell = null;
+            if (next < stored.length && stored[next].getRow() * size + stored[next].getCol() == index) {
+                cell = stored[next++];
+                double value = byScore ? cell.calculateScore() : cell.getRiskLevel();
+                if (!cell.isPassable() || value > 0) continue;
+            }
+            out.add(cell != null ? cell : new Cell(index / size, index % size));
+        }
+    }
+
+    /**
+     * Get passable cells holding animals, in row-major order
+     */
+    public List<Cell> getAnimalCells() {
+        List<Cell> animals = new ArrayList<>();
+        if (sparse) {
+            for (Cell cell : getStoredCells()) {
+                if (cell.isPassable() && cell.hasAnimal()) {
+                    animals.add(cell);
+                }
+            }
+            return animals;
+        }
         for (int row = 0; row < size; row++) {
             for (int col = 0; col < size; col++) {
-                if (cells[row][col].isPassable()) {
-                    total += cells[row][col].getRiskLevel();
+                if (cells[row][col].isPassable() && cells[row][col].hasAnimal()) {
+                    animals.add(cells[row][col]);
                 }
             }
         }
-        return total;
+        return animals;
+    }
+
+    /**
+     * Get the passable cell with the highest effective score, O(1) unless a
+     * sparse grid has nothing scoring above 0 (after the first ranking query,
+     * which builds the heap in O(n)). For reading (see readCell).
+     * @return Best cell, or null if nothing is passable
+     */
+    public Cell getBestCell() {
+        Cell best = scoreHeap().peek();
+        if (!sparse || (best != null && best.calculateScore() > 0)) {
+            return best;
+        }
+        List<Cell> top = getTopCells(1);
+        return top.isEmpty() ? null : top.get(0);
+    }
+
+    /**
+     * Get the k passable cells with the highest effective scores, best first.
+     * Walks the top of the score heap with a small frontier, O(k log k); a
+     * sparse grid pads with zero-score cells in O(k + stored cells). For
+     * reading (see readCell).
+     */
+    public List<Cell> getTopCells(int k) {
+        List<Cell> top = new ArrayList<>();
+        if (k <= 0) {
+            return top;
+        }
+
+        // Frontier of heap slots, itself ordered as a max-heap on the same keys
+        ScoreHeap scoreHeap = scoreHeap();
+        PriorityQueue<Integer> frontier = new PriorityQueue<>(
+            (a, b) -> a.equals(b) ? 0 : (scoreHeap.higher(a, b) ? -1 : 1));
+        if (scoreHeap.count() > 0) {
+            frontier.add(0);
+        }
+
+        while (!frontier.isEmpty() && top.size() < k) {
+            int slot = frontier.peek();
+            if (sparse && scoreHeap.cellAt(slot).calculateScore() <= 0) {
+                break;  // Zero scores tie with unstored cells; ordered below
+            }
+            frontier.poll();
+            top.add(scoreHeap.cellAt(slot));
+            int left = 2 * slot + 1;
+            if (left < scoreHeap.count()) frontier.add(left);
+            if (left + 1 < scoreHeap.count()) frontier.add(left + 1);
+        }
+
+        // On a sparse grid the remaining cells all score 0; take them in row-major order
+        if (sparse) {
+            addZeroCells(top, k, true);
+        }
+        return top;
+    }
+
+    /**
+     * Calculate total risk across the grid
+     */
+    public double calculateTotalRisk() {
+        return coverageStats.getTotalRisk();
     }
 
     /**
@@ -106,6 +397,12 @@ public class Grid {
      */
     public int[][] getCoverageMatrix() {
         int[][] coverage = new int[size][size];
+        if (sparse) {
+            for (Cell cell : getStoredCells()) {
+                coverage[cell.getRow()][cell.getCol()] = cell.getVisitCount();
+            }
+            return coverage;
+        }
         for (int row = 0; row < size; row++) {
             for (int col = 0; col < size; col++) {
                 coverage[row][col] = cells[row][col].getVisitCount();
@@ -114,10 +411,60 @@ public class Grid {
         return coverage;
     }
 
-    public int getSize() { 
-        return size; 
+    /**
+     * Running risk and coverage totals, current after every change and visit
+     */
+    public CoverageStats getCoverageStats() {
+        return coverageStats;
     }
-    public Cell[][] getCells() { 
-        return cells; 
+
+    /**
+     * Get the risk/coverage tile pyramid, building it on first use
+     */
+    public TilePyramid getTilePyramid() {
+        if (tilePyramid == null) {
+            TilePyramid pyramid = new TilePyramid(size);
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    Cell cell = peekCell(row, col);
+                    if (cell == null) {
+                        pyramid.addCell(row, col, 0.0, 0);
+                    } else if (cell.isPassable()) {
+                        pyramid.addCell(row, col, cell.getRiskLevel(), cell.getVisitCount());
+                    }
+                }
+            }
+            tilePyramid = pyramid;
+        }
+        return tilePyramid;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isSparse() {
+        return sparse;
+    }
+
+    /**
+     * Dense grids only: the full cell array
+     */
+    public Cell[][] getCells() {
+        if (sparse) {
+            throw new IllegalStateException("A sparse grid has no dense cell array");
+        }
+        return cells;
+    }
+
+    /**
+     * Sparse grids only: every stored cell in row-major order. Cells not
+     * listed have default values. Read-only view.
+     */
+    public Cell[] getStoredCells() {
+        if (!sparse) {
+            throw new IllegalStateException("A dense grid stores every cell");
+        }
+        return storedCells.inIndexOrder();
     }
 }
@@ -0,0 +1,333 @@
+package antipoaching.model;
+
+import com.google.gson.JsonArray;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+/**
+ * Immutable parsed map layers, shared between requests in a warm container.
+ * A fresh Grid is built from it for every optimization run.
+ *
+ * A dense map keeps its three layers as arrays. A sparse map (fewer than
+ * SPARSE_DENSITY_THRESHOLD of its cells differ from the default) keeps only
+ * its non-default cells, sorted by row-major index, and builds sparse grids
+ * from them directly, so both the cached map and every grid built from it
+ * scale with the hotspots. Parsing decides as it goes: cells are collected
+ * sparsely until they pass the threshold, and only then are dense layers
+ * allocated.
+ */
+public class MapData {
+    /** Below this fraction of non-default cells a map is loaded as a sparse grid */
+    public static final double SPARSE_DENSITY_THRESHOLD = 0.1;
+
+    private final int gridSize;
+    private final int nonDefaultCount;
+
+    // Dense maps only
+    private final double[][] riskMap;
+    private final boolean[][] animalMap;
+    private final int[][] terrainMap;
+
+    // Sparse maps only: non-default cells by ascending row-major index
+    private final int[] cellIndices;
+    private final double[] cellRisk;
+    private final boolean[] cellAnimal;
+    private final int[] cellTerrain;
+
+    public MapData(int gridSize, double[][] riskMap, boolean[][] animalMap, int[][] terrainMap) {
+        this(Builder.of(gridSize, riskMap, animalMap, terrainMap));
+    }
+
+    private MapData(Builder layers) {
+        this.gridSize = layers.gridSize;
+        this.nonDefaultCount = layers.count;
+        this.riskMap = layers.riskMap;
+        this.animalMap = layers.animalMap;
+        this.terrainMap = layers.terrainMap;
+        boolean sparse = layers.riskMap == null;
+        this.cellIndices = sparse ? Arrays.copyOf(layers.indices, layers.count) : null;
+        this.cellRisk = sparse ? Arrays.copyOf(layers.risk, layers.count) : null;
+        this.cellAnimal = sparse ? Arrays.copyOf(layers.animals, layers.count) : null;
+        this.cellTerrain = sparse ? Arrays.copyOf(layers.terrain, layers.count) : null;
+    }
+
+    /**
+     * Parse map layers from nested JSON arrays
+     */
+    public static MapData fromJson(int gridSize, JsonArray riskMapJson,
+                                   JsonArray animalMapJson, JsonArray terrainMapJson) {
+        Builder layers = new Builder(gridSize);
+        for (int i = 0; i < gridSize; i++) {
+            JsonArray riskRow = riskMapJson.get(i).getAsJsonArray();
+            JsonArray animalRow = animalMapJson.get(i).getAsJsonArray();
+            JsonArray terrainRow = terrainMapJson.get(i).getAsJsonArray();
+
+            for (int j = 0; j < gridSize; j++) {
+                layers.add(riskRow.get(j).getAsDouble(), animalRow.get(j).getAsBoolean(),
+                    terrainRow.get(j).getAsInt());
+            }
+        }
+        return new MapData(layers);
+    }
+
+    /**
+     * Parse map layers from their stored JSON text, streaming all three in
+     * step so no JSON tree is built
+     * @throws IllegalArgumentException if a layer is not a gridSize x gridSize array of values
+     */
+    public static MapData fromJson(int gridSize, String riskMapJson,
+                                   String animalMapJson, String terrainMapJson) {
+        Builder layers = new Builder(gridSize);
+        try (JsonReader risk = new JsonReader(new StringReader(riskMapJson));
+             JsonReader animals = new JsonReader(new StringReader(animalMapJson));
+             JsonReader terrain = new JsonReader(new StringReader(terrainMapJson))) {
+            risk.beginArray();
+            animals.beginArray();
+            terrain.beginArray();
+            for (int i = 0; i < gridSize; i++) {
+                risk.beginArray();
+                animals.beginArray();
+                terrain.beginArray();
+                for (int j = 0; j < gridSize; j++) {
+                    layers.add(risk.nextDouble(), animals.nextBoolean(), terrain.nextInt());
+                }
+                risk.endArray();
+                animals.endArray();
+                terrain.endArray();
+            }
+            risk.endArray();
+            animals.endArray();
+            terrain.endArray();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw new IllegalArgumentException("Map layers must be " + gridSize + "x" + gridSize
+                + " nested arrays of values: " + e.getMessage());
+        }
+        return new MapData(layers);
+    }
+
+    /**
+     * Whether a cell in the layers differs from the one a fresh grid starts with
+     */
+    public static boolean isDefaultCell(double risk, boolean hasAnimal, int terrain) {
+        return risk == 0.0 && !hasAnimal && terrain == 1;
+    }
+
+    /**
+     * Build a new grid with no visits from these layers, sparse if few cells
+     * differ from the default. A sparse grid is loaded from the stored cells
+     * alone.
+     */
+    public Grid toGrid() {
+        if (isSparse()) {
+            Grid grid = new Grid(gridSize, true);
+            grid.initializeFromCells(cellIndices, cellRisk, cellAnimal, cellTerrain);
+            return grid;
+        }
+        Grid grid = new Grid(gridSize);
+        grid.initializeFromMaps(riskMap, animalMap, terrainMap);
+        return grid;
+    }
+
+    /**
+     * Fraction of cells with non-zero risk, an animal or non-passable terrain
+     */
+    public double getDensity() {
+        return gridSize > 0 ? (double) nonDefaultCount / ((long) gridSize * gridSize) : 0;
+    }
+
+    public boolean isSparse() {
+        return riskMap == null;
+    }
+
+    public int getGridSize() { return gridSize; }
+
+    /**
+     * Risk of one cell; O(log n) on a sparse map
+     */
+    public double getRisk(int row, int col) {
+        if (!isSparse()) return riskMap[row][col];
+        int slot = find(row, col);
+        return slot >= 0 ? cellRisk[slot] : 0.0;
+    }
+
+    /**
+     * Whether one cell holds animals; O(log n) on a sparse map
+     */
+    public boolean hasAnimal(int row, int col) {
+        if (!isSparse()) return animalMap[row][col];
+        int slot = find(row, col);
+        return slot >= 0 && cellAnimal[slot];
+    }
+
+    /**
+     * Whether one cell is passable; O(log n) on a sparse map
+     */
+    public boolean isPassable(int row, int col) {
+        if (!isSparse()) return terrainMap[row][col] == 1;
+        int slot = find(row, col);
+        return slot < 0 || cellTerrain[slot] == 1;
+    }
+
+    private int find(int row, int col) {
+        return Arrays.binarySearch(cellIndices, row * gridSize + col);
+    }
+
+    /**
+     * Full risk layer, for serialising the map. A sparse map builds it on
+     * each call; planning code should use getRisk.
+     */
+    public double[][] toRiskMap() {
+        if (!isSparse()) return riskMap;
+        double[][] layer = new double[gridSize][gridSize];
+        for (int i = 0; i < cellIndices.length; i++) {
+            layer[cellIndices[i] / gridSize][cellIndices[i] % gridSize] = cellRisk[i];
+        }
+        return layer;
+    }
+
+    /**
+     * Full animal layer, for serialising the map; built on each call for a sparse map
+     */
+    public boolean[][] toAnimalMap() {
+        if (!isSparse()) return animalMap;
+        boolean[][] layer = new boolean[gridSize][gridSize];
+        for (int i = 0; i < cellIndices.length; i++) {
+            layer[cellIndices[i] / gridSize][cellIndices[i] % gridSize] = cellAnimal[i];
+        }
+        return layer;
+    }
+
+    /**
+     * Full terrain layer, for serialising the map; built on each call for a sparse map
+     */
+    public int[][] toTerrainMap() {
+        if (!isSparse()) return terrainMap;
+        int[][] layer = new int[gridSize][gridSize];
+        for (int[] row : layer) {
+            Arrays.fill(row, 1);
+        }
+        for (int i = 0; i < cellIndices.length; i++) {
+            layer[cellIndices[i] / gridSize][cellIndices[i] % gridSize] = cellTerrain[i];
+        }
+        return layer;
+    }
+
+    /**
+     * Collects cells in row-major order, sparsely until they reach the
+     * density threshold and densely from then on
+     */
+    private static final class Builder {
+        final int gridSize;
+        int count;                  // Non-default cells so far
+        int next;                   // Row-major index of the next cell added
+
+        int[] indices = new int[16];
+        double[] risk = new double[16];
+        boolean[] animals = new boolean[16];
+        int[] terrain = new int[16];
+
+        double[][] riskMap;
+        boolean[][] animalMap;
+        int[][] terrainMap;
+
+        Builder(int gridSize) {
+            this.gridSize = gridSize;
+        }
+
+        /**
+         * Whether this many non-default cells make the map dense, by the same
+         * division getDensity uses
+         */
+        boolean isDense(long nonDefault) {
+            return gridSize > 0
+                && (double) nonDefault / ((long) gridSize * gridSize) >= SPARSE_DENSITY_THRESHOLD;
+        }
+
+        /**
+         * Adopt layers that are already dense, keeping them as they are if
+         * the map turns out dense
+         */
+        static Builder of(int gridSize, double[][] riskMap, boolean[][] animalMap, int[][] terrainMap) {
+            Builder layers = new Builder(gridSize);
+            long nonDefault = 0;
+            for (int row = 0; row < gridSize; row++) {
+                for (int col = 0; col < gridSize; col++) {
+                    if (!isDefaultCell(riskMap[row][col], animalMap[row][col], terrainMap[row][col])) {
+                        nonDefault++;
+                    }
+                }
+            }
+            if (layers.isDense(nonDefault)) {
+                layers.count = (int) nonDefault;
+                layers.riskMap = riskMap;
+                layers.animalMap = animalMap;
+                layers.terrainMap = terrainMap;
+                return layers;
+            }
+            for (int row = 0; row < gridSize; row++) {
+                for (int col = 0; col < gridSize; col++) {
+                    layers.add(riskMap[row][col], animalMap[row][col], terrainMap[row][col]);
+                }
+            }
+            return layers;
+        }
+
+        void add(double cellRisk, boolean hasAnimal, int cellTerrain) {
+            int index = next++;
+            boolean nonDefault = !isDefaultCell(cellRisk, hasAnimal, cellTerrain);
+            if (riskMap != null) {
+                int row = index / gridSize;
+                int col = index % gridSize;
+                riskMap[row][col] = cellRisk;
+                animalMap[row][col] = hasAnimal;
+                terrainMap[row][col] = cellTerrain;
+                if (nonDefault) count++;
+                return;
+            }
+            if (!nonDefault) {
+                return;
+            }
+
+            if (count == indices.length) {
+                indices = Arrays.copyOf(indices, count * 2);
+                risk = Arrays.copyOf(risk, count * 2);
+                animals = Arrays.copyOf(animals, count * 2);
+                terrain = Arrays.copyOf(terrain, count * 2);
+            }
+            indices[count] = index;
+            risk[count] = cellRisk;
+            animals[count] = hasAnimal;
+            terrain[count] = cellTerrain;
+            count++;
+            if (isDense(count)) {
+                densify();
+            }
+        }
+
+        /**
+         * Switch to dense layers holding every cell added so far
+         */
+        private void densify() {
+            riskMap = new double[gridSize][gridSize];
+            animalMap = new boolean[gridSize][gridSize];
+            terrainMap = new int[gridSize][gridSize];
+            for (int[] row : terrainMap) {
+                Arrays.fill(row, 1);
+            }
+            for (int i = 0; i < count; i++) {
+                int row = indices[i] / gridSize;
+                int col = indices[i] % gridSize;
+                riskMap[row][col] = risk[i];
+                animalMap[row][col] = animals[i];
+                terrainMap[row][col] = terrain[i];
+            }
+            indices = null;
+            risk = null;
+            animals = null;
+            terrain = null;
+        }
+    }
+}
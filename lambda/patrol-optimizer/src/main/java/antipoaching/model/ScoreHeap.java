@@ -0,0 +1,162 @@
+package antipoaching.model;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary max-heap over the effective scores of passable cells.
+ * Each registered cell gets a dense id (its row-major index on a dense grid,
+ * its registration order on a sparse one), and every id's heap slot is
+ * tracked so a score change is repaired in O(log n) without searching.
+ */
+class ScoreHeap {
+    private final int gridSize;
+    private Cell[] cellsById;
+    private int[] heap;      // heap slot -> cell id
+    private int[] position;  // cell id -> heap slot, -1 if absent
+    private int registered;
+    private int count;
+    private boolean suspended;     // true while the grid is being bulk-loaded
+
+    ScoreHeap(int gridSize, int capacity) {
+        this.gridSize = gridSize;
+        int initial = Math.max(capacity, 16);
+        this.cellsById = new Cell[initial];
+        this.heap = new int[initial];
+        this.position = new int[initial];
+    }
+
+    /**
+     * Give a cell the next id. It enters the heap on its next update().
+     */
+    void register(Cell cell) {
+        if (registered == cellsById.length) {
+            int capacity = registered * 2;
+            cellsById = Arrays.copyOf(cellsById, capacity);
+            heap = Arrays.copyOf(heap, capacity);
+            position = Arrays.copyOf(position, capacity);
+        }
+        cell.id = registered;
+        cellsById[registered] = cell;
+        position[registered] = -1;
+        registered++;
+    }
+
+    /**
+     * Stop tracking changes until the next rebuild()
+     */
+    void suspend() {
+        suspended = true;
+    }
+
+    /**
+     * Re-heapify all passable cells in O(n)
+     */
+    void rebuild() {
+        count = 0;
+        for (int id = 0; id < registered; id++) {
+            if (cellsById[id].isPassable()) {
+                heap[count] = id;
+                position[id] = count;
+                count++;
+            } else {
+                position[id] = -1;
+            }
+        }
+        for (int slot = count / 2 - 1; slot >= 0; slot--) {
+            siftDown(slot);
+        }
+        suspended = false;
+    }
+
+    /**
+     * Repair the heap after a cell's score or passability changed
+     */
+    void update(Cell cell) {
+        if (suspended) return;
+
+        int id = cell.id;
+        int slot = position[id];
+
+        if (!cell.isPassable()) {
+            if (slot >= 0) removeAt(slot);
+            return;
+        }
+        if (slot < 0) {
+            heap[count] = id;
+            position[id] = count;
+            siftUp(count++);
+            return;
+        }
+        siftDown(siftUp(slot));
+    }
+
+    Cell peek() {
+        return count > 0 ? cellsById[heap[0]] : null;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Cell at a heap slot; children of slot s live at 2s+1 and 2s+2
+     */
+    Cell cellAt(int slot) {
+        return cellsById[heap[slot]];
+    }
+
+    /**
+     * Whether the cell in slot a should sit above the cell in slot b
+     */
+    boolean higher(int a, int b) {
+        Cell cellA = cellsById[heap[a]];
+        Cell cellB = cellsById[heap[b]];
+        double scoreA = cellA.calculateScore();
+        double scoreB = cellB.calculateScore();
+        if (scoreA != scoreB) return scoreA > scoreB;
+        // Deterministic tie-break: lower row-major index first
+        return cellA.getRow() * gridSize + cellA.getCol() < cellB.getRow() * gridSize + cellB.getCol();
+    }
+
+    private void removeAt(int slot) {
+        int id = heap[slot];
+        count--;
+        position[id] = -1;
+        if (slot == count) return;
+
+        heap[slot] = heap[count];
+        position[heap[slot]] = slot;
+        siftDown(siftUp(slot));
+    }
+
+    private int siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (!higher(slot, parent)) break;
+            swap(slot, parent);
+            slot = parent;
+        }
+        return slot;
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int left = 2 * slot + 1;
+            int right = left + 1;
+            int best = slot;
+            if (left < count && higher(left, best)) best = left;
+            if (right < count && higher(right, best)) best = right;
+            if (best == slot) return;
+            swap(slot, best);
+            slot = best;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+        position[heap[a]] = a;
+        position[heap[b]] = b;
+    }
+}
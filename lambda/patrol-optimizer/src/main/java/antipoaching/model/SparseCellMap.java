@@ -0,0 +1,141 @@
+package antipoaching.model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash from row-major cell index to Cell, used by sparse grids.
+ * Keys live in a primitive int array with linear probing, so a lookup is a
+ * few array reads with no boxing. Cells are only ever added, never removed.
+ *
+ * The row-major listing is kept alongside: cells added since it was last read
+ * wait in a pending buffer and are sorted on their own and merged in on the
+ * next read, so a read after k inserts costs O(n + k log k) rather than a
+ * full re-sort.
+ */
+class SparseCellMap {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private Cell[] values;
+    private int count;
+    private int[] orderedKeys = new int[0];     // Indices of listed cells, ascending
+    private Cell[] ordered = new Cell[0];       // Listed cells, in orderedKeys order
+    private int[] pendingKeys = new int[16];    // Added since the last listing, unsorted
+    private Cell[] pending = new Cell[16];
+    private int pendingCount;
+
+    SparseCellMap(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new Cell[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    Cell get(int index) {
+        int mask = keys.length - 1;
+        for (int slot = mix(index) & mask; ; slot = (slot + 1) & mask) {
+            int key = keys[slot];
+            if (key == index) return values[slot];
+            if (key == EMPTY) return null;
+        }
+    }
+
+    /**
+     * Add a cell that is not yet present
+     */
+    void put(int index, Cell cell) {
+        if ((count + 1) * 2 > keys.length) {
+            grow();
+        }
+        insert(index, cell);
+        count++;
+        if (pendingCount == pendingKeys.length) {
+            pendingKeys = Arrays.copyOf(pendingKeys, pendingCount * 2);
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+        }
+        pendingKeys[pendingCount] = index;
+        pending[pendingCount] = cell;
+        pendingCount++;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * All stored cells in row-major order. The array is not changed by later
+     * inserts; they produce a new one.
+     */
+    Cell[] inIndexOrder() {
+        if (pendingCount > 0) {
+            mergePending();
+        }
+        return ordered;
+    }
+
+    /**
+     * Sort the pending cells by index and merge them into the listing
+     */
+    private void mergePending() {
+        // Index in the high half, pending slot in the low half: sorts by index without boxing
+        long[] sorted = new long[pendingCount];
+        for (int i = 0; i < pendingCount; i++) {
+            sorted[i] = ((long) pendingKeys[i] << 32) | i;
+        }
+        Arrays.sort(sorted);
+
+        int total = ordered.length + pendingCount;
+        int[] keys = new int[total];
+        Cell[] cells = new Cell[total];
+        int a = 0;
+        int b = 0;
+        for (int n = 0; n < total; n++) {
+            if (b == pendingCount || (a < ordered.length && orderedKeys[a] < (int) (sorted[b] >>> 32))) {
+                keys[n] = orderedKeys[a];
+                cells[n] = ordered[a++];
+            } else {
+                keys[n] = (int) (sorted[b] >>> 32);
+                cells[n] = pending[(int) sorted[b++]];
+            }
+        }
+
+        orderedKeys = keys;
+        ordered = cells;
+        Arrays.fill(pending, 0, pendingCount, null);
+        pendingCount = 0;
+    }
+
+    private void insert(int index, Cell cell) {
+        int mask = keys.length - 1;
+        int slot = mix(index) & mask;
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = index;
+        values[slot] = cell;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        Cell[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Cell[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                insert(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    /**
+     * Spread neighboring indices across the table (Fibonacci hashing)
+     */
+    private static int mix(int index) {
+        int h = index * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,142 @@
+package antipoaching.raster;
+
+import antipoaching.model.MapData;
+import antipoaching.storage.MapRepository;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds map layers from GIS raster exports (ESRI ASCII or CSV, see RasterReader),
+ * resampled to a square grid.
+ *
+ * Each file is streamed once into the layer arrays, so memory is bounded by
+ * the output grid rather than the input text. Layers must share the risk
+ * raster's dimensions.
+ * - Risk: block mean, clamped to 0 - 1 and rounded to RISK_DECIMALS
+ * - Animals: present if any source cell in the block is non-zero
+ * - Terrain: passable (1) if at least half the block is 1; without a terrain
+ *   raster every block with risk data is passable
+ * No-data cells are left out of each block; blocks with no data at all keep
+ * zero risk, no animals and impassable terrain, as does any part of the grid
+ * a non-square raster does not reach.
+ *
+ * Usage: java -cp patrol-optimizer-1.0.0.jar antipoaching.raster.RasterImporter
+ *   risk=risk.asc gridSize=150 [animal=sightings.asc] [terrain=terrain.csv] [name="Map"]
+ * With a name, the map is saved through MapRepository (honouring DYNAMODB_ENDPOINT)
+ * and its mapId printed; without one, only a summary is printed.
+ */
+public class RasterImporter {
+
+    public static final int RISK_DECIMALS = 3;
+
+    /**
+     * Largest grid whose layers fit one DynamoDB item (400 KB): at most 14
+     * bytes of stored JSON per cell ("0.123," + "false," + "1,")
+     */
+    public static final int MAX_GRID_SIZE = 150;
+    private static final double PASSABLE_FRACTION = 0.5;
+
+    private RasterImporter() {}
+
+    /**
+     * Import raster layers into map data
+     * @param riskFile Risk raster (required)
+     * @param animalFile Animal sighting raster, or null for none
+     * @param terrainFile Terrain raster with 1 for passable, or null for passable wherever the risk raster has data
+     * @param gridSize Output grid size, 1 to MAX_GRID_SIZE
+     * @throws IllegalArgumentException if gridSize is out of range or a layer does not match the risk raster
+     */
+    public static MapData importLayers(Path riskFile, Path animalFile, Path terrainFile,
+                                       int gridSize) throws IOException {
+        if (gridSize <= 0 || gridSize > MAX_GRID_SIZE) {
+            throw new IllegalArgumentException(
+                "gridSize must be between 1 and " + MAX_GRID_SIZE + ", got " + gridSize);
+        }
+        try (RasterReader risk = RasterReader.open(riskFile)) {
+            int rows = risk.getRows();
+            int cols = risk.getCols();
+
+            double[][] riskMap = new double[gridSize][gridSize];
+            boolean[][] animalMap = new boolean[gridSize][gridSize];
+            int[][] terrainMap = new int[gridSize][gridSize];
+            double scale = Math.pow(10, RISK_DECIMALS);
+
+            boolean allPassable = terrainFile == null;
+            Resampler riskResampler = new Resampler(rows, cols, gridSize, Resampler.Aggregation.MEAN,
+                (row, col, value) -> {
+                    riskMap[row][col] = Math.round(Math.max(0, Math.min(1, value)) * scale) / scale;
+                    if (allPassable) {
+                        terrainMap[row][col] = 1;
+                    }
+                });
+            risk.read(riskResampler::add);
+            riskResampler.finish();
+
+            if (animalFile != null) {
+                try (RasterReader animals = openMatching(animalFile, rows, cols)) {
+                    Resampler resampler = new Resampler(rows, cols, gridSize, Resampler.Aggregation.MAX,
+                        (row, col, value) -> animalMap[row][col] = value > 0);
+                    animals.read((row, col, value) -> resampler.add(row, col, value != 0 ? 1 : 0));
+                    resampler.finish();
+                }
+            }
+
+            if (terrainFile != null) {
+                try (RasterReader terrain = openMatching(terrainFile, rows, cols)) {
+                    Resampler resampler = new Resampler(rows, cols, gridSize, Resampler.Aggregation.MEAN,
+                        (row, col, value) -> terrainMap[row][col] = value >= PASSABLE_FRACTION ? 1 : 0);
+                    terrain.read((row, col, value) -> resampler.add(row, col, value == 1 ? 1 : 0));
+                    resampler.finish();
+                }
+            }
+
+            return new MapData(gridSize, riskMap, animalMap, terrainMap);
+        }
+    }
+
+    private static RasterReader openMatching(Path file, int rows, int cols) throws IOException {
+        RasterReader reader = RasterReader.open(file);
+        if (reader.getRows() != rows || reader.getCols() != cols) {
+            reader.close();
+            throw new IllegalArgumentException(String.format(
+                "%s is %dx%d but the risk raster is %dx%d",
+                file.getFileName(), reader.getRows(), reader.getCols(), rows, cols));
+        }
+        return reader;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> config = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            config.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        if (!config.containsKey("risk") || !config.containsKey("gridSize")) {
+            throw new IllegalArgumentException("risk=<file> and gridSize=<1-" + MAX_GRID_SIZE + "> are required");
+        }
+
+        MapData mapData = importLayers(
+            Paths.get(config.get("risk")),
+            config.containsKey("animal") ? Paths.get(config.get("animal")) : null,
+            config.containsKey("terrain") ? Paths.get(config.get("terrain")) : null,
+            Integer.parseInt(config.get("gridSize")));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("gridSize", mapData.getGridSize());
+        summary.put("density", mapData.getDensity());
+        if (config.containsKey("name")) {
+            summary.putAll(new MapRepository().saveMap(config.get("name"), mapData));
+        }
+        System.out.println(new Gson().toJson(summary));
+    }
+}
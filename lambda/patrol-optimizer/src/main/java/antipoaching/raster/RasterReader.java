@@ -0,0 +1,363 @@
+package antipoaching.raster;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Streams cell values out of a raster file without holding its text in memory.
+ *
+ * Reads ESRI ASCII grids (ncols/nrows/... header, NODATA_value honoured) and
+ * plain CSV (one raster row per line, an optional header line, empty fields
+ * as no data). The file is read in fixed-size chunks through a FileChannel
+ * and numbers are parsed straight from the bytes, so memory use does not
+ * depend on the file size. CSV dimensions come from a quick first pass.
+ */
+public class RasterReader implements Closeable {
+
+    /**
+     * Receives each cell that holds data, in row-major order
+     */
+    public interface CellVisitor {
+        void accept(int row, int col, double value);
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final int MAX_FAST_DIGITS = 15;     // Any 15-digit integer is exact in a double
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] token = new byte[MAX_TOKEN_LENGTH];
+    private final boolean csv;
+
+    private int rows;
+    private int cols;
+    private double noData = Double.NaN;
+    private boolean csvHeader;
+    private int pendingToken = -1;     // Length of a data token read while parsing the ESRI header
+
+    private RasterReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.flip();
+
+        try {
+            int length = readToken();
+            this.csv = length < 0 || !isHeaderKey(text(length));
+            rewind();
+            if (csv) {
+                scanCsv();
+            } else {
+                readEsriHeader();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        if (rows <= 0 || cols <= 0) {
+            close();
+            throw new IllegalArgumentException(path.getFileName() + ": raster has no cells");
+        }
+    }
+
+    /**
+     * Open a raster, detecting ESRI ASCII by its header and treating anything else as CSV
+     */
+    public static RasterReader open(Path path) throws IOException {
+        return new RasterReader(path);
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+
+    /**
+     * Stream every cell with data to the visitor; no-data cells are skipped.
+     * Can only be called once per reader.
+     */
+    public void read(CellVisitor visitor) throws IOException {
+        if (csv) {
+            readCsv(visitor);
+        } else {
+            readEsri(visitor);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static boolean isHeaderKey(String key) {
+        switch (key.toLowerCase(Locale.ROOT)) {
+            case "ncols":
+            case "nrows":
+            case "xllcorner":
+            case "yllcorner":
+            case "xllcenter":
+            case "yllcenter":
+            case "cellsize":
+            case "dx":
+            case "dy":
+            case "nodata_value":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void readEsriHeader() throws IOException {
+        while (true) {
+            int length = readToken();
+            if (length < 0) {
+                break;
+            }
+            if (!Character.isLetter(token[0])) {
+                pendingToken = length;    // First data value
+                break;
+            }
+
+            String key = text(length).toLowerCase(Locale.ROOT);
+            if (!isHeaderKey(key)) {
+                throw new IllegalArgumentException(path.getFileName() + ": unknown header " + key);
+            }
+            int valueLength = readToken();
+            if (valueLength < 0) {
+                throw new IllegalArgumentException(path.getFileName() + ": missing value for " + key);
+            }
+            if ("ncols".equals(key)) {
+                cols = (int) parse(valueLength, -1, -1);
+            } else if ("nrows".equals(key)) {
+                rows = (int) parse(valueLength, -1, -1);
+            } else if ("nodata_value".equals(key)) {
+                noData = parse(valueLength, -1, -1);
+            }
+        }
+    }
+
+    private void readEsri(CellVisitor visitor) throws IOException {
+        long total = (long) rows * cols;
+        int row = 0;
+        int col = 0;
+        for (long i = 0; i < total; i++) {
+            int length = pendingToken >= 0 ? pendingToken : readToken();
+            pendingToken = -1;
+            if (length < 0) {
+                throw new IllegalArgumentException(String.format(
+                    "%s: expected %d values, found %d", path.getFileName(), total, i));
+            }
+
+            double value = parse(length, row, col);
+            if (value != noData && !Double.isNaN(value)) {
+                visitor.accept(row, col, value);
+            }
+            if (++col == cols) {
+                col = 0;
+                row++;
+            }
+        }
+    }
+
+    /**
+     * First pass over a CSV file: count non-blank lines, take the column count
+     * from the first one and check whether it is a header
+     */
+    private void scanCsv() throws IOException {
+        int lines = 0;
+        int firstLineFields = 1;
+        int firstFieldLength = 0;
+        boolean firstFieldDone = false;
+        boolean lineHasContent = false;
+
+        int b;
+        while ((b = read()) >= 0) {
+            if (b == '\n') {
+                if (lineHasContent) lines++;
+                lineHasContent = false;
+                continue;
+            }
+            if (isBlank(b)) continue;
+            lineHasContent = true;
+            if (lines > 0) continue;
+
+            if (b == ',') {
+                firstLineFields++;
+                firstFieldDone = true;
+            } else if (!firstFieldDone && firstFieldLength < MAX_TOKEN_LENGTH) {
+                token[firstFieldLength++] = (byte) b;
+            }
+        }
+        if (lineHasContent) lines++;
+
+        csvHeader = firstFieldLength > 0 && !isNumber(text(firstFieldLength));
+        rows = csvHeader ? lines - 1 : lines;
+        cols = firstLineFields;
+        rewind();
+    }
+
+    private void readCsv(CellVisitor visitor) throws IOException {
+        int line = 0;           // Non-blank lines seen, header included
+        int col = 0;
+        int length = 0;
+        boolean lineHasContent = false;
+
+        int b;
+        while (true) {
+            b = read();
+            if (b == ',' || b == '\n' || b < 0) {
+                int row = csvHeader ? line - 1 : line;
+                if (length > 0 && row >= 0) {
+                    if (col >= cols) {
+                        throw new IllegalArgumentException(String.format(
+                            "%s: row %d has more than %d values", path.getFileName(), row + 1, cols));
+                    }
+                    double value = parse(length, row, col);
+                    if (!Double.isNaN(value)) {
+                        visitor.accept(row, col, value);
+                    }
+                }
+                length = 0;
+
+                if (b == ',') {
+                    lineHasContent = true;
+                    col++;
+                } else {
+                    if (lineHasContent) line++;
+                    lineHasContent = false;
+                    col = 0;
+                    if (b < 0) break;
+                }
+            } else if (!isBlank(b) && b != '"') {
+                if (length == MAX_TOKEN_LENGTH) {
+                    throw new IllegalArgumentException(String.format(
+                        "%s: value too long at row %d", path.getFileName(), line + 1));
+                }
+                token[length++] = (byte) b;
+                lineHasContent = true;
+            }
+        }
+    }
+
+    private static boolean isBlank(int b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static boolean isNumber(String text) {
+        try {
+            Double.parseDouble(text);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Read the next whitespace-separated token into the token buffer
+     * @return Its length, or -1 at end of file
+     */
+    private int readToken() throws IOException {
+        int b = read();
+        while (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+            b = read();
+        }
+        if (b < 0) {
+            return -1;
+        }
+
+        int length = 0;
+        while (b >= 0 && b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+            if (length == MAX_TOKEN_LENGTH) {
+                throw new IllegalArgumentException(path.getFileName() + ": value too long");
+            }
+            token[length++] = (byte) b;
+            b = read();
+        }
+        return length;
+    }
+
+    /**
+     * Parse the token buffer as a number. Plain decimals of up to 15 significant
+     * digits are converted as digits / 10^scale, which is exact in both operands
+     * and so rounds the same as Double.parseDouble; anything else goes through it.
+     */
+    private double parse(int length, int row, int col) {
+        int i = 0;
+        boolean negative = false;
+        if (token[0] == '-' || token[0] == '+') {
+            negative = token[0] == '-';
+            i = 1;
+        }
+
+        long digits = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        for (; i < length; i++) {
+            byte b = token[i];
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (seenPoint) scale++;
+                if (digits == 0 && b == '0') continue;
+                if (++significant > MAX_FAST_DIGITS) {
+                    return parseSlow(length, row, col);
+                }
+                digits = digits * 10 + (b - '0');
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return parseSlow(length, row, col);
+            }
+        }
+        if (!seenDigit || scale >= POWERS_OF_TEN.length) {
+            return parseSlow(length, row, col);
+        }
+
+        double value = scale == 0 ? digits : digits / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private double parseSlow(int length, int row, int col) {
+        String text = text(length);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            String where = row >= 0 ? String.format(" at row %d, column %d", row + 1, col + 1) : "";
+            throw new IllegalArgumentException(
+                path.getFileName() + ": invalid value '" + text + "'" + where);
+        }
+    }
+
+    private String text(int length) {
+        return new String(token, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private int read() throws IOException {
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            int n = channel.read(buffer);
+            buffer.flip();
+            if (n <= 0) {
+                return -1;
+            }
+        }
+        return buffer.get() & 0xff;
+    }
+
+    private void rewind() throws IOException {
+        channel.position(0);
+        buffer.clear();
+        buffer.flip();
+    }
+}
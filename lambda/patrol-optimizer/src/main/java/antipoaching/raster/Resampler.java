@@ -0,0 +1,115 @@
+package antipoaching.raster;
+
+/**
+ * Maps a row-major stream of source cells onto a square grid of another size.
+ *
+ * Shrinking combines each block of source cells (mean or max); growing repeats
+ * each source cell over the block it covers. Both axes share one scale, so a
+ * non-square raster keeps its shape and fills the top-left of the grid. Only a
+ * single row of accumulators is held; each finished output cell is passed to
+ * the sink once, and cells no source value reached are never passed.
+ */
+class Resampler {
+
+    enum Aggregation { MEAN, MAX }
+
+    interface CellSink {
+        void accept(int row, int col, double value);
+    }
+
+    private final int sourceRows;
+    private final int sourceCols;
+    private final int targetRows;
+    private final int targetCols;
+    private final Aggregation aggregation;
+    private final CellSink sink;
+
+    private final double[] values;
+    private final int[] counts;
+    private int pendingFrom = -1;      // Output rows [pendingFrom, pendingTo) being accumulated
+    private int pendingTo;
+
+    Resampler(int sourceRows, int sourceCols, int gridSize, Aggregation aggregation, CellSink sink) {
+        int longest = Math.max(sourceRows, sourceCols);
+        this.sourceRows = sourceRows;
+        this.sourceCols = sourceCols;
+        this.targetRows = Math.max(1, (int) Math.round((double) sourceRows * gridSize / longest));
+        this.targetCols = Math.max(1, (int) Math.round((double) sourceCols * gridSize / longest));
+        this.aggregation = aggregation;
+        this.sink = sink;
+        this.values = new double[targetCols];
+        this.counts = new int[targetCols];
+    }
+
+    /**
+     * Output rows actually covered by the raster
+     */
+    int getTargetRows() { return targetRows; }
+
+    /**
+     * Output columns actually covered by the raster
+     */
+    int getTargetCols() { return targetCols; }
+
+    void add(int row, int col, double value) {
+        int from = first(row, sourceRows, targetRows);
+        if (from != pendingFrom) {
+            flush();
+            pendingFrom = from;
+            pendingTo = end(row, sourceRows, targetRows);
+        }
+
+        int colTo = end(col, sourceCols, targetCols);
+        for (int c = first(col, sourceCols, targetCols); c < colTo; c++) {
+            if (aggregation == Aggregation.MEAN) {
+                values[c] += value;
+            } else if (counts[c] == 0 || value > values[c]) {
+                values[c] = value;
+            }
+            counts[c]++;
+        }
+    }
+
+    /**
+     * Emit the last pending row; call once the source is exhausted
+     */
+    void finish() {
+        flush();
+    }
+
+    private void flush() {
+        if (pendingFrom < 0) {
+            return;
+        }
+        for (int c = 0; c < targetCols; c++) {
+            if (counts[c] == 0) continue;
+            double value = aggregation == Aggregation.MEAN ? values[c] / counts[c] : values[c];
+            for (int r = pendingFrom; r < pendingTo; r++) {
+                sink.accept(r, c, value);
+            }
+            values[c] = 0;
+            counts[c] = 0;
+        }
+        pendingFrom = -1;
+    }
+
+    /**
+     * First output index a source index maps to. Growing, source i covers the
+     * outputs t with floor(t * source / target) == i; shrinking, it falls in
+     * output floor(i * target / source).
+     */
+    private static int first(int index, int source, int target) {
+        return target >= source
+            ? (int) (((long) index * target + source - 1) / source)
+            : (int) ((long) index * target / source);
+    }
+
+    /**
+     * One past the last output index a source index maps to
+     */
+    private static int end(int index, int source, int target) {
+        return target >= source
+            ? first(index + 1, source, target)
+            : first(index, source, target) + 1;
+    }
+}
@@ -1,9 +1,11 @@
 package antipoaching.simulation;
 
 import antipoaching.model.Cell;
+import antipoaching.model.CoverageStats;
 import antipoaching.model.Grid;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -11,8 +13,8 @@ import java.util.Map;
  */
 public class PoachingSimulator {
 
-    private static final double PATROL_REDUCTION_FACTOR = 0.2;  // 80% risk reduction when patrolled
-    private static final double HIGH_RISK_THRESHOLD = 0.7;
+    public static final double PATROL_REDUCTION_FACTOR = CoverageStats.PATROL_REDUCTION_FACTOR;
+    public static final double HIGH_RISK_THRESHOLD = CoverageStats.HIGH_RISK_THRESHOLD;
 
     /**
      * Calculate comprehensive statistics
@@ -20,43 +22,15 @@ public class PoachingSimulator {
      * @return Map containing before/after risk statistics
      */
     public Map<String, Object> calculateStats(Grid grid) {
-        int size = grid.getSize();
-        Cell[][] cells = grid.getCells();
+        // Grid keeps these totals current as routes are laid down, so this is O(1)
+        CoverageStats totals = grid.getCoverageStats();
 
-        double totalBeforeRisk = 0;
-        double totalAfterRisk = 0;
-        int passableCells = 0;
-        int highRiskCells = 0;
-        int coveredHighRiskCells = 0;
-        int totalVisits = 0;
-
-        for (int row = 0; row < size; row++) {
-            for (int col = 0; col < size; col++) {
-                Cell cell = cells[row][col];
-
-                if (!cell.isPassable()) continue;
-
-                passableCells++;
-                double risk = cell.getRiskLevel();
-                totalBeforeRisk += risk;
-
-                // Calculate after risk based on patrol coverage
-                if (cell.getVisitCount() > 0) {
-                    totalAfterRisk += risk * PATROL_REDUCTION_FACTOR;
-                    totalVisits++;
-                } else {
-                    totalAfterRisk += risk;
-                }
-
-                // Track high risk coverage
-                if (risk >= HIGH_RISK_THRESHOLD) {
-                    highRiskCells++;
-                    if (cell.getVisitCount() > 0) {
-                        coveredHighRiskCells++;
-                    }
-                }
-            }
-        }
+        double totalBeforeRisk = totals.getTotalRisk();
+        double totalAfterRisk = totals.getAfterRisk();
+        int passableCells = totals.getPassableCells();
+        int highRiskCells = totals.getHighRiskCells();
+        int coveredHighRiskCells = totals.getCoveredHighRiskCells();
+        int totalVisits = totals.getCoveredCells();
 
         // Calculate percentages
         double avgBeforeRisk = passableCells > 0 ? totalBeforeRisk / passableCells : 0;
@@ -93,38 +67,30 @@ public class PoachingSimulator {
      * @return Simulation results
      */
     public Map<String, Object> simulatePoaching(Grid grid, int simulationRuns) {
-        int size = grid.getSize();
-        Cell[][] cells = grid.getCells();
+        // Only passable cells with animals can produce events
+        List<Cell> animalCells = grid.getAnimalCells();
+        int animalsAtRisk = animalCells.size();
 
         int beforePoachingEvents = 0;
         int afterPoachingEvents = 0;
-        int animalsAtRisk = 0;
 
         java.util.Random random = new java.util.Random();
 
         for (int run = 0; run < simulationRuns; run++) {
-            for (int row = 0; row < size; row++) {
-                for (int col = 0; col < size; col++) {
-                    Cell cell = cells[row][col];
-
-                    if (!cell.isPassable() || !cell.hasAnimal()) continue;
-
-                    if (run == 0) animalsAtRisk++;
-
-                    double risk = cell.getRiskLevel();
+            for (Cell cell : animalCells) {
+                double risk = cell.getRiskLevel();
 
-                    // Before patrol
-                    if (random.nextDouble() < risk) {
-                        beforePoachingEvents++;
-                    }
+                // Before patrol
+                if (random.nextDouble() < risk) {
+                    beforePoachingEvents++;
+                }
 
-                    // After patrol (reduced risk if patrolled)
-                    double effectiveRisk = cell.getVisitCount() > 0
-                        ? risk * PATROL_REDUCTION_FACTOR
-                        : risk;
-                    if (random.nextDouble() < effectiveRisk) {
-                        afterPoachingEvents++;
-                    }
+                // After patrol (reduced risk if patrolled)
+                double effectiveRisk = cell.getVisitCount() > 0
+                    ? risk * PATROL_REDUCTION_FACTOR
+                    : risk;
+                if (random.nextDouble() < effectiveRisk) {
+                    afterPoachingEvents++;
                 }
             }
         }
@@ -0,0 +1,235 @@
+package antipoaching.storage;
+
+import antipoaching.common.MapContent;
+import antipoaching.common.Timestamps;
+import antipoaching.model.MapData;
+
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import com.google.gson.Gson;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads and stores maps and writes optimization results directly from
+ * the optimizer, using the same table layout as the data-manager function.
+ *
+ * Parsed maps are kept in a small LRU cache for the life of a warm container,
+ * since maps are never modified once stored. A map record either points at
+ * shared layers in MapContents through its contentHash or, for older records,
+ * holds the layers inline; parsed layers are cached per content hash, so maps
+ * saved under several names share one copy.
+ */
+public class MapRepository {
+
+    private static final String MAPS_TABLE = "AntiPoachingMaps";
+    private static final String MAP_CONTENTS_TABLE = "MapContents";
+    private static final String RESULTS_TABLE = "PatrolResults";
+    private static final int MAP_CACHE_SIZE = 16;
+
+    private final DynamoDbClient dynamoDb;
+    private final Gson gson = new Gson();
+    private final Map<String, MapData> mapCache =
+        new LinkedHashMap<String, MapData>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MapData> eldest) {
+                return size() > MAP_CACHE_SIZE;
+            }
+        };
+
+    public MapRepository() {
+        this(createClient());
+    }
+
+    public MapRepository(DynamoDbClient dynamoDb) {
+        this.dynamoDb = dynamoDb;
+    }
+
+    /**
+     * Build the default client. DYNAMODB_ENDPOINT points it at a local stand-in.
+     */
+    private static DynamoDbClient createClient() {
+        DynamoDbClientBuilder builder = DynamoDbClient.builder()
+            .region(Region.US_EAST_1);  // Change to your region
+
+        String endpoint = System.getenv("DYNAMODB_ENDPOINT");
+        if (endpoint != null && !endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Load and parse a stored map
+     * @param mapId The map to load
+     * @return Parsed map layers, or null if no such map exists
+     */
+    public MapData loadMap(String mapId) {
+        synchronized (mapCache) {
+            MapData cached = mapCache.get(mapId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Map<String, AttributeValue> item = getItem(MAPS_TABLE, "mapId", mapId);
+        if (item == null) {
+            return null;
+        }
+
+        String cacheKey = mapId;
+        if (item.containsKey("contentHash")) {
+            cacheKey = item.get("contentHash").s();
+            synchronized (mapCache) {
+                MapData cached = mapCache.get(cacheKey);
+                if (cached != null) {
+                    mapCache.put(mapId, cached);
+                    return cached;
+                }
+            }
+            item = getItem(MAP_CONTENTS_TABLE, "contentHash", cacheKey);
+            if (item == null) {
+                return null;
+            }
+        }
+
+        MapData mapData = MapData.fromJson(
+            Integer.parseInt(item.get("gridSize").n()),
+            item.get("riskMap").s(),
+            item.get("animalMap").s(),
+            item.get("terrainMap").s());
+
+        synchronized (mapCache) {
+            mapCache.put(cacheKey, mapData);
+            mapCache.put(mapId, mapData);
+        }
+        return mapData;
+    }
+
+    private Map<String, AttributeValue> getItem(String table, String keyName, String keyValue) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put(keyName, AttributeValue.builder().s(keyValue).build());
+
+        GetItemResponse response = dynamoDb.getItem(GetItemRequest.builder()
+            .tableName(table)
+            .key(key)
+            .build());
+
+        return response.hasItem() ? response.item() : null;
+    }
+
+    /**
+     * Store a map in the same content-addressed layout data-manager writes,
+     * hashed through the same MapContent: layers once per content hash in
+     * MapContents, plus a metadata record
+     * whose id derives from the hash and name. Saving the same map under the
+     * same name again writes nothing new.
+     * @return Map containing mapId, contentHash, createdAt and whether the map already existed
+     */
+    public Map<String, Object> saveMap(String name, MapData mapData) {
+        int gridSize = mapData.getGridSize();
+        MapContent layers = MapContent.of(
+            gridSize, mapData.toRiskMap(), mapData.toAnimalMap(), mapData.toTerrainMap());
+
+        String contentHash = layers.getContentHash();
+        String mapId = layers.getMapId(name);
+        String timestamp = Timestamps.now();
+
+        // Content first, so a metadata record never points at missing layers
+        Map<String, AttributeValue> content = new HashMap<>();
+        content.put("contentHash", AttributeValue.builder().s(contentHash).build());
+        content.put("gridSize", AttributeValue.builder().n(String.valueOf(gridSize)).build());
+        content.put("riskMap", AttributeValue.builder().s(layers.getRiskMap()).build());
+        content.put("animalMap", AttributeValue.builder().s(layers.getAnimalMap()).build());
+        content.put("terrainMap", AttributeValue.builder().s(layers.getTerrainMap()).build());
+        content.put("createdAt", AttributeValue.builder().s(timestamp).build());
+        putIfAbsent(MAP_CONTENTS_TABLE, "contentHash", content);
+
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("mapId", AttributeValue.builder().s(mapId).build());
+        item.put("name", AttributeValue.builder().s(name).build());
+        item.put("gridSize", AttributeValue.builder().n(String.valueOf(gridSize)).build());
+        item.put("contentHash", AttributeValue.builder().s(contentHash).build());
+        item.put("createdAt", AttributeValue.builder().s(timestamp).build());
+        boolean created = putIfAbsent(MAPS_TABLE, "mapId", item);
+
+        String createdAt = timestamp;
+        if (!created) {
+            Map<String, AttributeValue> existing = getItem(MAPS_TABLE, "mapId", mapId);
+            if (existing != null) {
+                createdAt = existing.get("createdAt").s();
+            }
+        }
+
+        synchronized (mapCache) {
+            mapCache.put(contentHash, mapData);
+            mapCache.put(mapId, mapData);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("mapId", mapId);
+        result.put("contentHash", contentHash);
+        result.put("createdAt", createdAt);
+        result.put("deduplicated", !created);
+        return result;
+    }
+
+    /**
+     * Conditional put on the hash key
+     * @return true if written, false if an item with that key already existed
+     */
+    private boolean putIfAbsent(String table, String keyName, Map<String, AttributeValue> item) {
+        try {
+            dynamoDb.putItem(PutItemRequest.builder()
+                .tableName(table)
+                .item(item)
+                .conditionExpression("attribute_not_exists(" + keyName + ")")
+                .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Persist an optimization result to PatrolResults
+     * @return Map containing the new resultId and createdAt
+     */
+    public Map<String, Object> saveResult(String mapId, int rangerCount,
+                                          List<Map<String, Object>> routes,
+                                          Map<String, Object> stats) {
+        String resultId = UUID.randomUUID().toString();
+        String timestamp = Timestamps.now();
+
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("resultId", AttributeValue.builder().s(resultId).build());
+        item.put("mapId", AttributeValue.builder().s(mapId != null ? mapId : "unknown").build());
+        item.put("rangerCount", AttributeValue.builder().n(String.valueOf(rangerCount)).build());
+        item.put("routes", AttributeValue.builder().s(gson.toJson(routes)).build());
+        item.put("stats", AttributeValue.builder().s(gson.toJson(stats)).build());
+        item.put("createdAt", AttributeValue.builder().s(timestamp).build());
+
+        dynamoDb.putItem(PutItemRequest.builder()
+            .tableName(RESULTS_TABLE)
+            .item(item)
+            .build());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("resultId", resultId);
+        result.put("createdAt", timestamp);
+        return result;
+    }
+}
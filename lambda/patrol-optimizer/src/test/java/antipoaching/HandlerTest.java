@@ -0,0 +1,131 @@
+package antipoaching;
+
+import antipoaching.common.ApiRequest;
+import antipoaching.common.ApiResponse;
+import antipoaching.local.LocalContext;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HandlerTest {
+
+    private final Gson gson = new Gson();
+    private final Handler handler = new Handler();
+    private final LocalContext context = new LocalContext("patrol-optimizer");
+
+    @Test
+    void rejectsMethodsOtherThanPost() {
+        ApiResponse get = route("GET", "/api/optimize", null);
+        assertEquals(405, get.getStatusCode());
+        assertEquals("POST, OPTIONS", get.getHeaders().get("Allow"));
+
+        assertEquals(405, route("DELETE", "/api/optimize/jobs/abc", null).getStatusCode());
+        assertEquals(200, route("OPTIONS", "/api/optimize", null).getStatusCode());
+    }
+
+    @Test
+    void rejectsMalformedBodiesWithBadRequest() {
+        String[] bodies = {
+            null,
+            "not json",
+            "{\"maxSteps\": 10, \"gridSize\": 2}",
+            "{\"rangerCount\": \"two\", \"maxSteps\": 10, \"mapId\": \"m\"}",
+            "{\"rangerCount\": {\"n\": 1}, \"maxSteps\": 10, \"mapId\": \"m\"}",
+            "{\"rangerCount\": 0, \"maxSteps\": 10, \"mapId\": \"m\"}",
+            "{\"rangerCount\": 1, \"maxSteps\": 10, \"mapId\": \"m\", \"multiStart\": 0}",
+            "{\"rangerCount\": 1, \"maxSteps\": 10, \"mapId\": \"m\", \"multiStart\": 100000}",
+            "{\"rangerCount\": 1, \"maxSteps\": 10, \"mapId\": \"m\", \"timeBudgetMs\": 0}",
+            "{\"rangerCount\": 1, \"maxSteps\": 10, \"mapId\": \"m\", \"timeBudgetMs\": 3600000}",
+            "{\"rangerCount\": 1, \"maxSteps\": 10, \"gridSize\": 2, \"riskMap\": [[0]], "
+                + "\"animalMap\": [[false]], \"terrainMap\": [[1]]}",
+            "{\"rangerCount\": 1, \"maxSteps\": 10, \"gridSize\": 1, \"riskMap\": 5, "
+                + "\"animalMap\": [[false]], \"terrainMap\": [[1]]}",
+            "{\"rangerCount\": 1, \"maxSteps\": 10, \"gridSize\": 1, \"riskMap\": [[null]], "
+                + "\"animalMap\": [[false]], \"terrainMap\": [[1]]}"
+        };
+        for (String body : bodies) {
+            ApiResponse response = route("POST", "/api/optimize", body);
+            assertEquals(400, response.getStatusCode(), String.valueOf(body));
+            assertEquals("BAD_REQUEST", gson.fromJson(response.getBody(), JsonObject.class).get("error").getAsString());
+        }
+    }
+
+    @Test
+    void optimizesAValidRequest() {
+        String body = "{\"rangerCount\": 1, \"maxSteps\": 5, \"gridSize\": 2, "
+            + "\"riskMap\": [[0.1, 0.9], [0.5, 0.2]], \"animalMap\": [[false, true], [false, false]], "
+            + "\"terrainMap\": [[1, 1], [1, 1]]}";
+
+        ApiResponse response = route("POST", "/api/optimize", body);
+
+        assertEquals(200, response.getStatusCode());
+        assertTrue(gson.fromJson(response.getBody(), JsonObject.class).has("routes"));
+    }
+
+    @Test
+    void streamedCoverageStaysInsideTheRequestedTiles() {
+        // 100 cells per side is two level-0 tiles; view only the top-left one
+        int size = 100;
+        JsonObject body = new JsonObject();
+        body.addProperty("rangerCount", 4);
+        body.addProperty("maxSteps", 150);
+        body.addProperty("gridSize", size);
+        body.addProperty("stream", true);
+        body.add("riskMap", gson.toJsonTree(filled(size, 0.5)));
+        body.add("animalMap", gson.toJsonTree(new boolean[size][size]));
+        body.add("terrainMap", gson.toJsonTree(filled(size, 1)));
+        JsonObject tiles = new JsonObject();
+        tiles.addProperty("z", 0);
+        body.add("tiles", tiles);
+
+        ApiResponse response = route("POST", "/api/optimize", gson.toJson(body)).buffer();
+
+        assertEquals(200, response.getStatusCode());
+        int routeCells = 0;
+        int coverageCells = 0;
+        for (String line : new String(response.getBodyBytes(), StandardCharsets.UTF_8).split("\n")) {
+            JsonObject event = gson.fromJson(line, JsonObject.class);
+            String type = event.get("type").getAsString();
+            if ("route".equals(type)) {
+                for (JsonElement pos : event.getAsJsonArray("path")) {
+                    JsonArray cell = pos.getAsJsonArray();
+                    if (cell.get(0).getAsInt() < 64 && cell.get(1).getAsInt() < 64) routeCells++;
+                }
+            } else if ("coverage".equals(type)) {
+                for (JsonElement added : event.getAsJsonArray("cells")) {
+                    JsonArray cell = added.getAsJsonArray();
+                    assertTrue(cell.get(0).getAsInt() < 64 && cell.get(1).getAsInt() < 64, cell.toString());
+                    coverageCells += cell.get(2).getAsInt();
+                }
+            }
+        }
+        assertTrue(coverageCells > 0);
+        assertEquals(routeCells, coverageCells);
+    }
+
+    private static double[][] filled(int size, double value) {
+        double[][] layer = new double[size][size];
+        for (double[] row : layer) Arrays.fill(row, value);
+        return layer;
+    }
+
+    private static int[][] filled(int size, int value) {
+        int[][] layer = new int[size][size];
+        for (int[] row : layer) Arrays.fill(row, value);
+        return layer;
+    }
+
+    private ApiResponse route(String method, String path, String body) {
+        return handler.route(new ApiRequest(method, path, null, null, body), context);
+    }
+}
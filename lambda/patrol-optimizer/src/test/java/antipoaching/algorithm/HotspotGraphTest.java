@@ -0,0 +1,89 @@
+package antipoaching.algorithm;
+
+import antipoaching.model.Grid;
+import antipoaching.model.MapData;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotspotGraphTest {
+
+    @Test
+    void treePathsMatchBreadthFirstDistances() {
+        int size = 40;
+        Random random = new Random(7);
+        double[][] risk = new double[size][size];
+        boolean[][] animals = new boolean[size][size];
+        int[][] terrain = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                risk[row][col] = random.nextDouble();
+                animals[row][col] = random.nextDouble() < 0.1;
+                terrain[row][col] = random.nextDouble() < 0.7 ? 1 : 0;
+            }
+        }
+        Grid grid = new MapData(size, risk, animals, terrain).toGrid();
+        HotspotGraph graph = new HotspotGraph(grid);
+        assertTrue(graph.getHotspotCount() > 1);
+
+        for (int h = 0; h < graph.getHotspotCount(); h++) {
+            int[] expected = distances(grid, graph.getHotspotCell(h));
+            for (int cell = 0; cell < size * size; cell++) {
+                if (!grid.isPassable(cell / size, cell % size)) continue;
+
+                assertEquals(expected[cell], graph.distanceTo(cell, h));
+                int[] path = graph.pathTo(cell, h);
+                if (expected[cell] < 0) {
+                    assertNull(path);
+                    continue;
+                }
+                assertEquals(expected[cell], path.length);
+                int previous = cell;
+                for (int step : path) {
+                    assertTrue(grid.isPassable(step / size, step % size));
+                    assertEquals(1, Math.abs(step / size - previous / size) + Math.abs(step % size - previous % size));
+                    previous = step;
+                }
+                assertEquals(graph.getHotspotCell(h), previous);
+            }
+            for (int other = 0; other < graph.getHotspotCount(); other++) {
+                assertEquals(expected[graph.getHotspotCell(other)], graph.getDistance(other, h));
+            }
+        }
+    }
+
+    /**
+     * Reference BFS step distances over passable cells, -1 where unreachable
+     */
+    private static int[] distances(Grid grid, int source) {
+        int size = grid.getSize();
+        int[] dist = new int[size * size];
+        Arrays.fill(dist, -1);
+        Deque<Integer> queue = new ArrayDeque<>();
+        dist[source] = 0;
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            int row = cell / size;
+            int col = cell % size;
+            int[][] neighbors = {{row - 1, col}, {row + 1, col}, {row, col - 1}, {row, col + 1}};
+            for (int[] n : neighbors) {
+                if (!grid.isValidPosition(n[0], n[1]) || !grid.isPassable(n[0], n[1])) continue;
+                int next = n[0] * size + n[1];
+                if (dist[next] < 0) {
+                    dist[next] = dist[cell] + 1;
+                    queue.add(next);
+                }
+            }
+        }
+        return dist;
+    }
+}
@@ -0,0 +1,65 @@
+package antipoaching.algorithm;
+
+import antipoaching.model.Grid;
+import antipoaching.model.MapData;
+import antipoaching.model.Ranger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HotspotStrategyTest {
+
+    @Test
+    void resumedRunPlansLikeAnUninterruptedOne() {
+        MapData mapData = randomMap(40, new Random(13));
+        int rangers = 5;
+        int maxSteps = 60;
+
+        PatrolOptimizer full = optimizer(mapData, rangers, maxSteps);
+        full.optimize();
+
+        // Restore the first routes as a checkpoint would, then plan the rest
+        for (int checkpoint = 1; checkpoint < rangers; checkpoint++) {
+            PatrolOptimizer resumed = optimizer(mapData, rangers, maxSteps);
+            for (int i = 0; i < checkpoint; i++) {
+                resumed.restoreRoute(i, full.getRangers().get(i).getPath());
+            }
+            resumed.optimize(checkpoint, null);
+
+            for (int i = 0; i < rangers; i++) {
+                List<int[]> expected = full.getRangers().get(i).getPath();
+                List<int[]> actual = resumed.getRangers().get(i).getPath();
+                assertEquals(expected.size(), actual.size(), "ranger " + i + " after checkpoint " + checkpoint);
+                for (int step = 0; step < expected.size(); step++) {
+                    assertArrayEquals(expected.get(step), actual.get(step));
+                }
+            }
+        }
+    }
+
+    private static PatrolOptimizer optimizer(MapData mapData, int rangers, int maxSteps) {
+        Grid grid = mapData.toGrid();
+        PatrolOptimizer optimizer = new PatrolOptimizer(grid, new HotspotStrategy(grid));
+        optimizer.initializeRangers(rangers, maxSteps);
+        return optimizer;
+    }
+
+    private static MapData randomMap(int size, Random random) {
+        double[][] risk = new double[size][size];
+        boolean[][] animals = new boolean[size][size];
+        int[][] terrain = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                risk[row][col] = random.nextDouble();
+                animals[row][col] = random.nextDouble() < 0.05;
+                terrain[row][col] = random.nextDouble() < 0.85 ? 1 : 0;
+            }
+        }
+        return new MapData(size, risk, animals, terrain);
+    }
+}
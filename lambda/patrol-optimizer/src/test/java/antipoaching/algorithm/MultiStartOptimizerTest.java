@@ -0,0 +1,102 @@
+package antipoaching.algorithm;
+
+import antipoaching.model.Grid;
+import antipoaching.model.MapData;
+import antipoaching.model.Ranger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiStartOptimizerTest {
+
+    @Test
+    void bestPlanIsAtLeastTheDeterministicOne() {
+        MapData mapData = randomMap(30, new Random(17));
+
+        Grid grid = mapData.toGrid();
+        PatrolOptimizer single = new PatrolOptimizer(grid, new GreedyStrategy());
+        single.initializeRangers(4, 40);
+        single.optimize();
+
+        PatrolOptimizer best = new MultiStartOptimizer(
+                mapData, (g, random) -> new GreedyStrategy(random), 8, 10_000, 42)
+            .optimize(4, 40);
+
+        assertTrue(best.getGrid().getCoverageStats().getRiskReduction()
+            >= grid.getCoverageStats().getRiskReduction());
+    }
+
+    @Test
+    void sameSeedReproducesThePlan() {
+        MapData mapData = randomMap(30, new Random(19));
+
+        PatrolOptimizer first = new MultiStartOptimizer(
+                mapData, (g, random) -> new GreedyStrategy(random), 6, 10_000, 7)
+            .optimize(3, 50);
+        PatrolOptimizer second = new MultiStartOptimizer(
+                mapData, (g, random) -> new GreedyStrategy(random), 6, 10_000, 7)
+            .optimize(3, 50);
+
+        assertSameRoutes(first.getRangers(), second.getRangers());
+    }
+
+    @Test
+    void sharedHotspotGraphPlansLikeOnePerGrid() {
+        MapData mapData = randomMap(40, new Random(23));
+        HotspotGraph graph = new HotspotGraph(mapData.toGrid());
+
+        PatrolOptimizer shared = new MultiStartOptimizer(
+                mapData, (g, random) -> new HotspotStrategy(graph, random), 6, 10_000, 5)
+            .optimize(4, 60);
+        PatrolOptimizer own = new MultiStartOptimizer(
+                mapData, HotspotStrategy::new, 6, 10_000, 5)
+            .optimize(4, 60);
+
+        assertSameRoutes(own.getRangers(), shared.getRangers());
+    }
+
+    @Test
+    void variantCountAndBudgetAreClamped() {
+        MapData mapData = randomMap(10, new Random(29));
+
+        // Far more variants and budget than allowed still plan, without queueing them all
+        PatrolOptimizer best = new MultiStartOptimizer(
+                mapData, (g, random) -> new GreedyStrategy(random), Integer.MAX_VALUE, Long.MAX_VALUE, 1)
+            .optimize(2, 10);
+
+        assertEquals(2, best.getRangers().size());
+        assertTrue(MultiStartOptimizer.getMaxVariants() >= 1);
+    }
+
+    private static void assertSameRoutes(List<Ranger> expected, List<Ranger> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            List<int[]> expectedPath = expected.get(i).getPath();
+            List<int[]> actualPath = actual.get(i).getPath();
+            assertEquals(expectedPath.size(), actualPath.size(), "ranger " + i);
+            for (int step = 0; step < expectedPath.size(); step++) {
+                assertArrayEquals(expectedPath.get(step), actualPath.get(step));
+            }
+        }
+    }
+
+    private static MapData randomMap(int size, Random random) {
+        double[][] risk = new double[size][size];
+        boolean[][] animals = new boolean[size][size];
+        int[][] terrain = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                risk[row][col] = random.nextDouble();
+                animals[row][col] = random.nextDouble() < 0.05;
+                terrain[row][col] = random.nextDouble() < 0.85 ? 1 : 0;
+            }
+        }
+        return new MapData(size, risk, animals, terrain);
+    }
+}
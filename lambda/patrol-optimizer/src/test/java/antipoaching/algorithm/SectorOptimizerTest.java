@@ -0,0 +1,108 @@
+package antipoaching.algorithm;
+
+import antipoaching.model.Grid;
+import antipoaching.model.MapData;
+import antipoaching.model.Ranger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SectorOptimizerTest {
+
+    @Test
+    void mergedRoutesStayApartAndAreReplayedOntoOneGrid() {
+        int size = 30;
+        int maxSteps = 60;
+        MapData mapData = randomMap(size, new Random(31));
+
+        List<Integer> completed = new ArrayList<>();
+        List<Ranger> notified = new ArrayList<>();
+        PatrolOptimizer merged = new SectorOptimizer(mapData, (grid, random) -> new GreedyStrategy())
+            .optimize(5, maxSteps, (ranger, done, total, grid) -> {
+                assertEquals(5, total);
+                completed.add(done);
+                notified.add(ranger);
+            });
+
+        List<Ranger> rangers = merged.getRangers();
+        assertEquals(5, rangers.size());
+        assertEquals(List.of(1, 2, 3, 4, 5), completed);
+
+        int[][] owner = new int[size][size];
+        int[][] visits = new int[size][size];
+        for (int i = 0; i < rangers.size(); i++) {
+            Ranger ranger = rangers.get(i);
+            assertSame(ranger, notified.get(i), "listener sees ranger " + i + " as merged");
+            assertEquals(i, ranger.getId());
+
+            List<int[]> path = ranger.getPath();
+            assertTrue(path.size() > 1 && path.size() <= maxSteps + 1, "ranger " + i + " moved within its steps");
+            int[] previous = null;
+            for (int[] pos : path) {
+                assertTrue(mapData.isPassable(pos[0], pos[1]), "ranger " + i + " stays on passable cells");
+                if (previous != null) {
+                    assertTrue(Math.abs(pos[0] - previous[0]) <= 1 && Math.abs(pos[1] - previous[1]) <= 1,
+                        "ranger " + i + " moves one cell at a time");
+                }
+                int cellOwner = owner[pos[0]][pos[1]];
+                assertTrue(cellOwner == 0 || cellOwner == i + 1,
+                    "ranger " + i + " enters ranger " + (cellOwner - 1) + "'s sector");
+                owner[pos[0]][pos[1]] = i + 1;
+                visits[pos[0]][pos[1]]++;
+                previous = pos;
+            }
+        }
+
+        // The merged grid holds exactly the visits of the merged routes
+        Grid grid = merged.getGrid();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                assertEquals(visits[row][col], grid.readCell(row, col).getVisitCount(), row + "," + col);
+            }
+        }
+    }
+
+    @Test
+    void mergedPlanDoesNotDependOnThreadTiming() {
+        MapData mapData = randomMap(40, new Random(37));
+
+        PatrolOptimizer first = new SectorOptimizer(mapData, (grid, random) -> new GreedyStrategy())
+            .optimize(8, 80, null);
+        PatrolOptimizer second = new SectorOptimizer(mapData, (grid, random) -> new GreedyStrategy())
+            .optimize(8, 80, null);
+
+        assertEquals(first.getRangers().size(), second.getRangers().size());
+        for (int i = 0; i < first.getRangers().size(); i++) {
+            List<int[]> expected = first.getRangers().get(i).getPath();
+            List<int[]> actual = second.getRangers().get(i).getPath();
+            assertEquals(expected.size(), actual.size(), "ranger " + i);
+            for (int step = 0; step < expected.size(); step++) {
+                assertArrayEquals(expected.get(step), actual.get(step));
+            }
+        }
+        assertEquals(first.getGrid().getCoverageStats().getAfterRisk(),
+            second.getGrid().getCoverageStats().getAfterRisk());
+    }
+
+    private static MapData randomMap(int size, Random random) {
+        double[][] risk = new double[size][size];
+        boolean[][] animals = new boolean[size][size];
+        int[][] terrain = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                risk[row][col] = random.nextDouble();
+                animals[row][col] = random.nextDouble() < 0.05;
+                terrain[row][col] = random.nextDouble() < 0.85 ? 1 : 0;
+            }
+        }
+        return new MapData(size, risk, animals, terrain);
+    }
+}
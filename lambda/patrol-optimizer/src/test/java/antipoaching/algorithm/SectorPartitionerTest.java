@@ -0,0 +1,165 @@
+package antipoaching.algorithm;
+
+import antipoaching.model.MapData;
+import antipoaching.model.Ranger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SectorPartitionerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static ExecutorService executor;
+
+    @BeforeAll
+    static void startExecutor() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterAll
+    static void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10})
+    void partitionsUniformMapIntoBalancedConnectedSectors(int count) {
+        int size = 20;
+        MapData mapData = uniformMap(size, 0.0);
+        int[] seeds = spreadSeeds(size, count);
+
+        int[] owner = assertTimeoutPreemptively(TIMEOUT,
+            () -> new SectorPartitioner(mapData, executor).partition(seeds));
+
+        int[] cells = new int[count];
+        for (int sector : owner) {
+            assertTrue(sector >= 0, "every passable cell belongs to a sector");
+            cells[sector]++;
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, owner[seeds[i]]);
+            assertEquals(cells[i], reachableWithin(owner, size, seeds[i]), "sector " + i + " is connected");
+        }
+
+        int smallest = Arrays.stream(cells).min().getAsInt();
+        int largest = Arrays.stream(cells).max().getAsInt();
+        assertTrue(largest <= 3 * smallest + size, "sectors " + Arrays.toString(cells) + " are balanced");
+    }
+
+    @Test
+    void partitionsUniformNonZeroRiskMap() {
+        int size = 30;
+        MapData mapData = uniformMap(size, 0.3);
+        for (int count = 1; count <= 12; count++) {
+            int[] seeds = spreadSeeds(size, count);
+            int[] owner = assertTimeoutPreemptively(TIMEOUT,
+                () -> new SectorPartitioner(mapData, executor).partition(seeds));
+            assertTrue(Arrays.stream(owner).allMatch(sector -> sector >= 0));
+        }
+    }
+
+    @Test
+    void leavesImpassableAndUnreachableCellsUnassigned() {
+        int size = 10;
+        double[][] risk = new double[size][size];
+        boolean[][] animals = new boolean[size][size];
+        int[][] terrain = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            Arrays.fill(terrain[row], 1);
+            terrain[row][5] = 0;     // Wall splitting the map into two halves
+        }
+        MapData mapData = new MapData(size, risk, animals, terrain);
+
+        int[] owner = new SectorPartitioner(mapData, executor).partition(new int[]{0, 1});
+
+        for (int cell = 0; cell < owner.length; cell++) {
+            int col = cell % size;
+            if (col < 5) {
+                assertTrue(owner[cell] >= 0);
+            } else {
+                assertEquals(-1, owner[cell]);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 6, 8})
+    void sectorOptimizerCompletesOnUniformZeroRiskMap(int rangers) {
+        MapData mapData = uniformMap(20, 0.0);
+
+        PatrolOptimizer optimizer = assertTimeoutPreemptively(TIMEOUT,
+            () -> new SectorOptimizer(mapData, (grid, random) -> new GreedyStrategy()).optimize(rangers, 10, null));
+
+        List<Ranger> planned = optimizer.getRangers();
+        assertEquals(rangers, planned.size());
+        for (Ranger ranger : planned) {
+            assertTrue(ranger.getPath().size() > 1, "ranger " + ranger.getId() + " moved");
+        }
+    }
+
+    private static MapData uniformMap(int size, double riskLevel) {
+        double[][] risk = new double[size][size];
+        boolean[][] animals = new boolean[size][size];
+        int[][] terrain = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            Arrays.fill(risk[row], riskLevel);
+            Arrays.fill(terrain[row], 1);
+        }
+        return new MapData(size, risk, animals, terrain);
+    }
+
+    /**
+     * Distinct seeds spread along the diagonal
+     */
+    private static int[] spreadSeeds(int size, int count) {
+        int[] seeds = new int[count];
+        for (int i = 0; i < count; i++) {
+            int pos = (int) ((i + 0.5) * size / count);
+            seeds[i] = pos * size + (size - 1 - pos);
+        }
+        return seeds;
+    }
+
+    /**
+     * Cells of the start cell's sector reachable from it without leaving the sector
+     */
+    private static int reachableWithin(int[] owner, int size, int start) {
+        boolean[] seen = new boolean[owner.length];
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        seen[start] = true;
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            count++;
+            int row = cell / size;
+            int col = cell % size;
+            int[][] neighbors = {{row - 1, col}, {row + 1, col}, {row, col - 1}, {row, col + 1}};
+            for (int[] n : neighbors) {
+                if (n[0] < 0 || n[0] >= size || n[1] < 0 || n[1] >= size) continue;
+                int next = n[0] * size + n[1];
+                if (!seen[next] && owner[next] == owner[start]) {
+                    seen[next] = true;
+                    queue.add(next);
+                }
+            }
+        }
+        return count;
+    }
+}
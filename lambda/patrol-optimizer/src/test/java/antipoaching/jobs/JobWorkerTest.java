@@ -0,0 +1,134 @@
+package antipoaching.jobs;
+
+import antipoaching.OptimizationRequest;
+import antipoaching.algorithm.PatrolOptimizer;
+import antipoaching.local.InMemoryDynamoDb;
+import antipoaching.local.SyncDynamoDb;
+import antipoaching.model.MapData;
+import antipoaching.storage.MapRepository;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobWorkerTest {
+
+    private final Gson gson = new Gson();
+    private final DynamoDbClient dynamoDb = new SyncDynamoDb(new InMemoryDynamoDb());
+    private final JobStore store = new DynamoJobStore(dynamoDb);
+    private final MapRepository repository = new MapRepository(dynamoDb);
+
+    @Test
+    void resumedJobFinishesWithTheUninterruptedPlan() {
+        JsonObject body = request(30, 6, 40, "hotspot");
+        PatrolOptimizer full = uninterrupted(body);
+
+        // Checkpoint the first rangers as a timed-out worker would have
+        for (int checkpoint = 0; checkpoint < 6; checkpoint += 2) {
+            String jobId = "job-" + checkpoint;
+            Job job = new Job(jobId, gson.toJson(body), "2026-01-01T00:00:00.000Z");
+            job.setStatus(Job.RUNNING);
+            job.setRoutesJson(gson.toJson(full.getRoutes().subList(0, checkpoint)));
+            store.save(job);
+
+            // A fresh store, as a retried worker in another container would have
+            JobWorker worker = new JobWorker(new DynamoJobStore(dynamoDb), () -> repository);
+            worker.run(jobId);
+
+            Job done = store.get(jobId);
+            assertEquals(Job.SUCCEEDED, done.getStatus());
+            assertEquals(100, done.getPercentComplete());
+            assertEquals(gson.toJsonTree(full.getRoutes()), gson.fromJson(done.getRoutesJson(), JsonArray.class),
+                "resumed after " + checkpoint);
+        }
+    }
+
+    @Test
+    void routesAreStoredOutsideTheJobItem() {
+        JsonObject body = request(20, 3, 30, "greedy");
+        Job job = new Job("split", gson.toJson(body), "2026-01-01T00:00:00.000Z");
+        store.save(job);
+
+        new JobWorker(store, () -> repository).run("split");
+
+        Map<String, AttributeValue> item = rawItem("split");
+        assertFalse(item.containsKey("routes"));
+        assertEquals("3", item.get("routeCount").n());
+        for (int i = 0; i < 3; i++) {
+            Map<String, AttributeValue> route = rawItem("split#route#" + i);
+            assertNotNull(route, "route " + i);
+            assertEquals(31 * 4, route.get("path").b().asByteArray().length);
+        }
+        assertNull(store.get("split#route#0"));
+    }
+
+    @Test
+    void routeTooLargeToStoreFailsTheJobWithoutRoutes() {
+        // One ranger walking far more steps than fit in an item
+        JsonObject body = request(8, 1, 120_000, "greedy");
+        Job job = new Job("huge", gson.toJson(body), "2026-01-01T00:00:00.000Z");
+        store.save(job);
+
+        new JobWorker(store, () -> repository).run("huge");
+
+        Job failed = store.get("huge");
+        assertEquals(Job.FAILED, failed.getStatus());
+        assertNull(failed.getRoutesJson());
+        assertTrue(failed.getError().contains("too large"), failed.getError());
+    }
+
+    private PatrolOptimizer uninterrupted(JsonObject body) {
+        OptimizationRequest request = OptimizationRequest.parse(body);
+        MapData mapData = request.resolveMap(() -> repository);
+        PatrolOptimizer optimizer = request.createOptimizer(mapData);
+        optimizer.optimize();
+        return optimizer;
+    }
+
+    private Map<String, AttributeValue> rawItem(String key) {
+        return dynamoDb.getItem(GetItemRequest.builder()
+            .tableName("OptimizationJobs")
+            .key(Map.of("jobId", AttributeValue.builder().s(key).build()))
+            .build()).item();
+    }
+
+    private JsonObject request(int size, int rangers, int maxSteps, String strategy) {
+        Random random = new Random(size * 31L + rangers);
+        double[][] risk = new double[size][size];
+        boolean[][] animals = new boolean[size][size];
+        int[][] terrain = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                risk[row][col] = random.nextDouble();
+                animals[row][col] = random.nextDouble() < 0.05;
+                terrain[row][col] = random.nextDouble() < 0.9 ? 1 : 0;
+            }
+        }
+
+        JsonObject body = new JsonObject();
+        body.addProperty("rangerCount", rangers);
+        body.addProperty("maxSteps", maxSteps);
+        body.addProperty("strategy", strategy);
+        body.addProperty("gridSize", size);
+        body.add("riskMap", gson.toJsonTree(risk));
+        body.add("animalMap", gson.toJsonTree(animals));
+        body.add("terrainMap", gson.toJsonTree(terrain));
+        return body;
+    }
+}
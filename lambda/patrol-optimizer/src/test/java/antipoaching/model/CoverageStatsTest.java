@@ -0,0 +1,122 @@
+package antipoaching.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CoverageStatsTest {
+
+    @Test
+    void exactSumIgnoresOrderAndUndoesExactly() {
+        Random random = new Random(23);
+        double[] values = new double[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * Math.pow(10, random.nextInt(12) - 6);
+        }
+
+        ExactSum forward = new ExactSum();
+        ExactSum backward = new ExactSum();
+        for (int i = 0; i < values.length; i++) {
+            forward.add(values[i]);
+            backward.add(values[values.length - 1 - i]);
+        }
+        assertEquals(forward.value(), backward.value());
+
+        for (int i = 0; i < values.length; i += 2) {
+            forward.add(-values[i]);
+        }
+        ExactSum odd = new ExactSum();
+        for (int i = 1; i < values.length; i += 2) {
+            odd.add(values[i]);
+        }
+        assertEquals(odd.value(), forward.value());
+    }
+
+    @Test
+    void exactSumRoundsOnce() {
+        // Adding the parts top-down in doubles would round 1 + 2^-53 to 1 and lose the tie-breaker
+        ExactSum tie = new ExactSum();
+        tie.add(1.0);
+        tie.add(Math.scalb(1.0, -53));
+        tie.add(Math.scalb(1.0, -105));
+        assertEquals(Math.nextUp(1.0), tie.value());
+
+        Random random = new Random(31);
+        for (int trial = 0; trial < 200; trial++) {
+            ExactSum sum = new ExactSum();
+            BigDecimal exact = BigDecimal.ZERO;
+            for (int i = 0; i < 50; i++) {
+                double value = (random.nextDouble() - 0.3) * Math.scalb(1.0, random.nextInt(200) - 100);
+                sum.add(value);
+                exact = exact.add(new BigDecimal(value));
+            }
+            assertEquals(exact.doubleValue(), sum.value(), "trial " + trial);
+        }
+
+        ExactSum tiny = new ExactSum();
+        tiny.add(Double.MIN_VALUE);
+        tiny.add(-3 * Double.MIN_VALUE);
+        assertEquals(-2 * Double.MIN_VALUE, tiny.value());
+    }
+
+    @Test
+    void totalsMatchAFreshCountWhateverTheOrder() {
+        int size = 60;
+        Random random = new Random(29);
+        Grid edited = new Grid(size);
+        for (int step = 0; step < 20000; step++) {
+            Cell cell = edited.getCell(random.nextInt(size), random.nextInt(size));
+            switch (random.nextInt(4)) {
+                case 0: cell.setRiskLevel(random.nextDouble()); break;
+                case 1: cell.setPassable(random.nextInt(5) > 0); break;
+                case 2: cell.setHasAnimal(random.nextBoolean()); break;
+                default: cell.visit(); break;
+            }
+        }
+
+        // Same final layers and visits, laid down once each in reverse order
+        Grid fresh = new Grid(size, true);
+        for (int row = size - 1; row >= 0; row--) {
+            for (int col = size - 1; col >= 0; col--) {
+                Cell source = edited.getCell(row, col);
+                Cell cell = fresh.getCell(row, col);
+                cell.setRiskLevel(source.getRiskLevel());
+                cell.setPassable(source.isPassable());
+                for (int v = 0; v < source.getVisitCount(); v++) {
+                    cell.visit();
+                }
+            }
+        }
+
+        CoverageStats expected = count(edited);
+        for (CoverageStats stats : new CoverageStats[]{edited.getCoverageStats(), fresh.getCoverageStats()}) {
+            assertEquals(expected.getPassableCells(), stats.getPassableCells());
+            assertEquals(expected.getCoveredCells(), stats.getCoveredCells());
+            assertEquals(expected.getHighRiskCells(), stats.getHighRiskCells());
+            assertEquals(expected.getCoveredHighRiskCells(), stats.getCoveredHighRiskCells());
+            assertEquals(expected.getTotalRisk(), stats.getTotalRisk());
+            assertEquals(expected.getAfterRisk(), stats.getAfterRisk());
+        }
+    }
+
+    /**
+     * Totals of a grid counted from scratch
+     */
+    private static CoverageStats count(Grid grid) {
+        CoverageStats stats = new CoverageStats(0);
+        for (Cell[] row : grid.getCells()) {
+            for (Cell source : row) {
+                Cell cell = new Cell(source.getRow(), source.getCol(),
+                    source.getRiskLevel(), false, source.isPassable());
+                for (int v = 0; v < source.getVisitCount(); v++) {
+                    cell.visit();
+                }
+                stats.changed(cell, false, 0.0, false);
+            }
+        }
+        return stats;
+    }
+}
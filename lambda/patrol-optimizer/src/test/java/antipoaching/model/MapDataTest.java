@@ -0,0 +1,67 @@
+package antipoaching.model;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MapDataTest {
+
+    private static final Gson GSON = new Gson();
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.01, 0.05, 0.2, 0.9})
+    void everySourceAgreesOnLayersAndMode(double fraction) {
+        int size = 50;
+        Random random = new Random(17);
+        double[][] risk = new double[size][size];
+        boolean[][] animals = new boolean[size][size];
+        int[][] terrain = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                terrain[row][col] = 1;
+                if (random.nextDouble() >= fraction) continue;
+                risk[row][col] = random.nextInt(10) / 10.0;
+                animals[row][col] = random.nextBoolean();
+                terrain[row][col] = random.nextInt(4) == 0 ? 0 : 1;
+            }
+        }
+
+        MapData fromArrays = new MapData(size, risk, animals, terrain);
+        MapData fromTree = MapData.fromJson(size, GSON.toJsonTree(risk).getAsJsonArray(),
+            GSON.toJsonTree(animals).getAsJsonArray(), GSON.toJsonTree(terrain).getAsJsonArray());
+        MapData fromText = MapData.fromJson(size, GSON.toJson(risk), GSON.toJson(animals), GSON.toJson(terrain));
+
+        assertEquals(fromArrays.getDensity() < MapData.SPARSE_DENSITY_THRESHOLD, fromArrays.isSparse());
+        for (MapData mapData : new MapData[]{fromTree, fromText}) {
+            assertEquals(fromArrays.isSparse(), mapData.isSparse());
+            assertEquals(fromArrays.getDensity(), mapData.getDensity());
+            assertArrayEquals(risk, mapData.toRiskMap());
+            assertArrayEquals(animals, mapData.toAnimalMap());
+            assertArrayEquals(terrain, mapData.toTerrainMap());
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    assertEquals(risk[row][col], mapData.getRisk(row, col));
+                    assertEquals(animals[row][col], mapData.hasAnimal(row, col));
+                    assertEquals(terrain[row][col] == 1, mapData.isPassable(row, col));
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsLayersOfTheWrongShape() {
+        assertThrows(IllegalArgumentException.class,
+            () -> MapData.fromJson(2, "[[0.0,0.0],[0.0]]", "[[false,false],[false,false]]", "[[1,1],[1,1]]"));
+        assertThrows(IllegalArgumentException.class,
+            () -> MapData.fromJson(1, "[[0.0]]", "[[false]]", "[[1],[1]]"));
+    }
+}
@@ -0,0 +1,164 @@
+package antipoaching.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreHeapTest {
+
+    @Test
+    void registrationOrderDoesNotChangeTheTop() {
+        int size = 30;
+        Random random = new Random(3);
+        List<Cell> denseCells = new ArrayList<>();
+        List<Cell> sparseCells = new ArrayList<>();
+        for (int index = 0; index < size * size; index++) {
+            double risk = random.nextInt(5) / 4.0;   // Coarse values, so ties are common
+            boolean animal = random.nextDouble() < 0.1;
+            boolean passable = random.nextDouble() < 0.9;
+            denseCells.add(new Cell(index / size, index % size, risk, animal, passable));
+            sparseCells.add(new Cell(index / size, index % size, risk, animal, passable));
+        }
+
+        // Dense grids register in row-major order, sparse ones in access order
+        ScoreHeap dense = new ScoreHeap(size, size * size);
+        ScoreHeap sparse = new ScoreHeap(size, 16);
+        for (Cell cell : denseCells) {
+            dense.register(cell);
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int index = 0; index < size * size; index++) {
+            order.add(index);
+        }
+        Collections.shuffle(order, random);
+        for (int index : order) {
+            sparse.register(sparseCells.get(index));
+        }
+        dense.rebuild();
+        sparse.rebuild();
+
+        for (int step = 0; step < 2000; step++) {
+            assertEquals(dense.count(), sparse.count());
+            assertSameCell(dense.peek(), sparse.peek());
+
+            int index = step % 3 == 0 ? random.nextInt(size * size) : indexOf(dense.peek(), size);
+            Cell a = denseCells.get(index);
+            Cell b = sparseCells.get(index);
+            if (step % 7 == 0) {
+                boolean passable = !a.isPassable();
+                a.setPassable(passable);
+                b.setPassable(passable);
+            } else {
+                a.visit();
+                b.visit();
+            }
+            dense.update(a);
+            sparse.update(b);
+        }
+    }
+
+    @Test
+    void sparseGridRanksCellsLikeADenseOne() {
+        int size = 40;
+        Random random = new Random(5);
+        double[][] risk = new double[size][size];
+        boolean[][] animals = new boolean[size][size];
+        int[][] terrain = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                double roll = random.nextDouble();
+                risk[row][col] = roll < 0.03 ? 0.5 + random.nextInt(5) / 10.0 : 0.0;
+                animals[row][col] = roll > 0.99;
+                terrain[row][col] = roll > 0.5 && roll < 0.52 ? 0 : 1;
+            }
+        }
+        MapData mapData = new MapData(size, risk, animals, terrain);
+        assertTrue(mapData.isSparse());
+
+        Grid sparse = mapData.toGrid();
+        Grid dense = new Grid(size);
+        dense.initializeFromMaps(risk, animals, terrain);
+        assertFalse(dense.isSparse());
+
+        for (int step = 0; step < 300; step++) {
+            assertSameCells(dense.getTopCells(25), sparse.getTopCells(25));
+            assertSameCells(dense.getHighestRiskCells(60), sparse.getHighestRiskCells(60));
+            assertSameCell(dense.getBestCell(), sparse.getBestCell());
+
+            Cell best = dense.getBestCell();
+            int row = step % 4 == 0 ? random.nextInt(size) : best.getRow();
+            int col = step % 4 == 0 ? random.nextInt(size) : best.getCol();
+            if (dense.isPassable(row, col)) {
+                dense.getCell(row, col).visit();
+                sparse.getCell(row, col).visit();
+            }
+        }
+
+        int passable = dense.getCoverageStats().getPassableCells();
+        assertEquals(passable, sparse.getTopCells(size * size).size());
+        assertSameCells(dense.getTopCells(size * size), sparse.getTopCells(size * size));
+    }
+
+    @Test
+    void heapBuiltOnFirstQueryMatchesOneKeptCurrent() {
+        int size = 25;
+        Random random = new Random(11);
+        double[][] risk = new double[size][size];
+        boolean[][] animals = new boolean[size][size];
+        int[][] terrain = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                risk[row][col] = random.nextInt(5) / 4.0;
+                animals[row][col] = random.nextDouble() < 0.1;
+                terrain[row][col] = random.nextDouble() < 0.9 ? 1 : 0;
+            }
+        }
+
+        // One grid is ranked before any visit, the other only after all of them
+        Grid current = new Grid(size);
+        current.initializeFromMaps(risk, animals, terrain);
+        current.getBestCell();
+        Grid lazy = new Grid(size);
+        lazy.initializeFromMaps(risk, animals, terrain);
+
+        for (int step = 0; step < 500; step++) {
+            int row = random.nextInt(size);
+            int col = random.nextInt(size);
+            if (current.isPassable(row, col)) {
+                current.getCell(row, col).visit();
+                lazy.getCell(row, col).visit();
+            }
+        }
+
+        assertSameCells(current.getTopCells(size * size), lazy.getTopCells(size * size));
+        assertSameCell(current.getBestCell(), lazy.getBestCell());
+    }
+
+    private static int indexOf(Cell cell, int size) {
+        return cell.getRow() * size + cell.getCol();
+    }
+
+    private static void assertSameCell(Cell expected, Cell actual) {
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual);
+            return;
+        }
+        assertEquals(expected.getRow(), actual.getRow());
+        assertEquals(expected.getCol(), actual.getCol());
+        assertEquals(expected.calculateScore(), actual.calculateScore());
+    }
+
+    private static void assertSameCells(List<Cell> expected, List<Cell> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameCell(expected.get(i), actual.get(i));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package antipoaching.model;
+
+import antipoaching.algorithm.GreedyStrategy;
+import antipoaching.algorithm.PatrolOptimizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SparseCellMapTest {
+
+    @Test
+    void matchesADenseArrayThroughGrowth() {
+        int size = 300;
+        Cell[] dense = new Cell[size * size];
+        Map<Integer, Cell> reference = new TreeMap<>();
+        SparseCellMap sparse = new SparseCellMap(4);
+        Random random = new Random(11);
+
+        for (int i = 0; i < 5000; i++) {
+            // Clustered and scattered keys, including neighbouring indices
+            int index = i % 2 == 0 ? random.nextInt(size * size) : (i / 2) % 1000;
+            if (dense[index] != null) continue;
+            Cell cell = new Cell(index / size, index % size);
+            dense[index] = cell;
+            reference.put(index, cell);
+            sparse.put(index, cell);
+        }
+
+        assertEquals(reference.size(), sparse.size());
+        for (int index = 0; index < size * size; index++) {
+            if (dense[index] == null) {
+                assertNull(sparse.get(index));
+            } else {
+                assertSame(dense[index], sparse.get(index));
+            }
+        }
+        assertArrayEquals(reference.values().toArray(new Cell[0]), sparse.inIndexOrder());
+    }
+
+    @Test
+    void orderIsRebuiltAfterAnInsert() {
+        SparseCellMap sparse = new SparseCellMap(1);
+        Cell late = new Cell(9, 9);
+        Cell early = new Cell(0, 1);
+        sparse.put(99, late);
+        assertArrayEquals(new Cell[]{late}, sparse.inIndexOrder());
+
+        sparse.put(1, early);
+        assertArrayEquals(new Cell[]{early, late}, sparse.inIndexOrder());
+    }
+
+    @Test
+    void interleavedInsertsAndReadsStayOrdered() {
+        int size = 200;
+        Map<Integer, Cell> reference = new TreeMap<>();
+        SparseCellMap sparse = new SparseCellMap(4);
+        Random random = new Random(7);
+
+        Cell[] earlier = sparse.inIndexOrder();
+        for (int i = 0; i < 3000; i++) {
+            int index = random.nextInt(size * size);
+            if (reference.containsKey(index)) continue;
+            Cell cell = new Cell(index / size, index % size);
+            reference.put(index, cell);
+            sparse.put(index, cell);
+
+            if (i % 3 == 0) {
+                int listed = earlier.length;
+                assertArrayEquals(reference.values().toArray(new Cell[0]), sparse.inIndexOrder());
+                // An earlier listing is not changed by the inserts after it
+                assertEquals(listed, earlier.length);
+                earlier = sparse.inIndexOrder();
+            }
+        }
+        assertArrayEquals(reference.values().toArray(new Cell[0]), sparse.inIndexOrder());
+    }
+
+    @Test
+    void readQueriesStoreNothing() {
+        int size = 50;
+        double[][] risk = new double[size][size];
+        risk[10][10] = 0.9;
+        risk[40][5] = 0.8;
+        Grid grid = new MapData(size, risk, new boolean[size][size], filledTerrain(size)).toGrid();
+        assertTrue(grid.isSparse());
+        int stored = grid.getStoredCells().length;
+
+        assertEquals(20, grid.getHighestRiskCells(20).size());
+        assertEquals(20, grid.getTopCells(20).size());
+        assertNotNull(grid.getBestCell());
+        assertEquals(4, grid.getNeighbors(25, 25).size());
+        assertNotNull(grid.readCell(30, 30));
+        new PatrolOptimizer(grid, new GreedyStrategy())
+            .initializeRangers(6, 10);
+
+        assertEquals(stored, grid.getStoredCells().length);
+    }
+
+    private static int[][] filledTerrain(int size) {
+        int[][] terrain = new int[size][size];
+        for (int[] row : terrain) Arrays.fill(row, 1);
+        return terrain;
+    }
+}
@@ -0,0 +1,67 @@
+package antipoaching.raster;
+
+import antipoaching.model.MapData;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RasterImporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void withoutTerrainOnlyBlocksWithRiskDataArePassable() throws IOException {
+        Path risk = write("risk.asc", "ncols 4\nnrows 2\nNODATA_value -1\n"
+            + "0.2 0.4 -1 -1\n"
+            + "0.6 0.8 -1 -1\n");
+
+        MapData map = RasterImporter.importLayers(risk, null, null, 4);
+
+        // Row 0-1, columns 0-1 hold data; columns 2-3 are no-data and rows 2-3 lie outside the raster
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                assertEquals(row < 2 && col < 2, map.isPassable(row, col), "cell " + row + "," + col);
+            }
+        }
+        assertEquals(0.8, map.getRisk(1, 1));
+    }
+
+    @Test
+    void terrainRasterDecidesPassability() throws IOException {
+        Path risk = write("risk.csv", "0.1,0.1\n0.1,0.1\n");
+        Path terrain = write("terrain.csv", "1,0\n0,1\n");
+
+        MapData map = RasterImporter.importLayers(risk, null, terrain, 2);
+
+        assertTrue(map.isPassable(0, 0));
+        assertFalse(map.isPassable(0, 1));
+        assertFalse(map.isPassable(1, 0));
+        assertTrue(map.isPassable(1, 1));
+    }
+
+    @Test
+    void requiresGridSizeWithinLimit() throws IOException {
+        Path risk = write("risk.csv", "0.1,0.1\n0.1,0.1\n");
+
+        assertThrows(IllegalArgumentException.class, () -> RasterImporter.importLayers(risk, null, null, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> RasterImporter.importLayers(risk, null, null, RasterImporter.MAX_GRID_SIZE + 1));
+        assertEquals(RasterImporter.MAX_GRID_SIZE,
+            RasterImporter.importLayers(risk, null, null, RasterImporter.MAX_GRID_SIZE).getGridSize());
+    }
+
+    private Path write(String name, String text) throws IOException {
+        return Files.write(dir.resolve(name), text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,132 @@
+package antipoaching.raster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RasterReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsEsriValuesAndSkipsNoData() throws IOException {
+        String[] values = {
+            "1", "0.5", "-2.25", "+7",
+            "1e-3", "123456789012345678", "0.1234567890123456789", "-9999",
+            "000.0100", "-0", "3.", ".25"
+        };
+        Path file = write("risk.asc", "ncols 4\nnrows 3\nxllcorner 0\nyllcorner 0\ncellsize 30\n"
+            + "NODATA_value -9999\n"
+            + String.join(" ", values[0], values[1], values[2], values[3]) + "\n"
+            + String.join("\t", values[4], values[5], values[6], values[7]) + "\r\n"
+            + String.join("  ", values[8], values[9], values[10], values[11]) + "\n");
+
+        List<double[]> cells = read(file, 3, 4);
+
+        assertEquals(values.length - 1, cells.size());
+        int next = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals("-9999")) continue;
+            double[] cell = cells.get(next++);
+            assertEquals(i / 4, (int) cell[0]);
+            assertEquals(i % 4, (int) cell[1]);
+            assertEquals(Double.parseDouble(values[i]), cell[2], values[i]);
+        }
+    }
+
+    @Test
+    void fastPathRoundsLikeParseDouble() throws IOException {
+        Random random = new Random(11);
+        int count = 2000;
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            long digits = random.nextLong() % 1_000_000_000_000_000L;
+            String text = Long.toString(Math.abs(digits));
+            int point = random.nextInt(text.length() + 1);
+            values[i] = (digits < 0 ? "-" : "") + text.substring(0, point) + "." + text.substring(point);
+        }
+        Path file = write("values.asc", "ncols " + count + "\nnrows 1\n" + String.join(" ", values) + "\n");
+
+        List<double[]> cells = read(file, 1, count);
+
+        assertEquals(count, cells.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(Double.parseDouble(values[i]), cells.get(i)[2], values[i]);
+        }
+    }
+
+    @Test
+    void readsCsvWithHeaderAndEmptyFields() throws IOException {
+        Path file = write("risk.csv", "a,b,c\n0.1,,0.3\n\n 4 , 5,\"6\"\n");
+
+        List<double[]> cells = read(file, 2, 3);
+
+        double[][] expected = {{0, 0, 0.1}, {0, 2, 0.3}, {1, 0, 4}, {1, 1, 5}, {1, 2, 6}};
+        assertEquals(expected.length, cells.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i][0], cells.get(i)[0]);
+            assertEquals(expected[i][1], cells.get(i)[1]);
+            assertEquals(expected[i][2], cells.get(i)[2]);
+        }
+    }
+
+    @Test
+    void readsCsvWithoutHeader() throws IOException {
+        Path file = write("risk.csv", "1,2\r\n3,4");
+
+        List<double[]> cells = read(file, 2, 2);
+
+        assertEquals(4, cells.size());
+        assertEquals(4.0, cells.get(3)[2]);
+    }
+
+    @Test
+    void rejectsInvalidValues() throws IOException {
+        Path file = write("risk.asc", "ncols 2\nnrows 1\n0.5 abc\n");
+        try (RasterReader reader = RasterReader.open(file)) {
+            assertThrows(IllegalArgumentException.class, () -> reader.read((row, col, value) -> { }));
+        }
+    }
+
+    @Test
+    void rejectsShortEsriData() throws IOException {
+        Path file = write("risk.asc", "ncols 2\nnrows 2\n1 2 3\n");
+        try (RasterReader reader = RasterReader.open(file)) {
+            assertThrows(IllegalArgumentException.class, () -> reader.read((row, col, value) -> { }));
+        }
+    }
+
+    @Test
+    void rejectsEmptyRaster() throws IOException {
+        Path file = write("empty.csv", "\n\n");
+        assertThrows(IllegalArgumentException.class, () -> RasterReader.open(file));
+    }
+
+    private Path write(String name, String text) throws IOException {
+        return Files.write(dir.resolve(name), text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Every cell with data as {row, col, value}, after checking the dimensions
+     */
+    private static List<double[]> read(Path file, int rows, int cols) throws IOException {
+        List<double[]> cells = new ArrayList<>();
+        try (RasterReader reader = RasterReader.open(file)) {
+            assertEquals(rows, reader.getRows());
+            assertEquals(cols, reader.getCols());
+            reader.read((row, col, value) -> cells.add(new double[]{row, col, value}));
+        }
+        return cells;
+    }
+}
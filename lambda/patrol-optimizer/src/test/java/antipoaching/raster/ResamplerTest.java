@@ -0,0 +1,150 @@
+package antipoaching.raster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResamplerTest {
+
+    private static final double NONE = Double.NaN;
+
+    @Test
+    void shrinkingAveragesEachBlock() {
+        double[][] source = {
+            {1, 2, 3, 4},
+            {5, 6, 7, 8},
+            {9, 10, 11, 12},
+            {13, 14, 15, 16}
+        };
+
+        double[][] out = resample(source, 2, Resampler.Aggregation.MEAN);
+
+        assertArrayEquals(new double[]{3.5, 5.5}, out[0]);
+        assertArrayEquals(new double[]{11.5, 13.5}, out[1]);
+    }
+
+    @Test
+    void shrinkingTakesBlockMaximum() {
+        double[][] source = {
+            {-1, -2, 0, 3},
+            {-4, -3, 2, 1},
+            {0, 0, 5, 0},
+            {0, 1, 0, 0}
+        };
+
+        double[][] out = resample(source, 2, Resampler.Aggregation.MAX);
+
+        assertArrayEquals(new double[]{-1, 3}, out[0]);
+        assertArrayEquals(new double[]{1, 5}, out[1]);
+    }
+
+    @Test
+    void unevenShrinkUsesFlooredBlocks() {
+        // 3 -> 2: source 0 and 1 fall in output 0, source 2 in output 1
+        double[][] source = {
+            {1, 2, 3},
+            {4, 5, 6},
+            {7, 8, 9}
+        };
+
+        double[][] out = resample(source, 2, Resampler.Aggregation.MEAN);
+
+        assertArrayEquals(new double[]{3, 4.5}, out[0]);
+        assertArrayEquals(new double[]{7.5, 9}, out[1]);
+    }
+
+    @Test
+    void growingRepeatsEachSourceCell() {
+        double[][] source = {
+            {1, 2},
+            {3, 4}
+        };
+
+        double[][] out = resample(source, 5, Resampler.Aggregation.MEAN);
+
+        // Source i covers outputs t with floor(t * 2 / 5) == i: {0, 1, 2} and {3, 4}
+        double[][] expected = {
+            {1, 1, 1, 2, 2},
+            {1, 1, 1, 2, 2},
+            {1, 1, 1, 2, 2},
+            {3, 3, 3, 4, 4},
+            {3, 3, 3, 4, 4}
+        };
+        for (int row = 0; row < expected.length; row++) {
+            assertArrayEquals(expected[row], out[row]);
+        }
+    }
+
+    @Test
+    void nonSquareRasterFillsTopLeft() {
+        double[][] source = {
+            {1, 1, 2, 2, 3, 3, 4, 4},
+            {1, 1, 2, 2, 3, 3, 4, 4},
+            {5, 5, 6, 6, 7, 7, 8, 8},
+            {5, 5, 6, 6, 7, 7, 8, 8}
+        };
+        Resampler[] resampler = new Resampler[1];
+
+        double[][] out = resample(source, 4, Resampler.Aggregation.MEAN, resampler);
+
+        assertEquals(2, resampler[0].getTargetRows());
+        assertEquals(4, resampler[0].getTargetCols());
+        assertArrayEquals(new double[]{1, 2, 3, 4}, out[0]);
+        assertArrayEquals(new double[]{5, 6, 7, 8}, out[1]);
+        assertArrayEquals(new double[]{NONE, NONE, NONE, NONE}, out[2]);
+        assertArrayEquals(new double[]{NONE, NONE, NONE, NONE}, out[3]);
+    }
+
+    @Test
+    void noDataIsLeftOutOfBlocksAndEmptyBlocksAreNotEmitted() {
+        double[][] source = {
+            {NONE, 2, NONE, NONE},
+            {4, NONE, NONE, NONE},
+            {NONE, NONE, 1, 1},
+            {NONE, NONE, 1, 7}
+        };
+
+        double[][] mean = resample(source, 2, Resampler.Aggregation.MEAN);
+        double[][] max = resample(source, 2, Resampler.Aggregation.MAX);
+
+        assertArrayEquals(new double[]{3, NONE}, mean[0]);
+        assertArrayEquals(new double[]{NONE, 2.5}, mean[1]);
+        assertArrayEquals(new double[]{4, NONE}, max[0]);
+        assertArrayEquals(new double[]{NONE, 7}, max[1]);
+    }
+
+    private static double[][] resample(double[][] source, int gridSize, Resampler.Aggregation aggregation) {
+        return resample(source, gridSize, aggregation, new Resampler[1]);
+    }
+
+    /**
+     * Feed the source row-major, skipping NaN cells, and collect the output;
+     * cells the sink never receives stay NaN and a repeated one fails
+     */
+    private static double[][] resample(double[][] source, int gridSize, Resampler.Aggregation aggregation,
+                                       Resampler[] created) {
+        double[][] out = new double[gridSize][gridSize];
+        for (double[] row : out) {
+            Arrays.fill(row, NONE);
+        }
+        Resampler resampler = new Resampler(source.length, source[0].length, gridSize, aggregation,
+            (row, col, value) -> {
+                assertEquals(NONE, out[row][col], "cell " + row + "," + col + " emitted once");
+                out[row][col] = value;
+            });
+        created[0] = resampler;
+
+        for (int row = 0; row < source.length; row++) {
+            for (int col = 0; col < source[row].length; col++) {
+                if (!Double.isNaN(source[row][col])) {
+                    resampler.add(row, col, source[row][col]);
+                }
+            }
+        }
+        resampler.finish();
+        return out;
+    }
+}